@@ -16,20 +16,32 @@ package org.jhotdraw.draw;
 
 import org.jhotdraw.draw.figures.Figure;
 import java.lang.reflect.TypeVariable;
+import java.util.HashMap;
 
 /**
  * Provides typesafe getter and setter for a Figure attribute.
  * An AttributeKey has a name, a type and a default value. The default value
  * is returned by .getAttribute, if a Figure does not have an attribute
  * of the specified key.
+ * <p>
+ * Each key has a dense ordinal, which is assigned when the first key with
+ * its name is created. Keys with the same name have the same ordinal.
+ * {@link FigureAttributes} uses the ordinal to look up attribute values.
  *
  * @author Werner Randelshofer
- * @version 1.0.1 2006-07-14 Null values are not returned anymore when null
+ * @version 1.1 2026-10-17 Added ordinal.
+ * <br>1.0.1 2006-07-14 Null values are not returned anymore when null
  * values are not allowed.
  * <br>1.0 7. Juni 2006 Created.
  */
 public class AttributeKey<T> {
+  /**
+   * key = name of an attribute key
+   * value = ordinal of the attribute key
+   */
+  private static final HashMap<String, Integer> ordinals = new HashMap<>();
   private final String key;
+  final int ordinal;
   private final T defaultValue;
   private final boolean isNullValueAllowed;
 
@@ -48,6 +60,23 @@ public class AttributeKey<T> {
     this.key = key;
     this.defaultValue = defaultValue;
     this.isNullValueAllowed = isNullValueAllowed;
+    this.ordinal = ordinalOf(key);
+  }
+
+  private static synchronized int ordinalOf(String key) {
+    Integer ordinal = ordinals.get(key);
+    if (ordinal == null) {
+      ordinal = ordinals.size();
+      ordinals.put(key, ordinal);
+    }
+    return ordinal;
+  }
+
+  /**
+   * Returns the ordinal of this key.
+   */
+  public int getOrdinal() {
+    return ordinal;
   }
 
   public String getKey() {
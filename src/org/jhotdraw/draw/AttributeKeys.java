@@ -1,5 +1,5 @@
 /*
- * @(#)AttributeKeys.java  1.1  2006-07-09
+ * @(#)AttributeKeys.java  1.4  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -15,12 +15,15 @@
 package org.jhotdraw.draw;
 
 import org.jhotdraw.draw.liners.Liner;
+import org.jhotdraw.draw.figures.AbstractAttributedCompositeFigure;
+import org.jhotdraw.draw.figures.AttributedFigure;
 import org.jhotdraw.draw.figures.Figure;
 import org.jhotdraw.geom.Dimension2DDouble;
 import org.jhotdraw.geom.DoubleStroke;
 import org.jhotdraw.geom.Insets2DDouble;
 
 import java.awt.*;
+import java.lang.ref.WeakReference;
 import java.util.*;
 
 /**
@@ -28,9 +31,16 @@ import java.util.*;
  * helper methods.
  * <p>
  * Applications can have an AttributeKeys class of their own.
+ * <p>
+ * The helper methods cache the values, which they derive from the attributes
+ * of an AttributedFigure or an AbstractAttributedCompositeFigure, in the
+ * attributes of the figure. Equal strokes and fonts are shared by all
+ * figures.
  *
  * @author Werner Randelshofer
- * @version 1.2 2006-07-09 Stroke dash factor added.
+ * @version 1.4 2026-10-18 Method getDrawBoundsGrowth added.
+ * <br>1.3 2026-10-17 Derived values are cached.
+ * <br>1.2 2006-07-09 Stroke dash factor added.
  * <br>1.1 2006-06-07 Changed all values to double.
  * <br>1.0 23. 3. 2006 Created.
  */
@@ -263,11 +273,83 @@ public class AttributeKeys {
     supportedAttributeMap = Collections.unmodifiableMap(am);
   }
 
+  /**
+   * key = BasicStroke or Font
+   * value = a weak reference to the key
+   */
+  private static final WeakHashMap<Object, WeakReference<Object>> internedValues = new WeakHashMap<>();
+
+  /**
+   * Returns the attributes of a figure, in which derived values can be
+   * cached, or null if the figure does not have such attributes.
+   */
+  private static FigureAttributes getCache(Figure f) {
+    if (f instanceof AttributedFigure) {
+      return ((AttributedFigure) f).getFigureAttributes();
+    } else if (f instanceof AbstractAttributedCompositeFigure) {
+      return ((AbstractAttributedCompositeFigure) f).getFigureAttributes();
+    }
+    return null;
+  }
+
+  /**
+   * Returns an instance from a global pool, which is equal to the
+   * specified value.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T intern(T value) {
+    synchronized (internedValues) {
+      WeakReference<Object> ref = internedValues.get(value);
+      Object interned = (ref == null) ? null : ref.get();
+      if (interned == null) {
+        internedValues.put(value, new WeakReference<>(value));
+        return value;
+      }
+      return (T) interned;
+    }
+  }
+
+  /**
+   * Returns a cached double value, or computes and caches it.
+   */
+  private static double getDerivedDouble(Figure f, int index) {
+    FigureAttributes cache = getCache(f);
+    Double value = (cache == null) ? null : (Double) cache.getDerived(index);
+    if (value == null) {
+      switch (index) {
+        case FigureAttributes.STROKE_TOTAL_WIDTH:
+          value = createStrokeTotalWidth(f);
+          break;
+        case FigureAttributes.PERPENDICULAR_FILL_GROWTH:
+          value = createPerpendicularFillGrowth(f);
+          break;
+        case FigureAttributes.PERPENDICULAR_DRAW_GROWTH:
+          value = createPerpendicularDrawGrowth(f);
+          break;
+        case FigureAttributes.DRAW_BOUNDS_GROWTH:
+          value = createDrawBoundsGrowth(f);
+          break;
+        case FigureAttributes.PERPENDICULAR_HIT_GROWTH:
+        default:
+          value = createPerpendicularHitGrowth(f);
+          break;
+      }
+      if (cache != null) {
+        cache.putDerived(index, value);
+      }
+    }
+    return value;
+  }
+
   /**
    * Convenience method for computing the total stroke widTH from the
    * STROKE_WIDTH, STROKE_INNER_WIDTH and STROKE_TYPE attributes.
    */
   public static double getStrokeTotalWidth(Figure f) {
+    return getDerivedDouble(f, FigureAttributes.STROKE_TOTAL_WIDTH);
+  }
+
+  private static double createStrokeTotalWidth(Figure f) {
     switch (STROKE_TYPE.get(f)) {
       case BASIC:
       default:
@@ -279,7 +361,41 @@ public class AttributeKeys {
     }
   }
 
+  /**
+   * Returns the distance, that the bounds of a figure need to grow to
+   * contain its stroke. The distance takes the STROKE_JOIN and
+   * STROKE_MITER_LIMIT_FACTOR attributes into account, and includes a
+   * margin of one unit for antialiasing.
+   */
+  public static double getDrawBoundsGrowth(Figure f) {
+    return getDerivedDouble(f, FigureAttributes.DRAW_BOUNDS_GROWTH);
+  }
+
+  private static double createDrawBoundsGrowth(Figure f) {
+    double width = getStrokeTotalWidth(f) / 2d;
+    if (STROKE_JOIN.get(f) == BasicStroke.JOIN_MITER) {
+      width *= STROKE_MITER_LIMIT_FACTOR.get(f);
+    }
+    return width + 1d;
+  }
+
+  /**
+   * Convenience method for creating a Stroke from the stroke attributes
+   * of a figure. The returned stroke may be shared with other figures.
+   */
   public static Stroke getStroke(Figure f) {
+    FigureAttributes cache = getCache(f);
+    Stroke stroke = (cache == null) ? null : (Stroke) cache.getDerived(FigureAttributes.STROKE);
+    if (stroke == null) {
+      stroke = createStroke(f);
+      if (cache != null) {
+        cache.putDerived(FigureAttributes.STROKE, stroke);
+      }
+    }
+    return stroke;
+  }
+
+  private static Stroke createStroke(Figure f) {
     double strokeWidth = STROKE_WIDTH.get(f);
     double dashFactor = STROKE_DASH_FACTOR.get(f) != null ? STROKE_DASH_FACTOR.get(f) : strokeWidth;
     double[] dDashes = STROKE_DASHES.get(f);
@@ -294,7 +410,7 @@ public class AttributeKeys {
     switch (STROKE_TYPE.get(f)) {
       case BASIC:
       default:
-        return new BasicStroke((float) strokeWidth, BasicStroke.CAP_BUTT, STROKE_JOIN.get(f), Math.max(1f, (float) (STROKE_MITER_LIMIT_FACTOR.get(f) * strokeWidth)), dashes, (float) (STROKE_DASH_PHASE.get(f) * dashFactor));
+        return intern(new BasicStroke((float) strokeWidth, BasicStroke.CAP_BUTT, STROKE_JOIN.get(f), Math.max(1f, (float) (STROKE_MITER_LIMIT_FACTOR.get(f) * strokeWidth)), dashes, (float) (STROKE_DASH_PHASE.get(f) * dashFactor)));
       //not reached
 
       case DOUBLE:
@@ -303,15 +419,31 @@ public class AttributeKeys {
     }
   }
 
+  /**
+   * Convenience method for deriving a Font from the font attributes of a
+   * figure. The returned font may be shared with other figures.
+   */
   public static Font getFont(Figure f) {
+    FigureAttributes cache = getCache(f);
+    Font font = (cache == null) ? null : (Font) cache.getDerived(FigureAttributes.FONT);
+    if (font == null) {
+      font = createFont(f);
+      if (font != null && cache != null) {
+        cache.putDerived(FigureAttributes.FONT, font);
+      }
+    }
+    return font;
+  }
+
+  private static Font createFont(Figure f) {
     Font prototype = FONT_FACE.get(f);
     if (prototype == null) {
       return null;
     }
     if (getFontStyle(f) != Font.PLAIN) {
-      return prototype.deriveFont(getFontStyle(f), FONT_SIZE.get(f).floatValue());
+      return intern(prototype.deriveFont(getFontStyle(f), FONT_SIZE.get(f).floatValue()));
     } else {
-      return prototype.deriveFont(FONT_SIZE.get(f).floatValue());
+      return intern(prototype.deriveFont(FONT_SIZE.get(f).floatValue()));
     }
   }
 
@@ -330,6 +462,10 @@ public class AttributeKeys {
    * perpendicular to a stroke on an outline of the shape.
    */
   public static double getPerpendicularFillGrowth(Figure f) {
+    return getDerivedDouble(f, FigureAttributes.PERPENDICULAR_FILL_GROWTH);
+  }
+
+  private static double createPerpendicularFillGrowth(Figure f) {
     double grow;
     double strokeWidth = AttributeKeys.getStrokeTotalWidth(f);
     StrokePlacement placement = STROKE_PLACEMENT.get(f);
@@ -389,6 +525,10 @@ public class AttributeKeys {
    * perpendicular to a stroke on an outline of the shape.
    */
   public static double getPerpendicularDrawGrowth(Figure f) {
+    return getDerivedDouble(f, FigureAttributes.PERPENDICULAR_DRAW_GROWTH);
+  }
+
+  private static double createPerpendicularDrawGrowth(Figure f) {
     double grow;
 
     double strokeWidth = AttributeKeys.getStrokeTotalWidth(f);
@@ -416,6 +556,10 @@ public class AttributeKeys {
    * perpendicular to a stroke on an outline of the shape.
    */
   public static double getPerpendicularHitGrowth(Figure f) {
+    return getDerivedDouble(f, FigureAttributes.PERPENDICULAR_HIT_GROWTH);
+  }
+
+  private static double createPerpendicularHitGrowth(Figure f) {
     double grow;
     if (STROKE_COLOR.get(f) == null) {
       grow = getPerpendicularFillGrowth(f);
@@ -0,0 +1,410 @@
+/*
+ * @(#)FigureAttributes.java  1.3  2026-10-18
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.draw;
+
+import org.jhotdraw.xml.DOMInput;
+import org.jhotdraw.xml.DOMOutput;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Holds the attributes of a figure.
+ * <p>
+ * The attributes are kept in two parallel arrays, which are sorted by the
+ * ordinals of the attribute keys. A figure has few attributes, so this
+ * takes much less memory than a HashMap, and a lookup is a short binary
+ * search without hashing.
+ * <p>
+ * The arrays are copied on write. A clone shares the arrays with the
+ * original, until one of them is changed. {@link #intern} replaces the
+ * arrays by an equal set of attributes from a global pool, so that figures
+ * with the same style share a single set of attributes.
+ * <p>
+ * Values which are derived from the attributes, such as the stroke and the
+ * font of a figure, can be cached with {@link #putDerived}. Figures, which
+ * share their attributes, share these values as well. The derived values
+ * are discarded when an attribute is changed.
+ * <p>
+ * A null value is a valid attribute value. Use {@link #containsKey} to
+ * distinguish an attribute with a null value from a missing attribute.
+ *
+ * @author Werner Randelshofer
+ * @version 1.3 2026-10-18 Ids of written attribute sets are kept by the
+ * DOMOutput and DOMInput.
+ * <br>1.2 2026-10-17 Cache for derived values added.
+ * <br>1.1 2026-10-17 Copy on write and interning added.
+ * <br>1.0 2026-10-17 Created.
+ */
+public class FigureAttributes implements Cloneable {
+  /**
+   * Index of the derived Stroke.
+   */
+  public static final int STROKE = 0;
+  /**
+   * Index of the derived Font.
+   */
+  public static final int FONT = 1;
+  /**
+   * Index of the derived total stroke width.
+   */
+  public static final int STROKE_TOTAL_WIDTH = 2;
+  /**
+   * Index of the derived perpendicular fill growth.
+   */
+  public static final int PERPENDICULAR_FILL_GROWTH = 3;
+  /**
+   * Index of the derived perpendicular draw growth.
+   */
+  public static final int PERPENDICULAR_DRAW_GROWTH = 4;
+  /**
+   * Index of the derived perpendicular hit growth.
+   */
+  public static final int PERPENDICULAR_HIT_GROWTH = 5;
+  /**
+   * Index of the derived growth of the bounds to the draw bounds.
+   */
+  public static final int DRAW_BOUNDS_GROWTH = 6;
+  private static final int DERIVED_COUNT = 7;
+
+  /**
+   * key = Slots
+   * value = a weak reference to the key
+   */
+  private static final WeakHashMap<Slots, WeakReference<Slots>> pool = new WeakHashMap<>();
+
+  private Slots slots = Slots.EMPTY;
+  /**
+   * True, if the slots may be referenced by other instances, or by the
+   * pool. Shared slots must not be changed.
+   */
+  private boolean isShared = true;
+
+  /**
+   * Creates a new instance without attributes.
+   */
+  public FigureAttributes() {
+  }
+
+  /**
+   * Returns the number of attributes.
+   */
+  public int size() {
+    return slots.size;
+  }
+
+  /**
+   * Returns the key of the attribute at the specified index.
+   * The attributes are ordered by the ordinals of their keys.
+   */
+  public AttributeKey<?> getKey(int index) {
+    return slots.keys[index];
+  }
+
+  /**
+   * Returns the value of the attribute at the specified index.
+   */
+  public Object getValue(int index) {
+    return slots.values[index];
+  }
+
+  public boolean containsKey(AttributeKey<?> key) {
+    return slots.indexOf(key.ordinal) >= 0;
+  }
+
+  /**
+   * Returns the value of the attribute, or null if there is no attribute
+   * with the specified key.
+   */
+  public Object get(AttributeKey<?> key) {
+    int index = slots.indexOf(key.ordinal);
+    return (index < 0) ? null : slots.values[index];
+  }
+
+  /**
+   * Returns the value of the attribute, or the default value of the key if
+   * there is no attribute with the specified key.
+   */
+  public Object getOrDefault(AttributeKey<?> key) {
+    int index = slots.indexOf(key.ordinal);
+    return (index < 0) ? key.getDefaultValue() : slots.values[index];
+  }
+
+  /**
+   * Sets the value of an attribute.
+   *
+   * @return The previous value, or null if there was none.
+   */
+  public Object put(AttributeKey<?> key, Object value) {
+    int index = slots.indexOf(key.ordinal);
+    if (index >= 0) {
+      Object oldValue = slots.values[index];
+      if (oldValue != value) {
+        ensureOwned(0).values[index] = value;
+      }
+      return oldValue;
+    }
+    index = -index - 1;
+    Slots s = ensureOwned(1);
+    System.arraycopy(s.keys, index, s.keys, index + 1, s.size - index);
+    System.arraycopy(s.values, index, s.values, index + 1, s.size - index);
+    s.keys[index] = key;
+    s.values[index] = value;
+    s.size++;
+    return null;
+  }
+
+  /**
+   * Removes an attribute.
+   *
+   * @return The previous value, or null if there was none.
+   */
+  public Object remove(AttributeKey<?> key) {
+    int index = slots.indexOf(key.ordinal);
+    if (index < 0) {
+      return null;
+    }
+    Slots s = ensureOwned(0);
+    Object oldValue = s.values[index];
+    System.arraycopy(s.keys, index + 1, s.keys, index, s.size - index - 1);
+    System.arraycopy(s.values, index + 1, s.values, index, s.size - index - 1);
+    s.size--;
+    s.keys[s.size] = null;
+    s.values[s.size] = null;
+    return oldValue;
+  }
+
+  /**
+   * Returns the attributes as a map.
+   */
+  public HashMap<AttributeKey, Object> toMap() {
+    HashMap<AttributeKey, Object> map = new HashMap<>();
+    for (int i = 0; i < slots.size; i++) {
+      map.put(slots.keys[i], slots.values[i]);
+    }
+    return map;
+  }
+
+  /**
+   * Returns a cached value, which is derived from the attributes, or null
+   * if the value has not been cached.
+   *
+   * @param index The index of the derived value, for example {@link #STROKE}.
+   */
+  public Object getDerived(int index) {
+    Object[] derived = slots.derived;
+    return (derived == null) ? null : derived[index];
+  }
+
+  /**
+   * Caches a value, which is derived from the attributes. The value must
+   * not be changed afterwards.
+   *
+   * @param index The index of the derived value, for example {@link #STROKE}.
+   */
+  public void putDerived(int index, Object value) {
+    Object[] derived = slots.derived;
+    if (derived == null) {
+      derived = new Object[DERIVED_COUNT];
+      slots.derived = derived;
+    }
+    derived[index] = value;
+  }
+
+  /**
+   * Shares the attributes with all other interned instances, which have
+   * equal attributes.
+   */
+  public void intern() {
+    synchronized (pool) {
+      WeakReference<Slots> ref = pool.get(slots);
+      Slots interned = (ref == null) ? null : ref.get();
+      if (interned == null) {
+        interned = (isShared) ? slots : slots.copy(slots.size);
+        pool.put(interned, new WeakReference<>(interned));
+      }
+      slots = interned;
+      isShared = true;
+    }
+  }
+
+  /**
+   * Interns the attributes, and returns an immutable object which is equal
+   * for equal sets of attributes.
+   */
+  public Object getStyle() {
+    intern();
+    return slots;
+  }
+
+  /**
+   * Makes sure that the slots are not shared and have room for the
+   * specified number of additional attributes.
+   */
+  private Slots ensureOwned(int growth) {
+    int needed = slots.size + growth;
+    if (isShared || needed > slots.keys.length) {
+      slots = slots.copy(Math.max(4, needed + (needed >> 1)));
+      isShared = false;
+    } else {
+      slots.derived = null;
+    }
+    return slots;
+  }
+
+  @Override
+  public FigureAttributes clone() {
+    try {
+      FigureAttributes that = (FigureAttributes) super.clone();
+      this.isShared = true;
+      that.isShared = true;
+      return that;
+    } catch (CloneNotSupportedException e) {
+      throw new InternalError(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the id of an attribute set, which has been written to the
+   * specified output, or null if it has not been written yet.
+   * The ids are kept by the output, and they are discarded with it.
+   *
+   * @param out   The output.
+   * @param style An immutable object, which identifies the written
+   *              attributes.
+   */
+  public static String getWrittenId(DOMOutput out, Object style) {
+    return out.getSharedIds().get(style);
+  }
+
+  /**
+   * Assigns an id to an attribute set, which is being written to the
+   * specified output.
+   *
+   * @return The id.
+   */
+  public static String putWrittenId(DOMOutput out, Object style) {
+    Map<Object, String> ids = out.getSharedIds();
+    String id = "a" + Integer.toString(ids.size(), 16);
+    ids.put(style, id);
+    return id;
+  }
+
+  /**
+   * Returns the attribute set with the specified id, which has been read
+   * from the specified input, or null if no such set has been read.
+   */
+  public static FigureAttributes getReadSet(DOMInput in, String id) {
+    Object set = in.getSharedObjects().get(id);
+    return (set instanceof FigureAttributes) ? (FigureAttributes) set : null;
+  }
+
+  /**
+   * Remembers an attribute set, which has been read from the specified
+   * input. The set is kept by the input, and it is discarded with it.
+   */
+  public static void putReadSet(DOMInput in, String id, FigureAttributes attributes) {
+    in.getSharedObjects().put(id, attributes);
+  }
+
+  /**
+   * Holds the sorted keys and the values of a set of attributes.
+   */
+  private static class Slots {
+    private static final Slots EMPTY = new Slots(0);
+
+    private final AttributeKey<?>[] keys;
+    private final Object[] values;
+    private int size;
+    /**
+     * Values derived from the attributes, or null.
+     */
+    private Object[] derived;
+
+    public Slots(int capacity) {
+      keys = new AttributeKey<?>[capacity];
+      values = new Object[capacity];
+    }
+
+    /**
+     * Returns a copy with the specified capacity.
+     */
+    public Slots copy(int capacity) {
+      Slots that = new Slots(capacity);
+      System.arraycopy(keys, 0, that.keys, 0, size);
+      System.arraycopy(values, 0, that.values, 0, size);
+      that.size = size;
+      return that;
+    }
+
+    /**
+     * Returns the index of the key with the specified ordinal, or
+     * (-(insertion point) - 1) if there is no such key.
+     */
+    public int indexOf(int ordinal) {
+      int low = 0;
+      int high = size - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int midOrdinal = keys[mid].ordinal;
+        if (midOrdinal < ordinal) {
+          low = mid + 1;
+        } else if (midOrdinal > ordinal) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Slots)) {
+        return false;
+      }
+      Slots that = (Slots) o;
+      if (that.size != this.size) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        if (that.keys[i].ordinal != this.keys[i].ordinal) {
+          return false;
+        }
+        Object a = this.values[i];
+        Object b = that.values[i];
+        if (a == null ? b != null : !a.equals(b)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = size;
+      for (int i = 0; i < size; i++) {
+        hash = hash * 31 + keys[i].ordinal;
+        hash = hash * 31 + (values[i] == null ? 0 : values[i].hashCode());
+      }
+      return hash;
+    }
+  }
+}
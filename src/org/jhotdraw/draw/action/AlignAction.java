@@ -1,5 +1,5 @@
 /*
- * @(#)AlignAction.java  2.0  2006-01-15
+ * @(#)AlignAction.java  2.1  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -16,6 +16,7 @@ package org.jhotdraw.draw.action;
 
 import org.jhotdraw.draw.editors.DrawingEditor;
 import org.jhotdraw.draw.figures.Figure;
+import org.jhotdraw.draw.figures.FigureEventBatch;
 import org.jhotdraw.draw.edits.TransformEdit;
 import org.jhotdraw.undo.CompositeEdit;
 
@@ -29,7 +30,8 @@ import java.util.Collection;
  * XXX - Fire edit events
  *
  * @author Werner Randelshofer
- * @version 2.0 2006-01-15 Changed to support double precision coordinates.
+ * @version 2.1 2026-10-17 Figure events are batched.
+ * <br>2.0 2006-01-15 Changed to support double precision coordinates.
  * <br>1.0 17. März Created.
  */
 public abstract class AlignAction extends AbstractSelectedAction {
@@ -52,7 +54,12 @@ public abstract class AlignAction extends AbstractSelectedAction {
   public void actionPerformed(java.awt.event.ActionEvent e) {
     CompositeEdit edit = new CompositeEdit(labels.getString("align"));
     fireUndoableEditHappened(edit);
-    alignFigures(getView().getSelectedFigures(), getSelectionBounds());
+    FigureEventBatch.begin();
+    try {
+      alignFigures(getView().getSelectedFigures(), getSelectionBounds());
+    } finally {
+      FigureEventBatch.end();
+    }
     fireUndoableEditHappened(edit);
   }
 
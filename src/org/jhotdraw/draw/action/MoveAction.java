@@ -1,5 +1,5 @@
 /*
- * @(#)MoveAction.java  1.0  17. März 2004
+ * @(#)MoveAction.java  1.1  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -16,6 +16,7 @@ package org.jhotdraw.draw.action;
 
 import org.jhotdraw.draw.editors.DrawingEditor;
 import org.jhotdraw.draw.figures.Figure;
+import org.jhotdraw.draw.figures.FigureEventBatch;
 import org.jhotdraw.draw.edits.TransformEdit;
 import org.jhotdraw.undo.CompositeEdit;
 
@@ -25,7 +26,8 @@ import java.awt.geom.AffineTransform;
  * MoveAction.
  *
  * @author Werner Randelshofer
- * @version 1.0 17. März 2004  Created.
+ * @version 1.1 2026-10-17 Figure events are batched.
+ * <br>1.0 17. März 2004  Created.
  */
 @SuppressWarnings("unused")
 public abstract class MoveAction extends AbstractSelectedAction {
@@ -45,10 +47,15 @@ public abstract class MoveAction extends AbstractSelectedAction {
     CompositeEdit edit;
     AffineTransform tx = new AffineTransform();
     tx.translate(dx, dy);
-    for (Figure f : getView().getSelectedFigures()) {
-      f.willChange();
-      f.basicTransform(tx);
-      f.changed();
+    FigureEventBatch.begin();
+    try {
+      for (Figure f : getView().getSelectedFigures()) {
+        f.willChange();
+        f.basicTransform(tx);
+        f.changed();
+      }
+    } finally {
+      FigureEventBatch.end();
     }
     fireUndoableEditHappened(new TransformEdit(getView().getSelectedFigures(), tx));
 
@@ -1,5 +1,5 @@
 /*
- * @(#)ChopEllipseConnector.java  2.1  2006-05-18
+ * @(#)ChopEllipseConnector.java  2.2  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -29,7 +29,8 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * figure's display box.
  *
  * @author Werner Randelshofer
- * @version 2.1 2006-05-18 Reworked.
+ * @version 2.2 2026-10-18 Intersects the ellipse analytically.
+ * <br>2.1 2006-05-18 Reworked.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
@@ -74,7 +75,6 @@ public class ChopEllipseConnector extends ChopBoxConnector {
       }
       Geom.grow(r, grow, grow);
     }
-    double angle = Geom.pointToAngle(r, from);
-    return Geom.ovalAngleToPoint(r, angle);
+    return Geom.chopEllipse(r, from);
   }
 }
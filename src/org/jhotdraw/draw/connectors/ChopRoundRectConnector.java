@@ -1,5 +1,5 @@
 /*
- * @(#)ChopRoundRectConnector.java  2.0  2006-01-14
+ * @(#)ChopRoundRectConnector.java  2.1  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -30,7 +30,8 @@ import static org.jhotdraw.draw.AttributeKeys.STROKE_PLACEMENT;
  * display box of a RoundRectangleFigure.
  *
  * @author Werner Randelshofer
- * @version 2.0 2006-01-14 Changed to support double precision coordinates.
+ * @version 2.1 2026-10-18 Intersects the rounded corners analytically.
+ * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0  2004-03-02  Derived from class ShortestDistanceConnector of
  * JHotDraw 6.0b1.
  */
@@ -66,23 +67,6 @@ public class ChopRoundRectConnector extends ChopBoxConnector {
         break;
     }
     Geom.grow(outer, grow, grow);
-
-    Rectangle2D.Double inner = (Rectangle2D.Double) outer.clone();
-    double gw = -(rrf.getArcWidth() + grow * 2) / 2;
-    double gh = -(rrf.getArcHeight() + grow * 2) / 2;
-    inner.x -= gw;
-    inner.y -= gh;
-    inner.width += gw * 2;
-    inner.height += gh * 2;
-
-    double angle = Geom.pointToAngle(outer, from);
-    Point2D.Double p = Geom.angleToPoint(outer, Geom.pointToAngle(outer, from));
-
-    if (p.x == outer.x || p.x == outer.x + outer.width) {
-      p.y = Math.min(Math.max(p.y, inner.y), inner.y + inner.height);
-    } else {
-      p.x = Math.min(Math.max(p.x, inner.x), inner.x + inner.width);
-    }
-    return p;
+    return Geom.chopRoundRect(outer, rrf.getArcWidth() + grow * 2, rrf.getArcHeight() + grow * 2, from);
   }
 }
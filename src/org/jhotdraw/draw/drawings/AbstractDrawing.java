@@ -18,7 +18,6 @@ import org.jhotdraw.beans.AbstractBean;
 import org.jhotdraw.draw.events.DrawingEvent;
 import org.jhotdraw.draw.figures.Figure;
 import org.jhotdraw.draw.listeners.DrawingListener;
-import org.jhotdraw.undo.CompositeEdit;
 import org.jhotdraw.xml.DOMInput;
 import org.jhotdraw.xml.DOMOutput;
 
@@ -34,12 +33,20 @@ import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 
 /**
  * AbstractDrawing.
  *
  * @author Werner Randelshofer
- * @version 2.1 2006-07-08 Extend AbstractBean.
+ * @version 2.5 2026-10-18 Draw bounds only grow with figures, which are
+ * contained in the drawing.
+ * <br>2.4 2026-10-17 Draw bounds of figures are queried without
+ * allocating a rectangle for each figure.
+ * <br>2.3 2026-10-17 Scale factor added.
+ * <br>2.2 2026-10-17 Maintain the draw bounds of the drawing.
+ * <br>2.1 2006-07-08 Extend AbstractBean.
  * <br>2.0.1 2006-02-06 Did ugly dirty fix for IndexOutOfBoundsException when
  * undoing removal of Figures.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
@@ -49,6 +56,13 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
   private static final Object lock = new JPanel().getTreeLock();
   protected EventListenerList listenerList = new EventListenerList();
   private FontRenderContext fontRenderContext;
+  private double scaleFactor = 1;
+  /**
+   * The union of the draw bounds of all figures. This is null, if the
+   * drawing has no figures.
+   */
+  private Rectangle2D.Double drawBounds;
+  private boolean needsDrawBounds = true;
 
   /**
    * Creates a new instance.
@@ -72,13 +86,47 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     listenerList.remove(UndoableEditListener.class, l);
   }
 
+  /**
+   * Adds all figures in one operation. Calls basicAddAll and then calls
+   * figure.addNotify on each figure. Fires a single figureAdded event and
+   * a single undoable edit for all figures.
+   */
   public void addAll(Collection<Figure> figures) {
-    CompositeEdit edit = new CompositeEdit("Figuren hinzufügen");
-    fireUndoableEditHappened(edit);
-    for (Figure f : figures) {
-      add(f);
+    final ArrayList<Figure> added = new ArrayList<>(figures);
+    if (added.isEmpty()) {
+      return;
+    }
+    basicAddAll(added);
+    for (Figure f : added) {
+      f.addNotify(this);
     }
-    fireUndoableEditHappened(edit);
+    fireFiguresAdded(added);
+    fireUndoableEditHappened(new AbstractUndoableEdit() {
+      @Override
+      public String getPresentationName() {
+        return "Figuren hinzufügen";
+      }
+
+      @Override
+      public void undo() throws CannotUndoException {
+        super.undo();
+        basicRemoveAll(added);
+        for (Figure f : added) {
+          f.removeNotify(AbstractDrawing.this);
+        }
+        fireFiguresRemoved(added);
+      }
+
+      @Override
+      public void redo() throws CannotUndoException {
+        super.redo();
+        basicAddAll(added);
+        for (Figure f : added) {
+          f.addNotify(AbstractDrawing.this);
+        }
+        fireFiguresAdded(added);
+      }
+    });
   }
 
   /***
@@ -95,17 +143,70 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     return getFigures().size();
   }
 
+  /**
+   * Removes all figures in one operation. Calls basicRemoveAll and then
+   * calls figure.removeNotify on each figure. Fires a single figureRemoved
+   * event and a single undoable edit for all figures. Undoing the edit
+   * reinserts the figures at their previous indices.
+   */
   public void removeAll(Collection<Figure> toBeRemoved) {
-    CompositeEdit edit = new CompositeEdit("Figuren entfernen");
-    fireUndoableEditHappened(edit);
+    final ArrayList<Figure> removed = new ArrayList<>(toBeRemoved.size());
+    for (Figure f : new LinkedHashSet<>(toBeRemoved)) {
+      if (contains(f)) {
+        removed.add(f);
+      } else {
+        fireAreaInvalidated(f.getDrawBounds());
+      }
+    }
+    if (removed.isEmpty()) {
+      return;
+    }
+    // Undo reinserts the figures in the order of their previous indices.
+    removed.sort(Comparator.comparingInt(this::indexOf));
+    final int[] indices = new int[removed.size()];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = indexOf(removed.get(i));
+    }
 
-    for (Figure f : new ArrayList<>(toBeRemoved)) {
-      remove(f);
+    basicRemoveAll(removed);
+    for (Figure f : removed) {
+      f.removeNotify(this);
     }
+    fireFiguresRemoved(removed);
+    fireUndoableEditHappened(new AbstractUndoableEdit() {
+      @Override
+      public String getPresentationName() {
+        return "Figuren entfernen";
+      }
+
+      @Override
+      public void redo() throws CannotUndoException {
+        super.redo();
+        basicRemoveAll(removed);
+        for (Figure f : removed) {
+          f.removeNotify(AbstractDrawing.this);
+        }
+        fireFiguresRemoved(removed);
+      }
 
-    fireUndoableEditHappened(edit);
+      @Override
+      public void undo() throws CannotUndoException {
+        super.undo();
+        for (int i = 0; i < indices.length; i++) {
+          basicAdd(indices[i], removed.get(i));
+        }
+        for (Figure f : removed) {
+          f.addNotify(AbstractDrawing.this);
+        }
+        fireFiguresAdded(removed);
+      }
+    });
   }
 
+  /**
+   * Appends the figures to the drawing. Subclasses, which can add many
+   * figures faster than one by one, should override this method.
+   */
   public void basicAddAll(Collection<Figure> figures) {
     for (Figure f : figures) {
       basicAdd(f);
@@ -209,7 +310,7 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     for (int i = listeners.length - 2; i >= 0; i -= 2) {
       if (listeners[i] == DrawingListener.class) {
         // Lazily create the event:
-        if (event == null) event = new DrawingEvent(this, null, dirtyRegion);
+        if (event == null) event = new DrawingEvent(this, (Figure) null, dirtyRegion);
         ((DrawingListener) listeners[i + 1]).areaInvalidated(event);
       }
     }
@@ -241,6 +342,8 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
    * notification on this event type.
    */
   protected void fireFigureAdded(Figure f) {
+    Rectangle2D.Double bounds = f.getDrawBounds();
+    growDrawBounds(bounds);
     DrawingEvent event = null;
     // Notify all listeners that have registered interest for
     // Guaranteed to return a non-null array
@@ -250,17 +353,136 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     for (int i = listeners.length - 2; i >= 0; i -= 2) {
       if (listeners[i] == DrawingListener.class) {
         // Lazily create the event:
-        if (event == null) event = new DrawingEvent(this, f, f.getDrawBounds());
+        if (event == null) event = new DrawingEvent(this, f, bounds);
+        ((DrawingListener) listeners[i + 1]).figureAdded(event);
+      }
+    }
+  }
+
+  /**
+   * Notify all listenerList that have registered interest for
+   * notification on this event type.
+   * Fires a single figureAdded event for all figures.
+   */
+  protected void fireFiguresAdded(Collection<Figure> figures) {
+    Rectangle2D.Double bounds = getDrawBounds(figures);
+    growDrawBounds(bounds);
+    DrawingEvent event = null;
+    Object[] listeners = listenerList.getListenerList();
+    for (int i = listeners.length - 2; i >= 0; i -= 2) {
+      if (listeners[i] == DrawingListener.class) {
+        // Lazily create the event:
+        if (event == null) event = new DrawingEvent(this, figures, bounds);
         ((DrawingListener) listeners[i + 1]).figureAdded(event);
       }
     }
   }
 
+  /**
+   * Notify all listenerList that have registered interest for
+   * notification on this event type.
+   * Fires a single figureRemoved event for all figures.
+   */
+  protected void fireFiguresRemoved(Collection<Figure> figures) {
+    Rectangle2D.Double bounds = getDrawBounds(figures);
+    shrinkDrawBounds(bounds);
+    DrawingEvent event = null;
+    Object[] listeners = listenerList.getListenerList();
+    for (int i = listeners.length - 2; i >= 0; i -= 2) {
+      if (listeners[i] == DrawingListener.class) {
+        // Lazily create the event:
+        if (event == null) event = new DrawingEvent(this, figures, bounds);
+        ((DrawingListener) listeners[i + 1]).figureRemoved(event);
+      }
+    }
+  }
+
+  /**
+   * Returns the union of the draw bounds of all figures.
+   * <p>
+   * The bounds are maintained incrementally from the events of the drawing.
+   * They grow with added and changed figures, and are only computed again
+   * from all figures, after a figure has been removed from their border. Thus the bounds may be larger than necessary, after
+   * figures have been moved toward the center of the drawing.
+   *
+   * @return The draw bounds, or an empty rectangle at the origin if the
+   * drawing has no figures.
+   */
+  public Rectangle2D.Double getDrawBounds() {
+    if (needsDrawBounds) {
+      drawBounds = (getFigureCount() == 0) ? null : getDrawBounds(getFigures());
+      needsDrawBounds = false;
+    }
+    return (drawBounds == null) ? new Rectangle2D.Double() : (Rectangle2D.Double) drawBounds.clone();
+  }
+
+  /**
+   * Adds the draw bounds of a changed figure to the draw bounds of the
+   * drawing. Subclasses call this method, when they receive a figureChanged
+   * event. Events of figures, which are not contained in the drawing, are
+   * ignored.
+   *
+   * @param figure           The changed figure.
+   * @param figureDrawBounds The draw bounds of the figure after the change.
+   */
+  protected void growDrawBounds(Figure figure, Rectangle2D.Double figureDrawBounds) {
+    if (contains(figure)) {
+      growDrawBounds(figureDrawBounds);
+    }
+  }
+
+  /**
+   * Adds an area, which contains added or changed figures, to the draw
+   * bounds.
+   */
+  private void growDrawBounds(Rectangle2D.Double r) {
+    if (!needsDrawBounds && getFigureCount() > 0) {
+      if (drawBounds == null) {
+        drawBounds = (Rectangle2D.Double) r.clone();
+      } else {
+        drawBounds.add(r);
+      }
+    }
+  }
+
+  /**
+   * Invalidates the draw bounds, if removed figures touch their border.
+   */
+  private void shrinkDrawBounds(Rectangle2D.Double r) {
+    if (!needsDrawBounds && drawBounds != null) {
+      if (getFigureCount() == 0) {
+        drawBounds = null;
+      } else if (r.x <= drawBounds.x || r.y <= drawBounds.y
+          || r.x + r.width >= drawBounds.x + drawBounds.width
+          || r.y + r.height >= drawBounds.y + drawBounds.height) {
+        needsDrawBounds = true;
+      }
+    }
+  }
+
+  /**
+   * Returns the union of the draw bounds of the figures.
+   */
+  private static Rectangle2D.Double getDrawBounds(Collection<Figure> figures) {
+    Rectangle2D.Double bounds = null;
+    Rectangle2D.Double figureBounds = new Rectangle2D.Double();
+    for (Figure f : figures) {
+      if (bounds == null) {
+        bounds = f.getDrawBounds();
+      } else {
+        bounds.add(f.getDrawBounds(figureBounds));
+      }
+    }
+    return (bounds == null) ? new Rectangle2D.Double() : bounds;
+  }
+
   /**
    * Notify all listenerList that have registered interest for
    * notification on this event type.
    */
   protected void fireFigureRemoved(Figure f) {
+    Rectangle2D.Double bounds = f.getDrawBounds();
+    shrinkDrawBounds(bounds);
     DrawingEvent event = null;
     // Notify all listeners that have registered interest for
     // Guaranteed to return a non-null array
@@ -270,7 +492,7 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     for (int i = listeners.length - 2; i >= 0; i -= 2) {
       if (listeners[i] == DrawingListener.class) {
         // Lazily create the event:
-        if (event == null) event = new DrawingEvent(this, f, f.getDrawBounds());
+        if (event == null) event = new DrawingEvent(this, f, bounds);
         ((DrawingListener) listeners[i + 1]).figureRemoved(event);
       }
     }
@@ -284,12 +506,22 @@ public abstract class AbstractDrawing extends AbstractBean implements Drawing {
     fontRenderContext = frc;
   }
 
+  public double getScaleFactor() {
+    return scaleFactor;
+  }
+
+  public void setScaleFactor(double newValue) {
+    scaleFactor = newValue;
+  }
+
   public void read(DOMInput in) throws IOException {
     in.openElement("figures");
+    ArrayList<Figure> figures = new ArrayList<>(in.getElementCount());
     for (int i = 0; i < in.getElementCount(); i++) {
-      add((Figure) in.readObject(i));
+      figures.add((Figure) in.readObject(i));
     }
     in.closeElement();
+    addAll(figures);
   }
 
   public void write(DOMOutput out) throws IOException {
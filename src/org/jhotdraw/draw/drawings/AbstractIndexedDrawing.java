@@ -0,0 +1,432 @@
+/*
+ * @(#)AbstractIndexedDrawing.java  1.0  2026-10-18
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.draw.drawings;
+
+import org.jhotdraw.draw.FigureLayerComparator;
+import org.jhotdraw.draw.events.FigureEvent;
+import org.jhotdraw.draw.figures.Figure;
+import org.jhotdraw.draw.listeners.FigureListener;
+import org.jhotdraw.geom.SpatialIndex2DDouble;
+import org.jhotdraw.util.ReversedList;
+
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.event.UndoableEditListener;
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * AbstractIndexedDrawing uses a SpatialIndex2DDouble to improve
+ * responsiveness of drawings which contain many figures. Subclasses
+ * choose the spatial index.
+ * <p>
+ * Added and changed figures are not put into the spatial index immediately.
+ * They are collected, and put into the index in one batch before the index
+ * is queried the next time. This way, dragging many figures relocates
+ * each figure once per mouse event, and without searching the index for
+ * it, and reading a drawing builds the index in one pass.
+ * <p>
+ * Each figure has a z-rank, which increases from back to front. Ranks are
+ * kept up to date when figures are added, brought to the front or sent to
+ * the back, and they are only renumbered, when a figure is inserted in the
+ * middle of the z-order or its layer changes. The candidates returned by
+ * the spatial index are sorted by rank, so that queries do not need to
+ * iterate over all figures of the drawing.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Changed figures grow the draw bounds.
+ * <br>1.0 2026-10-18 Extracted from QuadTreeDrawing.
+ */
+public abstract class AbstractIndexedDrawing extends AbstractDrawing implements FigureListener, UndoableEditListener {
+  private static final long serialVersionUID = 1L;
+
+  private final FigureList figures = new FigureList();
+  private final SpatialIndex2DDouble<Figure> spatialIndex;
+  private boolean needsSorting = false;
+  /**
+   * Reusable buffer for the results of point queries on the spatial index.
+   */
+  private final ArrayList<Figure> hits = new ArrayList<>();
+  /**
+   * Figures which have been added or changed since the spatial index
+   * was updated last.
+   */
+  private final LinkedHashSet<Figure> changedFigures = new LinkedHashSet<>();
+  /**
+   * key = Figure
+   * value = ZRank
+   */
+  private final HashMap<Figure, ZRank> ranks = new HashMap<>();
+  private boolean needsRanking = false;
+  /**
+   * Sorts figures from back to front.
+   * The figures must have been ranked with ensureRanked.
+   */
+  private final Comparator<Figure> rankComparator = (f1, f2) -> Long.compare(ranks.get(f1).rank, ranks.get(f2).rank);
+
+  /**
+   * Creates a new instance, which uses the specified spatial index.
+   */
+  protected AbstractIndexedDrawing(SpatialIndex2DDouble<Figure> spatialIndex) {
+    this.spatialIndex = spatialIndex;
+  }
+
+  protected int indexOf(Figure figure) {
+    return figures.indexOf(figure);
+  }
+
+  public void basicAdd(int index, Figure figure) {
+    ZRank zRank = new ZRank(figure.getLayer());
+    if (index == figures.size()) {
+      rankAtFront(figure, zRank);
+    } else {
+      needsSorting = true;
+    }
+    figures.add(index, figure);
+    ranks.put(figure, zRank);
+    changedFigures.add(figure);
+    figure.addFigureListener(this);
+    figure.addUndoableEditListener(this);
+  }
+
+  public void basicRemove(Figure figure) {
+    // Removing a figure does not change the order of the remaining ranks.
+    figures.remove(figure);
+    ranks.remove(figure);
+    spatialIndex.remove(figure);
+    changedFigures.remove(figure);
+    figure.removeFigureListener(this);
+    figure.removeUndoableEditListener(this);
+  }
+
+  /**
+   * Removes the figures in a single pass over the figures list.
+   */
+  @Override
+  public void basicRemoveAll(Collection<Figure> toBeOrphaned) {
+    ArrayList<Figure> orphans = new ArrayList<>(toBeOrphaned);
+    figures.removeAll(orphans);
+    for (Figure f : orphans) {
+      ranks.remove(f);
+      spatialIndex.remove(f);
+      changedFigures.remove(f);
+      f.removeFigureListener(this);
+      f.removeUndoableEditListener(this);
+    }
+  }
+
+  public void draw(Graphics2D g) {
+    ensureIndexed();
+    ArrayList<Figure> toDraw = new ArrayList<>();
+    Rectangle clip = g.getClipBounds();
+    spatialIndex.findIntersects(new Rectangle2D.Double(clip.x, clip.y, clip.width, clip.height), toDraw);
+    sortByRank(toDraw);
+    draw(g, toDraw);
+  }
+
+  /**
+   * Implementation note: Sorting can not be done for orphaned figures.
+   */
+  public Collection<Figure> sort(Collection<Figure> c) {
+    ArrayList<Figure> sorted = new ArrayList<>(c.size());
+    for (Figure f : c) {
+      if (ranks.containsKey(f)) {
+        sorted.add(f);
+      }
+    }
+    sortByRank(sorted);
+    // Remove duplicates. They are adjacent after sorting.
+    int n = 0;
+    for (int i = 0, size = sorted.size(); i < size; i++) {
+      Figure f = sorted.get(i);
+      if (n == 0 || sorted.get(n - 1) != f) {
+        sorted.set(n++, f);
+      }
+    }
+    sorted.subList(n, sorted.size()).clear();
+    return sorted;
+  }
+
+  /**
+   * Sorts the list in z-order from back to front.
+   * All figures in the list must be part of this drawing.
+   */
+  private void sortByRank(List<Figure> list) {
+    if (list.size() > 1) {
+      ensureRanked();
+      list.sort(rankComparator);
+    }
+  }
+
+  public void draw(Graphics2D g, ArrayList<Figure> c) {
+    for (Figure f : c) {
+      f.draw(g);
+    }
+  }
+
+  public void figureAreaInvalidated(FigureEvent e) {
+    fireAreaInvalidated(e.getInvalidatedArea());
+  }
+
+  public void figureChanged(FigureEvent e) {
+    ZRank zRank = ranks.get(e.getFigure());
+    // Composite figures forward the events of their children, which are
+    // not in the spatial index.
+    if (zRank != null) {
+      changedFigures.add(e.getFigure());
+      if (zRank.layer != e.getFigure().getLayer()) {
+        zRank.layer = e.getFigure().getLayer();
+        needsSorting = true;
+      }
+      growDrawBounds(e.getFigure(), e.getInvalidatedArea());
+    }
+    fireAreaInvalidated(e.getInvalidatedArea());
+  }
+
+  public void figureAdded(FigureEvent e) {
+    // TODO document why this method is empty
+  }
+
+  public void figureRemoved(FigureEvent e) {
+    // TODO document why this method is empty
+  }
+
+  public void figureRequestRemove(FigureEvent e) {
+    remove(e.getFigure());
+  }
+
+  public Collection<Figure> getFigures(Rectangle2D.Double bounds) {
+    ensureIndexed();
+    return spatialIndex.findInside(bounds);
+  }
+
+  public Collection<Figure> getFigures() {
+    return Collections.unmodifiableCollection(figures);
+  }
+
+  public Figure findFigureInside(Point2D.Double p) {
+    List<Figure> c = findHits(p);
+    for (int i = c.size() - 1; i >= 0; i--) {
+      Figure f = c.get(i);
+      if (f.contains(p)) {
+        return f.findFigureInside(p);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the figures whose draw bounds contain the point, in z-order
+   * from back to front. The returned list is reused by the next point
+   * query.
+   */
+  private List<Figure> findHits(Point2D.Double p) {
+    ensureIndexed();
+    hits.clear();
+    spatialIndex.findContains(p, hits);
+    sortByRank(hits);
+    return hits;
+  }
+
+  /**
+   * Returns an iterator to iterate in
+   * Z-order front to back over the figures.
+   */
+  public List<Figure> getFiguresFrontToBack() {
+    ensureSorted();
+    return new ReversedList<>(figures);
+  }
+
+  public Figure findFigure(Point2D.Double p) {
+    List<Figure> c = findHits(p);
+    for (int i = c.size() - 1; i >= 0; i--) {
+      Figure f = c.get(i);
+      if (f.contains(p)) {
+        return f;
+      }
+    }
+    return null;
+  }
+
+  public Figure findFigureExcept(Point2D.Double p, Figure ignore) {
+    List<Figure> c = findHits(p);
+    for (int i = c.size() - 1; i >= 0; i--) {
+      Figure f = c.get(i);
+      if (f != ignore && f.contains(p)) {
+        return f;
+      }
+    }
+    return null;
+  }
+
+  public Figure findFigureExcept(Point2D.Double p, Collection<Figure> ignore) {
+    List<Figure> c = findHits(p);
+    for (int i = c.size() - 1; i >= 0; i--) {
+      Figure f = c.get(i);
+      if (!ignore.contains(f) && f.contains(p)) {
+        return f;
+      }
+    }
+    return null;
+  }
+
+  public Collection<Figure> findFigures(Rectangle2D.Double r) {
+    ensureIndexed();
+    ArrayList<Figure> c = new ArrayList<>();
+    spatialIndex.findIntersects(r, c);
+    sortByRank(c);
+    return c;
+  }
+
+  public Collection<Figure> findFiguresWithin(Rectangle2D.Double r) {
+    Collection<Figure> c = findFigures(r);
+    ArrayList<Figure> result = new ArrayList<>(c.size());
+    Rectangle2D.Double bounds = new Rectangle2D.Double();
+    for (Figure f : c) {
+      if (r.contains(f.getBounds(bounds))) {
+        result.add(f);
+      }
+    }
+    return result;
+  }
+
+  public void bringToFront(Figure figure) {
+    if (figures.remove(figure)) {
+      rankAtFront(figure, ranks.get(figure));
+      figures.add(figure);
+      fireAreaInvalidated(figure.getDrawBounds());
+    }
+  }
+
+  public void sendToBack(Figure figure) {
+    if (figures.remove(figure)) {
+      rankAtBack(figure, ranks.get(figure));
+      figures.add(0, figure);
+      fireAreaInvalidated(figure.getDrawBounds());
+    }
+  }
+
+  /**
+   * We propagate all edit events from our figures to
+   * undoable edit listeners, which have registered with us.
+   */
+  public void undoableEditHappened(UndoableEditEvent e) {
+    fireUndoableEditHappened(e.getEdit());
+  }
+
+  public void figureAttributeChanged(FigureEvent e) {
+    // TODO document why this method is empty
+  }
+
+  public boolean contains(Figure f) {
+    return figures.contains(f);
+  }
+
+  /**
+   * Ensures that the spatial index holds the current draw bounds of all
+   * added and changed figures.
+   */
+  private void ensureIndexed() {
+    if (!changedFigures.isEmpty()) {
+      HashMap<Figure, Rectangle2D.Double> moves = new HashMap<>();
+      for (Figure f : changedFigures) {
+        moves.put(f, f.getDrawBounds());
+      }
+      changedFigures.clear();
+      spatialIndex.move(moves);
+    }
+  }
+
+  /**
+   * Ensures that the figures are sorted in z-order sequence.
+   */
+  private void ensureSorted() {
+    if (needsSorting) {
+      figures.sort(FigureLayerComparator.INSTANCE);
+      needsSorting = false;
+      needsRanking = true;
+    }
+  }
+
+  /**
+   * Ensures that the ranks of the figures match their z-order sequence.
+   */
+  private void ensureRanked() {
+    ensureSorted();
+    if (needsRanking) {
+      long rank = 0;
+      for (Figure f : figures) {
+        ranks.get(f).rank = rank++;
+      }
+      needsRanking = false;
+    }
+  }
+
+  /**
+   * Assigns a rank in front of all figures, to a figure which is about to be
+   * appended to the figures list. If this would violate the layer order,
+   * the figures are sorted and ranked again.
+   */
+  private void rankAtFront(Figure figure, ZRank zRank) {
+    zRank.layer = figure.getLayer();
+    if (figures.isEmpty()) {
+      zRank.rank = 0;
+    } else {
+      Figure last = figures.get(figures.size() - 1);
+      ZRank lastRank = ranks.get(last);
+      zRank.rank = lastRank.rank + 1;
+      if (lastRank.layer > zRank.layer) {
+        needsSorting = true;
+      }
+    }
+  }
+
+  /**
+   * Assigns a rank behind all figures, to a figure which is about to be
+   * inserted at the start of the figures list. If this would violate the
+   * layer order, the figures are sorted and ranked again.
+   */
+  private void rankAtBack(Figure figure, ZRank zRank) {
+    zRank.layer = figure.getLayer();
+    if (figures.isEmpty()) {
+      zRank.rank = 0;
+    } else {
+      ZRank firstRank = ranks.get(figures.get(0));
+      zRank.rank = firstRank.rank - 1;
+      if (firstRank.layer < zRank.layer) {
+        needsSorting = true;
+      }
+    }
+  }
+
+  /**
+   * Holds the z-rank and the last known layer of a figure.
+   */
+  private static class ZRank {
+    private long rank;
+    private int layer;
+
+    public ZRank(int layer) {
+      this.layer = layer;
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * @(#)Drawing.java  2.0  2006-01-14
+ * @(#)Drawing.java  2.1  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -36,7 +36,8 @@ import java.util.List;
  * whenever a part of its area was invalidated.
  *
  * @author Werner Randelshofer
- * @version 2.0 2006-01-14 Changed to support double precision coordinates.
+ * @version 2.1 2026-10-17 Scale factor added.
+ * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
 public interface Drawing extends Serializable, DOMStorable {
@@ -59,6 +60,9 @@ public interface Drawing extends Serializable, DOMStorable {
    * Adds a collection of figures to the drawing.
    * The drawing sends an <code>addNotify</code>  message to each figure
    * after it has been added.
+   * <p>
+   * The figures are added in one operation: the drawing fires a single
+   * figureAdded event and a single undoable edit for all of them.
    *
    * @param figures to be added to the drawing
    */
@@ -165,6 +169,16 @@ public interface Drawing extends Serializable, DOMStorable {
    */
   int getFigureCount();
 
+  /**
+   * Returns the union of the draw bounds of all figures in this drawing.
+   * Returns an empty rectangle at the origin, if the drawing has no
+   * figures.
+   * <p>
+   * Implementations should return the bounds without iterating over all
+   * figures, so that views can query them whenever the drawing changes.
+   */
+  Rectangle2D.Double getDrawBounds();
+
   /**
    * Finds a top level Figure. Use this call for hit detection that
    * should not descend into the figure's children.
@@ -257,6 +271,19 @@ public interface Drawing extends Serializable, DOMStorable {
    */
   void setFontRenderContext(FontRenderContext frc);
 
+  /**
+   * Returns the scale factor from drawing coordinates to device
+   * coordinates, with which the drawing is drawn. Figures use it to choose
+   * their level of detail.
+   */
+  double getScaleFactor();
+
+  /**
+   * Sets the scale factor from drawing coordinates to device coordinates,
+   * with which the drawing is drawn.
+   */
+  void setScaleFactor(double newValue);
+
   /**
    * Returns the lock object on which all threads acting in Figures in this
    * drawing synchronize to prevent race conditions.
@@ -0,0 +1,178 @@
+/*
+ * @(#)FigureList.java  1.0  2026-10-17
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.draw.drawings;
+
+import org.jhotdraw.draw.figures.Figure;
+
+import java.util.*;
+
+/**
+ * A list of figures, which knows the index of each figure.
+ * <p>
+ * {@code contains} takes constant time. {@code indexOf} takes constant
+ * time, unless the list has been changed in front of the figure since the
+ * last call; then the indices behind the change are renumbered once.
+ * {@code removeAll} compacts the list in a single pass.
+ * <p>
+ * Figures are compared by identity, and a figure must not be added twice.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-17 Created.
+ */
+class FigureList extends AbstractList<Figure> implements RandomAccess {
+  private final ArrayList<Figure> figures = new ArrayList<>();
+  /**
+   * key = Figure
+   * value = the index of the figure; only valid for indices below
+   * validCount.
+   */
+  private final IdentityHashMap<Figure, Integer> positions = new IdentityHashMap<>();
+  /**
+   * All figures at an index below validCount have a valid position.
+   * The figures behind validCount have positions which are at least
+   * validCount, but these positions may be stale.
+   */
+  private int validCount;
+
+  /**
+   * Creates a new instance.
+   */
+  public FigureList() {
+  }
+
+  @Override
+  public Figure get(int index) {
+    return figures.get(index);
+  }
+
+  @Override
+  public int size() {
+    return figures.size();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return positions.containsKey(o);
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    Integer position = positions.get(o);
+    if (position == null) {
+      return -1;
+    }
+    if (position >= validCount) {
+      for (int i = validCount, n = figures.size(); i < n; i++) {
+        positions.put(figures.get(i), i);
+      }
+      validCount = figures.size();
+      position = positions.get(o);
+    }
+    return position;
+  }
+
+  @Override
+  public int lastIndexOf(Object o) {
+    return indexOf(o);
+  }
+
+  @Override
+  public void add(int index, Figure figure) {
+    figures.add(index, figure);
+    positions.put(figure, index);
+    if (index == validCount) {
+      // Appending to a fully numbered list keeps it fully numbered.
+      if (index == figures.size() - 1) {
+        validCount++;
+      }
+    } else {
+      validCount = Math.min(validCount, index);
+    }
+    modCount++;
+  }
+
+  @Override
+  public Figure set(int index, Figure figure) {
+    Figure old = figures.set(index, figure);
+    positions.remove(old);
+    positions.put(figure, index);
+    validCount = Math.min(validCount, index);
+    return old;
+  }
+
+  @Override
+  public Figure remove(int index) {
+    Figure old = figures.remove(index);
+    positions.remove(old);
+    validCount = Math.min(validCount, index);
+    modCount++;
+    return old;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    int index = indexOf(o);
+    if (index == -1) {
+      return false;
+    }
+    remove(index);
+    return true;
+  }
+
+  /**
+   * Removes all specified figures in a single pass over the list.
+   */
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    boolean isChanged = false;
+    for (Object o : c) {
+      if (positions.remove(o) != null) {
+        isChanged = true;
+      }
+    }
+    if (isChanged) {
+      // Compact the list and renumber the remaining figures.
+      int n = figures.size();
+      int w = 0;
+      for (int r = 0; r < n; r++) {
+        Figure f = figures.get(r);
+        if (positions.containsKey(f)) {
+          figures.set(w, f);
+          positions.put(f, w);
+          w++;
+        }
+      }
+      figures.subList(w, n).clear();
+      validCount = w;
+      modCount++;
+    }
+    return isChanged;
+  }
+
+  @Override
+  public void clear() {
+    figures.clear();
+    positions.clear();
+    validCount = 0;
+    modCount++;
+  }
+
+  @Override
+  public void sort(Comparator<? super Figure> c) {
+    figures.sort(c);
+    validCount = 0;
+    modCount++;
+  }
+}
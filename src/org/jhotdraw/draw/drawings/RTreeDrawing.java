@@ -0,0 +1,45 @@
+/*
+ * @(#)RTreeDrawing.java  1.1  2026-10-18
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.draw.drawings;
+
+import org.jhotdraw.geom.RTree2DDouble;
+
+/**
+ * RTreeDrawing uses an RTree2DDouble to improve responsiveness of drawings
+ * which contain many figures.
+ * <p>
+ * Unlike a quad tree, an R-tree stores each figure exactly once. This
+ * makes it a better choice than QuadTreeDrawing for drawings with many
+ * overlapping figures of very different sizes, such as long connection
+ * lines and big group figures.
+ * <p>
+ * Figures which are added while the drawing is read are bulk loaded into
+ * the R-tree before the drawing is queried the first time.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Extends AbstractIndexedDrawing instead of
+ * QuadTreeDrawing.
+ * <br>1.0 2026-10-17 Created.
+ */
+public class RTreeDrawing extends AbstractIndexedDrawing {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Creates a new instance.
+   */
+  public RTreeDrawing() {
+    super(new RTree2DDouble<>());
+  }
+}
@@ -18,6 +18,8 @@ import org.jhotdraw.beans.AbstractBean;
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.drawings.Drawing;
 import org.jhotdraw.draw.events.ToolEvent;
+import org.jhotdraw.draw.figures.AbstractAttributedCompositeFigure;
+import org.jhotdraw.draw.figures.AttributedFigure;
 import org.jhotdraw.draw.figures.Figure;
 import org.jhotdraw.draw.handlers.Handle;
 import org.jhotdraw.draw.listeners.ToolListener;
@@ -152,6 +154,12 @@ public class DefaultDrawingEditor extends AbstractBean implements DrawingEditor,
     for (Map.Entry<AttributeKey<?>, Object> entry : defaultAttributes.entrySet()) {
       f.setAttribute(entry.getKey(), entry.getValue());
     }
+    // Figures created with the same defaults share their attributes.
+    if (f instanceof AttributedFigure) {
+      ((AttributedFigure) f).internAttributes();
+    } else if (f instanceof AbstractAttributedCompositeFigure) {
+      ((AbstractAttributedCompositeFigure) f).internAttributes();
+    }
   }
 
   public Object getDefaultAttribute(AttributeKey<?> key) {
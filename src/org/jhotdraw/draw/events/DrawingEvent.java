@@ -18,18 +18,25 @@ import org.jhotdraw.draw.drawings.Drawing;
 import org.jhotdraw.draw.figures.Figure;
 
 import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EventObject;
 
 /**
  * Change event passed to DrawingChangeListeners.
+ * <p>
+ * When many figures are added or removed in one operation, the drawing
+ * fires a single event for all of them.
  *
  * @author Werner Randelshofer
- * @version 1.0 2006-01-14 Changed to support double precision coordinates.
+ * @version 1.1 2026-10-17 Added support for events on many figures.
+ * <br>1.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
 public class DrawingEvent extends EventObject {
   private Rectangle2D.Double invalidatedArea;
   private Figure figure;
+  private Collection<Figure> figures;
 
   /**
    * Constructs an event for the provided Drawing.
@@ -40,6 +47,20 @@ public class DrawingEvent extends EventObject {
   public DrawingEvent(Drawing source, Figure figure, Rectangle2D.Double invalidatedArea) {
     super(source);
     this.figure = figure;
+    this.figures = (figure == null) ? Collections.emptyList() : Collections.singletonList(figure);
+    this.invalidatedArea = invalidatedArea;
+  }
+
+  /**
+   * Constructs an event for the provided Drawing, which affects many figures.
+   *
+   * @param figures         The changed figures.
+   * @param invalidatedArea The bounds of the invalidated area on the drawing.
+   */
+  public DrawingEvent(Drawing source, Collection<Figure> figures, Rectangle2D.Double invalidatedArea) {
+    super(source);
+    this.figure = (figures.size() == 1) ? figures.iterator().next() : null;
+    this.figures = Collections.unmodifiableCollection(figures);
     this.invalidatedArea = invalidatedArea;
   }
 
@@ -52,11 +73,19 @@ public class DrawingEvent extends EventObject {
 
   /**
    * Gets the changed figure.
+   * Returns null, if the event affects more than one figure.
    */
   public Figure getFigure() {
     return figure;
   }
 
+  /**
+   * Gets the changed figures.
+   */
+  public Collection<Figure> getFigures() {
+    return figures;
+  }
+
   /**
    * Gets the bounds of the invalidated area on the drawing.
    */
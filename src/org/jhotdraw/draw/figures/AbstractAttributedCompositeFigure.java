@@ -1,5 +1,5 @@
 /*
- * @(#)AbstractAttributedCompositeFigure.java  1.0  July 9, 2006
+ * @(#)AbstractAttributedCompositeFigure.java  1.5  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -16,6 +16,7 @@ package org.jhotdraw.draw.figures;
 
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.AttributeKeys;
+import org.jhotdraw.draw.FigureAttributes;
 import org.jhotdraw.draw.edits.AttributeChangeEdit;
 import org.jhotdraw.geom.Dimension2DDouble;
 import org.jhotdraw.geom.Geom;
@@ -25,6 +26,7 @@ import org.jhotdraw.xml.DOMOutput;
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -36,10 +38,16 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * its own attribute set.
  *
  * @author Werner Randelshofer
- * @version 1.0 July 9, 2006, Created.
+ * @version 1.5 2026-10-18 The draw bounds growth is computed by
+ * AttributeKeys.
+ * <br>1.4 2026-10-17 Method getFigureDrawBounds(Rectangle2D.Double) added.
+ * <br>1.3 2026-10-17 Derived values are cached in the attributes.
+ * <br>1.2 2026-10-17 Share equal attributes between figures.
+ * <br>1.1 2026-10-17 Keep attributes in FigureAttributes.
+ * <br>1.0 July 9, 2006, Created.
  */
 public abstract class AbstractAttributedCompositeFigure extends AbstractCompositeFigure {
-  private HashMap<AttributeKey, Object> attributes = new HashMap<>();
+  private FigureAttributes attributes = new FigureAttributes();
   /**
    * Forbidden attributes can't be set by the setAttribute() operation.
    * They can only be changed by basicSetAttribute().
@@ -93,8 +101,27 @@ public abstract class AbstractAttributedCompositeFigure extends AbstractComposit
     }
   }
 
+  /**
+   * Shares the attributes of this figure with all figures, which have
+   * equal attributes. The attributes are copied again, when one of them
+   * is changed.
+   */
+  public void internAttributes() {
+    attributes.intern();
+  }
+
   public Map<AttributeKey, Object> getAttributes() {
-    return new HashMap<>(attributes);
+    return attributes.toMap();
+  }
+
+  /**
+   * Returns the attributes of this figure. AttributeKeys caches the values,
+   * which it derives from the attributes, in there.
+   * <p>
+   * The returned object must not be changed.
+   */
+  public FigureAttributes getFigureAttributes() {
+    return attributes;
   }
 
   /**
@@ -119,7 +146,7 @@ public abstract class AbstractAttributedCompositeFigure extends AbstractComposit
    * Gets an attribute from the figure.
    */
   public Object getAttribute(AttributeKey<?> key) {
-    return hasAttribute(key) ? attributes.get(key) : key.getDefaultValue();
+    return attributes.getOrDefault(key);
   }
 
   public void drawFigure(Graphics2D g) {
@@ -166,12 +193,12 @@ public abstract class AbstractAttributedCompositeFigure extends AbstractComposit
   }
 
   public Rectangle2D.Double getFigureDrawBounds() {
-    double width = AttributeKeys.getStrokeTotalWidth(this) / 2d;
-    if (STROKE_JOIN.get(this) == BasicStroke.JOIN_MITER) {
-      width *= STROKE_MITER_LIMIT_FACTOR.get(this);
-    }
-    width++;
-    Rectangle2D.Double r = getBounds();
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
+    double width = AttributeKeys.getDrawBoundsGrowth(this);
+    getBounds(r);
     Geom.grow(r, width, width);
     return r;
   }
@@ -197,29 +224,45 @@ public abstract class AbstractAttributedCompositeFigure extends AbstractComposit
 
   public AbstractAttributedCompositeFigure clone() {
     AbstractAttributedCompositeFigure that = (AbstractAttributedCompositeFigure) super.clone();
-    that.attributes = new HashMap<>(this.attributes);
+    that.attributes = this.attributes.clone();
     if (this.forbiddenAttributes != null) {
       that.forbiddenAttributes = new HashSet<>(this.forbiddenAttributes);
     }
     return that;
   }
 
+  /**
+   * Writes the attributes, which differ from the attributes of the
+   * prototype. Figures with equal attributes write them only once, and
+   * refer to them by id afterwards.
+   */
   protected void writeAttributes(DOMOutput out) throws IOException {
     Figure prototype = (Figure) out.getPrototype();
 
+    Object style = Arrays.asList(attributes.getStyle(), prototype.getClass(),
+        (forbiddenAttributes == null) ? null : new HashSet<>(forbiddenAttributes));
+    String ref = FigureAttributes.getWrittenId(out, style);
+    if (ref != null) {
+      out.openElement("a");
+      out.addAttribute("ref", ref);
+      out.closeElement();
+      return;
+    }
+
     boolean isElementOpen = false;
-    for (Map.Entry<AttributeKey, Object> entry : attributes.entrySet()) {
-      AttributeKey key = entry.getKey();
+    for (int i = 0, n = attributes.size(); i < n; i++) {
+      AttributeKey<?> key = attributes.getKey(i);
       if (forbiddenAttributes == null || !forbiddenAttributes.contains(key)) {
         Object prototypeValue = key.get(prototype);
         Object attributeValue = key.get(this);
         if (prototypeValue != null && !prototypeValue.equals(attributeValue)) {
           if (!isElementOpen) {
             out.openElement("a");
+            out.addAttribute("id", FigureAttributes.putWrittenId(out, style));
             isElementOpen = true;
           }
           out.openElement(key.getKey());
-          out.writeObject(entry.getValue());
+          out.writeObject(attributes.getValue(i));
           out.closeElement();
         }
       }
@@ -229,20 +272,44 @@ public abstract class AbstractAttributedCompositeFigure extends AbstractComposit
     }
   }
 
+  /**
+   * Reads the attributes, and shares them with all figures which have
+   * equal attributes.
+   */
   protected void readAttributes(DOMInput in) throws IOException {
     if (in.getElementCount("a") > 0) {
       in.openElement("a");
-      for (int i = in.getElementCount() - 1; i >= 0; i--) {
-        in.openElement(i);
-        String name = in.getTagName();
-        Object value = in.readObject();
-        AttributeKey<?> key = getAttributeKey(name);
-        if (key != null && key.isAssignable(value) && (forbiddenAttributes == null || !forbiddenAttributes.contains(key))) {
-          setAttribute(key, value);
+      String ref = in.getAttribute("ref", null);
+      FigureAttributes read;
+      if (ref != null) {
+        read = FigureAttributes.getReadSet(in, ref);
+      } else {
+        read = new FigureAttributes();
+        for (int i = in.getElementCount() - 1; i >= 0; i--) {
+          in.openElement(i);
+          String name = in.getTagName();
+          Object value = in.readObject();
+          AttributeKey<?> key = getAttributeKey(name);
+          if (key != null && key.isAssignable(value)) {
+            read.put(key, value);
+          }
+          in.closeElement();
+        }
+        String id = in.getAttribute("id", null);
+        if (id != null) {
+          FigureAttributes.putReadSet(in, id, read);
         }
-        in.closeElement();
       }
       in.closeElement();
+      if (read != null) {
+        for (int i = 0, n = read.size(); i < n; i++) {
+          AttributeKey<?> key = read.getKey(i);
+          if (forbiddenAttributes == null || !forbiddenAttributes.contains(key)) {
+            setAttribute(key, read.getValue(i));
+          }
+        }
+      }
+      attributes.intern();
     }
   }
 
@@ -254,8 +321,8 @@ public abstract class AbstractAttributedCompositeFigure extends AbstractComposit
    * Applies all attributes of this figure to that figure.
    */
   protected void applyAttributesTo(Figure that) {
-    for (Map.Entry<AttributeKey, Object> entry : attributes.entrySet()) {
-      that.setAttribute(entry.getKey(), entry.getValue());
+    for (int i = 0, n = attributes.size(); i < n; i++) {
+      that.setAttribute(attributes.getKey(i), attributes.getValue(i));
     }
   }
 
@@ -1,5 +1,5 @@
 /*
- * @(#)AbstractCompositeFigure.java  2.2 2006-07-08
+ * @(#)AbstractCompositeFigure.java  2.7 2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -21,6 +21,8 @@ import org.jhotdraw.draw.events.FigureEvent;
 import org.jhotdraw.draw.handlers.Handle;
 import org.jhotdraw.draw.listeners.FigureListener;
 import org.jhotdraw.geom.Dimension2DDouble;
+import org.jhotdraw.geom.QuadTree2DDouble;
+import org.jhotdraw.geom.SpatialIndex2DDouble;
 import org.jhotdraw.util.ReversedList;
 import org.jhotdraw.xml.DOMInput;
 import org.jhotdraw.xml.DOMOutput;
@@ -38,9 +40,31 @@ import java.util.*;
  * A Figure that is composed of several children. A AbstractCompositeFigure
  * doesn't define any layout behavior. It is up to subclassers to
  * arrange the contained children.
+ * <p>
+ * The bounds and the draw bounds of the children are cached. When a child
+ * changes without changing the cached bounds, the change is not propagated
+ * as a change of this figure. The figure remembers the bounds of each child,
+ * so that a changed child only causes the bounds of all children to be
+ * computed again, if the child touched the edge of the cached bounds.
+ * <p>
+ * A figure with many children keeps them in a spatial index, which is used
+ * for drawing only the children which intersect the clip bounds, and for
+ * finding children by location. The index is created when the figure is
+ * queried, and it has at least as many children as specified with
+ * {@link #setChildIndexThreshold}. Transforming the figure or changing the
+ * Z-order of its children updates the index instead of discarding it.
  *
  * @author Werner Randelshofer
- * @version 2.2 2006-07-08 Minor changes.
+ * @version 2.7 2026-10-18 The spatial index is kept, when the figure is
+ * transformed or the Z-order of its children changes.
+ * <br>2.6 2026-10-18 A changed child does not compute the bounds of
+ * all children, unless it touched the edge of the cached bounds.
+ * <br>2.5 2026-10-17 Bounds of the children are computed without
+ * allocating a rectangle for each child.
+ * <br>2.4 2026-10-17 Spatial index of the children added.
+ * <br>2.3 2026-10-17 Fixed caching of the draw bounds. Child changes
+ * which keep the bounds are not propagated.
+ * <br>2.2 2006-07-08 Minor changes.
  * <br>2.1 2006-03-15 Fire undoable edit on attribute change.
  * <br>2.0.1 2006-02-06 Fixed ConcurrentModificationException in method
  * removeNotify.
@@ -48,6 +72,12 @@ import java.util.*;
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
 public abstract class AbstractCompositeFigure extends AbstractFigure implements CompositeFigure {
+  /**
+   * The default number of children, from which on a composite figure
+   * keeps its children in a spatial index.
+   */
+  public static final int DEFAULT_CHILD_INDEX_THRESHOLD = 128;
+
   /**
    * The children that this figure is composed of
    *
@@ -57,13 +87,21 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
   private LinkedList<Figure> children = new LinkedList<>();
 
   /**
-   * Cached draw bounds.
+   * Cached draw bounds of the children, or null if they need to be
+   * computed.
    */
   private Rectangle2D.Double drawBounds;
   /**
-   * Cached layout bounds.
+   * Cached layout bounds of the children, or null if they need to be
+   * computed.
    */
   private Rectangle2D.Double bounds;
+  /**
+   * key = child
+   * value = the bounds of the child, which are included in the cached
+   * bounds of this figure.
+   */
+  private IdentityHashMap<Figure, ChildBounds> childBounds = new IdentityHashMap<>();
 
   /**
    * A Layouter determines how the AbstractCompositeFigure should
@@ -71,6 +109,27 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
    */
   private Layouter layouter;
 
+  private int childIndexThreshold = DEFAULT_CHILD_INDEX_THRESHOLD;
+  /**
+   * The draw bounds of the children, or null if the index needs to be
+   * created.
+   */
+  private QuadTree2DDouble<IndexedChild> childIndex;
+  /**
+   * key = child
+   * value = the entry of the child in the spatial index.
+   */
+  private IdentityHashMap<Figure, IndexedChild> indexedChildren;
+  /**
+   * The rank of the frontmost child, and the rank of the backmost child.
+   */
+  private int lastChildRank;
+  private int firstChildRank;
+  /**
+   * We reuse this query for finding children at a point.
+   */
+  private PointQuery pointQuery = new PointQuery();
+
   /**
    * Handles figure changes in the children.
    */
@@ -92,7 +151,14 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
     }
 
     public void figureChanged(FigureEvent e) {
+      owner.updateChildIndex(e.getFigure());
       if (!owner.isChanging()) {
+        if (owner.layouter == null && owner.bounds != null && owner.drawBounds != null
+            && owner.updateChildBounds(e.getFigure())) {
+          // The child changed within the bounds of this figure.
+          owner.fireAreaInvalidated(e.getInvalidatedArea());
+          return;
+        }
         owner.willChange();
         owner.fireFigureChanged(e);
         owner.changed();
@@ -118,6 +184,60 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
     }
   }
 
+  /**
+   * The bounds of a child, which are included in the cached bounds.
+   */
+  private static class ChildBounds {
+    private final Rectangle2D.Double bounds = new Rectangle2D.Double();
+    private final Rectangle2D.Double drawBounds = new Rectangle2D.Double();
+    /**
+     * Whether the bounds are included in the cached bounds.
+     */
+    private boolean isInBounds;
+    /**
+     * Whether the draw bounds are included in the cached draw bounds.
+     */
+    private boolean isInDrawBounds;
+  }
+
+  /**
+   * A child in the spatial index. The rank of the child increases from
+   * back to front. The ranks are not necessarily contiguous.
+   */
+  private static class IndexedChild {
+    private final Figure figure;
+    private int rank;
+
+    private IndexedChild(Figure figure, int rank) {
+      this.figure = figure;
+      this.rank = rank;
+    }
+  }
+
+  /**
+   * Finds the frontmost visible child, which contains a point.
+   */
+  private static class PointQuery implements SpatialIndex2DDouble.Visitor<IndexedChild> {
+    private Point2D.Double p;
+    /**
+     * If this is true, the query finds the figure returned by
+     * findFigureInside of the child, instead of the child.
+     */
+    private boolean isFindFigureInside;
+    private int rank;
+    private Figure found;
+
+    public void visit(IndexedChild c) {
+      if (c.rank > rank && c.figure.isVisible()) {
+        Figure f = findAt(c.figure, p, isFindFigureInside);
+        if (f != null) {
+          rank = c.rank;
+          found = f;
+        }
+      }
+    }
+  }
+
   /**
    * Creates a new instance.
    */
@@ -169,6 +289,16 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
     children.add(index, figure);
     figure.addFigureListener(childHandler);
     figure.addUndoableEditListener(childHandler);
+    invalidateBounds();
+    if (childIndex != null) {
+      if (index == children.size() - 1) {
+        addIndexedChild(figure, ++lastChildRank);
+      } else if (index == 0) {
+        addIndexedChild(figure, --firstChildRank);
+      } else {
+        invalidateChildIndex();
+      }
+    }
 
   }
 
@@ -232,6 +362,14 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
     Figure figure = children.remove(index);
     figure.removeFigureListener(childHandler);
     figure.removeUndoableEditListener(childHandler);
+    childBounds.remove(figure);
+    invalidateBounds();
+    if (childIndex != null) {
+      IndexedChild c = indexedChildren.remove(figure);
+      if (c != null) {
+        childIndex.remove(c);
+      }
+    }
 
     return figure;
   }
@@ -266,6 +404,7 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
   public synchronized void sendToBack(Figure figure) {
     if (children.remove(figure)) {
       children.add(0, figure);
+      rankChild(figure, --firstChildRank);
       figure.invalidate();
     }
   }
@@ -278,6 +417,7 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
   public synchronized void sendToFront(Figure figure) {
     if (children.remove(figure)) {
       children.add(figure);
+      rankChild(figure, ++lastChildRank);
       figure.invalidate();
     }
   }
@@ -290,6 +430,12 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
       f.basicTransform(tx);
     }
     invalidateBounds();
+    if (childIndex != null && (tx.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0) {
+      // The children keep their position relative to each other
+      childIndex.translate(tx.getTranslateX(), tx.getTranslateY());
+    } else {
+      moveChildIndex();
+    }
   }
 
   public void basicSetBounds(Point2D.Double anchor, Point2D.Double lead) {
@@ -355,38 +501,201 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
   }
 
   public boolean contains(Point2D.Double p) {
-    if (getDrawBounds().contains(p)) {
-      for (Figure child : getChildrenFrontToBack()) {
-        if (child.isVisible() && child.contains(p)) return true;
-      }
-    }
-    return false;
+    return getDrawBounds().contains(p) && findFrontmost(p, false) != null;
   }
 
   public Figure findFigureInside(Point2D.Double p) {
-    if (getDrawBounds().contains(p)) {
-      Figure found;
+    return getDrawBounds().contains(p) ? findFrontmost(p, true) : null;
+  }
+
+  public Figure findChild(Point2D.Double p) {
+    return getBounds().contains(p) ? findFrontmost(p, false) : null;
+  }
+
+  /**
+   * Returns the frontmost visible child, which contains the specified
+   * point. If isFindFigureInside is true, returns the figure which is
+   * found inside of the frontmost child instead.
+   */
+  private Figure findFrontmost(Point2D.Double p, boolean isFindFigureInside) {
+    SpatialIndex2DDouble<IndexedChild> index = getChildIndex();
+    if (index == null) {
       for (Figure child : getChildrenFrontToBack()) {
         if (child.isVisible()) {
-          found = child.findFigureInside(p);
+          Figure found = findAt(child, p, isFindFigureInside);
           if (found != null) {
             return found;
           }
         }
       }
+      return null;
     }
-    return null;
+    PointQuery q = pointQuery;
+    q.p = p;
+    q.isFindFigureInside = isFindFigureInside;
+    q.rank = Integer.MIN_VALUE;
+    q.found = null;
+    index.findContains(p, q);
+    Figure found = q.found;
+    q.p = null;
+    q.found = null;
+    return found;
   }
 
-  public Figure findChild(Point2D.Double p) {
-    if (getBounds().contains(p)) {
-      for (Figure child : getChildrenFrontToBack()) {
-        if (child.isVisible() && child.contains(p)) {
-          return child;
+  private static Figure findAt(Figure child, Point2D.Double p, boolean isFindFigureInside) {
+    if (isFindFigureInside) {
+      return child.findFigureInside(p);
+    }
+    return child.contains(p) ? child : null;
+  }
+
+  /**
+   * Adds the visible figures of the indexed children to the result in
+   * Z-order back to front.
+   */
+  private static void addVisibleByRank(ArrayList<IndexedChild> found, java.util.List<Figure> result) {
+    found.sort((c1, c2) -> Integer.compare(c1.rank, c2.rank));
+    for (IndexedChild c : found) {
+      if (c.figure.isVisible()) {
+        result.add(c.figure);
+      }
+    }
+  }
+
+  /**
+   * Returns the visible children, whose draw bounds intersect the
+   * specified rectangle, in Z-order back to front.
+   */
+  public java.util.List<Figure> findChildren(Rectangle2D.Double r) {
+    ArrayList<Figure> found = new ArrayList<>();
+    SpatialIndex2DDouble<IndexedChild> index = getChildIndex();
+    if (index == null) {
+      Rectangle2D.Double childBounds = new Rectangle2D.Double();
+      for (Figure child : children) {
+        if (child.isVisible() && child.getDrawBounds(childBounds).intersects(r)) {
+          found.add(child);
         }
       }
+    } else {
+      ArrayList<IndexedChild> indexed = new ArrayList<>();
+      index.findIntersects(r, indexed);
+      addVisibleByRank(indexed, found);
     }
-    return null;
+    return found;
+  }
+
+  /**
+   * Returns the visible children, whose draw bounds are inside of the
+   * specified rectangle, in Z-order back to front.
+   */
+  public java.util.List<Figure> findChildrenWithin(Rectangle2D.Double r) {
+    ArrayList<Figure> found = new ArrayList<>();
+    SpatialIndex2DDouble<IndexedChild> index = getChildIndex();
+    if (index == null) {
+      Rectangle2D.Double childBounds = new Rectangle2D.Double();
+      for (Figure child : children) {
+        if (child.isVisible() && r.contains(child.getDrawBounds(childBounds))) {
+          found.add(child);
+        }
+      }
+    } else {
+      ArrayList<IndexedChild> indexed = new ArrayList<>();
+      index.findInside(r, indexed);
+      addVisibleByRank(indexed, found);
+    }
+    return found;
+  }
+
+  /**
+   * Returns the number of children, from which on this figure keeps its
+   * children in a spatial index.
+   */
+  public int getChildIndexThreshold() {
+    return childIndexThreshold;
+  }
+
+  /**
+   * Sets the number of children, from which on this figure keeps its
+   * children in a spatial index. Use Integer.MAX_VALUE to never use an
+   * index.
+   */
+  public void setChildIndexThreshold(int newValue) {
+    childIndexThreshold = newValue;
+    invalidateChildIndex();
+  }
+
+  /**
+   * Returns the spatial index of the children, or null if this figure
+   * has too few children to use an index.
+   */
+  private SpatialIndex2DDouble<IndexedChild> getChildIndex() {
+    if (children.size() < childIndexThreshold) {
+      invalidateChildIndex();
+    } else if (childIndex == null) {
+      childIndex = new QuadTree2DDouble<>(true);
+      indexedChildren = new IdentityHashMap<>();
+      firstChildRank = 0;
+      lastChildRank = -1;
+      for (Figure child : children) {
+        addIndexedChild(child, ++lastChildRank);
+      }
+    }
+    return childIndex;
+  }
+
+  private void addIndexedChild(Figure child, int rank) {
+    IndexedChild c = new IndexedChild(child, rank);
+    indexedChildren.put(child, c);
+    childIndex.add(c, child.getDrawBounds());
+  }
+
+  /**
+   * Changes the rank of a child in the spatial index. The geometry of the
+   * child is not changed, so the index does not need to be updated.
+   */
+  private void rankChild(Figure child, int rank) {
+    if (childIndex != null) {
+      IndexedChild c = indexedChildren.get(child);
+      if (c != null) {
+        c.rank = rank;
+      }
+    }
+  }
+
+  /**
+   * Updates the bounds of a child in the spatial index.
+   */
+  private void updateChildIndex(Figure child) {
+    if (childIndex != null) {
+      IndexedChild c = indexedChildren.get(child);
+      if (c != null) {
+        childIndex.move(c, child.getDrawBounds());
+      }
+    }
+  }
+
+  /**
+   * Updates the bounds of all children in the spatial index in one pass,
+   * after they have been transformed or laid out. Children, which stay inside of
+   * their node, are updated in place.
+   */
+  private void moveChildIndex() {
+    if (childIndex != null) {
+      IdentityHashMap<IndexedChild, Rectangle2D.Double> moves = new IdentityHashMap<>();
+      for (IndexedChild c : indexedChildren.values()) {
+        moves.put(c, c.figure.getDrawBounds());
+      }
+      childIndex.move(moves);
+    }
+  }
+
+  /**
+   * Discards the spatial index of the children. It is created again, when
+   * it is needed.
+   */
+  protected void invalidateChildIndex() {
+    childIndex = null;
+    indexedChildren = null;
   }
 
   public int findChildIndex(Point2D.Double p) {
@@ -419,6 +728,7 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
       Rectangle2D.Double r = getLayouter().layout(this, p, p);
       basicSetBounds(new Point2D.Double(r.x, r.y), new Point2D.Double(r.x + r.width, r.y + r.height));
       invalidateBounds();
+      moveChildIndex();
     }
   }
 
@@ -447,44 +757,169 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
   }
 
   public Rectangle2D.Double getFigureDrawBounds() {
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
+
+  /**
+   * Stores the draw bounds of the children into the specified rectangle,
+   * without allocating a new one.
+   *
+   * @return The specified rectangle.
+   */
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
     if (drawBounds == null) {
-      return new Rectangle2D.Double(0, 0, -1, -1);
-    }
-    for (Figure child : getChildrenFrontToBack()) {
-      if (child.isVisible()) {
-        Rectangle2D.Double childBounds = child.getDrawBounds();
-        if (!childBounds.isEmpty()) {
-          if (drawBounds == null) {
-            drawBounds = childBounds;
-          } else {
-            drawBounds.add(childBounds);
-          }
-        }
-      }
+      computeBounds();
     }
-    return (Rectangle2D.Double) drawBounds.clone();
+    r.setRect(drawBounds);
+    return r;
   }
 
   public Rectangle2D.Double getBounds() {
+    return getBounds(new Rectangle2D.Double());
+  }
+
+  /**
+   * Stores the bounds into the specified rectangle, without allocating a
+   * new one.
+   *
+   * @return The specified rectangle.
+   */
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
     if (bounds == null) {
-      for (Figure child : getChildrenFrontToBack()) {
-        if (child.isVisible()) {
-          if (bounds == null) {
-            bounds = child.getBounds();
+      computeBounds();
+    }
+    r.setRect(bounds);
+    return r;
+  }
+
+  /**
+   * Computes the union of the bounds and the union of the draw bounds of
+   * the visible children, and remembers the bounds of each child.
+   * <p>
+   * We always compute both unions, so that a changed child can compare its
+   * bounds with both of them.
+   */
+  private void computeBounds() {
+    Rectangle2D.Double r = null;
+    Rectangle2D.Double dr = null;
+    for (Figure child : children) {
+      ChildBounds cb = getChildBounds(child);
+      cb.isInBounds = child.isVisible();
+      cb.isInDrawBounds = false;
+      if (cb.isInBounds) {
+        child.getBounds(cb.bounds);
+        if (r == null) {
+          r = (Rectangle2D.Double) cb.bounds.clone();
+        } else {
+          r.add(cb.bounds);
+        }
+        child.getDrawBounds(cb.drawBounds);
+        if (!cb.drawBounds.isEmpty()) {
+          cb.isInDrawBounds = true;
+          if (dr == null) {
+            dr = (Rectangle2D.Double) cb.drawBounds.clone();
           } else {
-            bounds.add(child.getBounds());
+            dr.add(cb.drawBounds);
           }
         }
       }
     }
-    return (bounds == null) ? new Rectangle2D.Double(0, 0, -1, -1) : (Rectangle2D.Double) bounds.clone();
+    bounds = (r == null) ? new Rectangle2D.Double(0, 0, -1, -1) : r;
+    drawBounds = (dr == null) ? new Rectangle2D.Double(0, 0, -1, -1) : dr;
+  }
+
+  private ChildBounds getChildBounds(Figure child) {
+    ChildBounds cb = childBounds.get(child);
+    if (cb == null) {
+      cb = new ChildBounds();
+      childBounds.put(child, cb);
+    }
+    return cb;
+  }
+
+  /**
+   * Updates the remembered bounds of a changed child. The cached bounds
+   * must be valid.
+   * <p>
+   * The bounds of all children are only computed again, if the child
+   * touches the edge of the cached bounds before or after it changed.
+   *
+   * @return Returns true, if the cached bounds are not changed by the
+   * child. Returns false, if the child grew past the cached bounds, or if
+   * the cached bounds shrunk.
+   */
+  private boolean updateChildBounds(Figure child) {
+    ChildBounds cb = childBounds.get(child);
+    if (cb == null) {
+      return false;
+    }
+    Rectangle2D.Double newBounds = child.getBounds();
+    Rectangle2D.Double newDrawBounds = child.getDrawBounds();
+    boolean isInBounds = child.isVisible();
+    boolean isInDrawBounds = isInBounds && !newDrawBounds.isEmpty();
+    if ((isInBounds && extendsPast(bounds, newBounds))
+        || (isInDrawBounds && extendsPast(drawBounds, newDrawBounds))) {
+      return false;
+    }
+
+    boolean touchedEdge = (cb.isInBounds && touchesEdge(bounds, cb.bounds))
+        || (cb.isInDrawBounds && touchesEdge(drawBounds, cb.drawBounds))
+        || (isInBounds && touchesEdge(bounds, newBounds))
+        || (isInDrawBounds && touchesEdge(drawBounds, newDrawBounds));
+    cb.bounds.setRect(newBounds);
+    cb.drawBounds.setRect(newDrawBounds);
+    cb.isInBounds = isInBounds;
+    cb.isInDrawBounds = isInDrawBounds;
+    if (touchedEdge) {
+      Rectangle2D.Double oldBounds = bounds;
+      Rectangle2D.Double oldDrawBounds = drawBounds;
+      computeBounds();
+      return bounds.equals(oldBounds) && drawBounds.equals(oldDrawBounds);
+    }
+    return true;
+  }
+
+  /**
+   * Returns true, if r extends past an edge of outer.
+   * <p>
+   * The right and bottom edges of a union of rectangles are computed as
+   * x + width and y + height, and may be off by a rounding error. We treat
+   * rectangles within the rounding error as touching the edge, and not as
+   * extending past it.
+   */
+  private static boolean extendsPast(Rectangle2D.Double outer, Rectangle2D.Double r) {
+    double maxX = outer.x + outer.width;
+    double maxY = outer.y + outer.height;
+    return r.x < outer.x || r.y < outer.y
+        || r.x + r.width > maxX + 2 * Math.ulp(maxX)
+        || r.y + r.height > maxY + 2 * Math.ulp(maxY);
+  }
+
+  /**
+   * Returns true, if r touches an edge of outer, or lies outside of it.
+   * Rectangles within the rounding error of the right and bottom edges
+   * are treated as touching them.
+   */
+  private static boolean touchesEdge(Rectangle2D.Double outer, Rectangle2D.Double r) {
+    double maxX = outer.x + outer.width;
+    double maxY = outer.y + outer.height;
+    return r.x <= outer.x || r.y <= outer.y
+        || r.x + r.width >= maxX - 2 * Math.ulp(maxX)
+        || r.y + r.height >= maxY - 2 * Math.ulp(maxY);
   }
 
   public void drawFigure(Graphics2D g) {
-    for (Figure child : children) {
-      if (child.isVisible()) {
+    Rectangle clip = g.getClipBounds();
+    if (clip != null && getChildIndex() != null) {
+      for (Figure child : findChildren(new Rectangle2D.Double(clip.x, clip.y, clip.width, clip.height))) {
         child.draw(g);
       }
+    } else {
+      for (Figure child : children) {
+        if (child.isVisible()) {
+          child.draw(g);
+        }
+      }
     }
     if (isConnectorsVisible()) {
       drawConnectors(g);
@@ -497,6 +932,12 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
   public AbstractCompositeFigure clone() {
     AbstractCompositeFigure that = (AbstractCompositeFigure) super.clone();
     that.childHandler = new ChildHandler(that);
+    that.childIndex = null;
+    that.indexedChildren = null;
+    that.pointQuery = new PointQuery();
+    that.childBounds = new IdentityHashMap<>();
+    that.bounds = null;
+    that.drawBounds = null;
     that.children = new LinkedList<>();
     for (Figure thisChild : this.children) {
       Figure thatChild = (Figure) thisChild.clone();
@@ -547,6 +988,7 @@ public abstract class AbstractCompositeFigure extends AbstractFigure implements
       index++;
     }
     invalidateBounds();
+    moveChildIndex();
   }
 
   public Object getRestoreData() {
@@ -1,5 +1,5 @@
 /*
- * @(#)AbstractFigure.java   3.3  2006-06-17
+ * @(#)AbstractFigure.java   3.7  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -32,7 +32,6 @@ import org.jhotdraw.geom.Dimension2DDouble;
 import org.jhotdraw.geom.Insets2DDouble;
 
 import javax.swing.*;
-import javax.swing.event.EventListenerList;
 import javax.swing.event.UndoableEditEvent;
 import javax.swing.event.UndoableEditListener;
 import javax.swing.undo.UndoableEdit;
@@ -49,13 +48,27 @@ import java.util.*;
  * for a Figure.
  *
  * @author Werner Randelshofer
- * @version 3.3 Reworked.
+ * @version 3.7 2026-10-18 Level of detail is computed once per draw.
+ * <br>3.6 2026-10-17 Typed listener arrays, events can be batched.
+ * <br>3.5 2026-10-17 Bounds and points can be stored into a given object.
+ * <br>3.4 2026-10-17 Level of detail added.
+ * <br>3.3 Reworked.
  * <br>3.2 2006-01-05 Added method getChangingDepth().
  * <br>3.0 2006-01-20 Reworked for J2SE 1.5.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
 public abstract class AbstractFigure implements Figure {
-  protected EventListenerList listenerList = new EventListenerList();
+  private static final FigureListener[] NO_FIGURE_LISTENERS = new FigureListener[0];
+  private static final UndoableEditListener[] NO_UNDOABLE_EDIT_LISTENERS = new UndoableEditListener[0];
+
+  /**
+   * The listeners are kept in arrays, which are copied when a listener is
+   * added or removed. The fire methods iterate over the current array
+   * without copying it, and a listener may safely remove itself while it
+   * is being notified.
+   */
+  private FigureListener[] figureListeners = NO_FIGURE_LISTENERS;
+  private UndoableEditListener[] undoableEditListeners = NO_UNDOABLE_EDIT_LISTENERS;
   private boolean isConnectorsVisible;
   private ConnectionFigure courtingConnection;
   private Drawing drawing;
@@ -68,6 +81,11 @@ public abstract class AbstractFigure implements Figure {
    * decrease it on each invocation of changed().
    */
   protected int changingDepth = 0;
+  /**
+   * The level of detail, with which method draw() draws the figure.
+   * We compute it once per draw, because computing it may be expensive.
+   */
+  private transient int drawLevelOfDetail = DETAIL_FULL;
 
   /**
    * Creates a new instance.
@@ -84,19 +102,47 @@ public abstract class AbstractFigure implements Figure {
   // CLONING
   // EVENT HANDLING
   public void addFigureListener(FigureListener l) {
-    listenerList.add(FigureListener.class, l);
+    if (l != null) {
+      figureListeners = addListener(figureListeners, l);
+    }
   }
 
   public void removeFigureListener(FigureListener l) {
-    listenerList.remove(FigureListener.class, l);
+    figureListeners = removeListener(figureListeners, l);
   }
 
   public void addUndoableEditListener(UndoableEditListener l) {
-    listenerList.add(UndoableEditListener.class, l);
+    if (l != null) {
+      undoableEditListeners = addListener(undoableEditListeners, l);
+    }
   }
 
   public void removeUndoableEditListener(UndoableEditListener l) {
-    listenerList.remove(UndoableEditListener.class, l);
+    undoableEditListeners = removeListener(undoableEditListeners, l);
+  }
+
+  /**
+   * Returns a copy of the listener array with the listener appended.
+   */
+  private static <T> T[] addListener(T[] listeners, T l) {
+    T[] grown = Arrays.copyOf(listeners, listeners.length + 1);
+    grown[listeners.length] = l;
+    return grown;
+  }
+
+  /**
+   * Returns a copy of the listener array without the last occurrence of
+   * the listener, or the array itself if it does not contain the listener.
+   */
+  private static <T> T[] removeListener(T[] listeners, T l) {
+    for (int i = listeners.length - 1; i >= 0; i--) {
+      if (listeners[i] == l) {
+        T[] shrunk = Arrays.copyOf(listeners, listeners.length - 1);
+        System.arraycopy(listeners, i + 1, shrunk, i, listeners.length - i - 1);
+        return shrunk;
+      }
+    }
+    return listeners;
   }
 
   public void addNotify(Drawing d) {
@@ -134,89 +180,74 @@ public abstract class AbstractFigure implements Figure {
   }
 
   /**
-   * Notify all listenerList that have registered interest for
-   * notification on this event type.
+   * Notify all listeners that have registered interest for
+   * notification on this event type. Within a {@link FigureEventBatch},
+   * the notification is deferred and merged with the other events of
+   * this figure.
    */
   public void fireAreaInvalidated(Rectangle2D.Double invalidatedArea) {
-    if (listenerList.getListenerCount() > 0) {
-      FigureEvent event = null;
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (listeners[i] == FigureListener.class) {
-          // Lazily create the event:
-          if (event == null) event = new FigureEvent(this, invalidatedArea);
-          ((FigureListener) listeners[i + 1]).figureAreaInvalidated(event);
-        }
+    if (figureListeners.length > 0) {
+      FigureEventBatch batch = FigureEventBatch.getCurrent();
+      if (batch != null && batch.isDeferring(this)) {
+        batch.deferAreaInvalidated(this, invalidatedArea);
+      } else {
+        dispatchAreaInvalidated(invalidatedArea);
+      }
+    }
+  }
+
+  void dispatchAreaInvalidated(Rectangle2D.Double invalidatedArea) {
+    FigureListener[] listeners = figureListeners;
+    if (listeners.length > 0) {
+      FigureEvent event = new FigureEvent(this, invalidatedArea);
+      // Process the listeners last to first
+      for (int i = listeners.length - 1; i >= 0; i--) {
+        listeners[i].figureAreaInvalidated(event);
       }
     }
   }
 
   /**
-   * Notify all listenerList that have registered interest for
+   * Notify all listeners that have registered interest for
    * notification on this event type.
    */
   public void fireFigureRequestRemove() {
-    if (listenerList.getListenerCount() > 0) {
-      FigureEvent event = null;
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (listeners[i] == FigureListener.class) {
-          // Lazily create the event:
-          if (event == null) event = new FigureEvent(this, getBounds());
-          ((FigureListener) listeners[i + 1]).figureRequestRemove(event);
-        }
+    FigureListener[] listeners = figureListeners;
+    if (listeners.length > 0) {
+      FigureEvent event = new FigureEvent(this, getBounds());
+      // Process the listeners last to first
+      for (int i = listeners.length - 1; i >= 0; i--) {
+        listeners[i].figureRequestRemove(event);
       }
     }
   }
 
   /**
-   * Notify all listenerList that have registered interest for
+   * Notify all listeners that have registered interest for
    * notification on this event type.
    */
   protected void fireFigureAdded() {
-    if (listenerList.getListenerCount() > 0) {
-      FigureEvent event = null;
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (listeners[i] == FigureListener.class) {
-          // Lazily create the event:
-          if (event == null) event = new FigureEvent(this, getBounds());
-          ((FigureListener) listeners[i + 1]).figureAdded(event);
-        }
+    FigureListener[] listeners = figureListeners;
+    if (listeners.length > 0) {
+      FigureEvent event = new FigureEvent(this, getBounds());
+      // Process the listeners last to first
+      for (int i = listeners.length - 1; i >= 0; i--) {
+        listeners[i].figureAdded(event);
       }
     }
   }
 
   /**
-   * Notify all listenerList that have registered interest for
+   * Notify all listeners that have registered interest for
    * notification on this event type.
    */
   protected void fireFigureRemoved() {
-    if (listenerList.getListenerCount() > 0) {
-      FigureEvent event = null;
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (listeners[i] == FigureListener.class) {
-          // Lazily create the event:
-          if (event == null) event = new FigureEvent(this, getBounds());
-          ((FigureListener) listeners[i + 1]).figureRemoved(event);
-        }
+    FigureListener[] listeners = figureListeners;
+    if (listeners.length > 0) {
+      FigureEvent event = new FigureEvent(this, getBounds());
+      // Process the listeners last to first
+      for (int i = listeners.length - 1; i >= 0; i--) {
+        listeners[i].figureRemoved(event);
       }
     }
   }
@@ -226,82 +257,62 @@ public abstract class AbstractFigure implements Figure {
   }
 
   /**
-   * Notify all listenerList that have registered interest for
-   * notification on this event type.
+   * Notify all listeners that have registered interest for
+   * notification on this event type. Within a {@link FigureEventBatch},
+   * the notification is deferred and merged with the other events of
+   * this figure.
    */
   protected void fireFigureChanged(Rectangle2D.Double changedArea) {
-    if (listenerList.getListenerCount() > 0) {
-      FigureEvent event = null;
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (listeners[i] == FigureListener.class) {
-          // Lazily create the event:
-          if (event == null) event = new FigureEvent(this, changedArea);
-          ((FigureListener) listeners[i + 1]).figureChanged(event);
-        }
+    if (figureListeners.length > 0) {
+      FigureEventBatch batch = FigureEventBatch.getCurrent();
+      if (batch != null && batch.isDeferring(this)) {
+        batch.deferFigureChanged(this, changedArea);
+      } else {
+        dispatchFigureChanged(changedArea);
       }
     }
   }
 
+  void dispatchFigureChanged(Rectangle2D.Double changedArea) {
+    if (figureListeners.length > 0) {
+      fireFigureChanged(new FigureEvent(this, changedArea));
+    }
+  }
+
   public void fireFigureChanged(FigureEvent event) {
-    if (listenerList.getListenerCount() > 0) {
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (listeners[i] == FigureListener.class) {
-          // Lazily create the event:
-          ((FigureListener) listeners[i + 1]).figureChanged(event);
-        }
-      }
+    FigureListener[] listeners = figureListeners;
+    // Process the listeners last to first
+    for (int i = listeners.length - 1; i >= 0; i--) {
+      listeners[i].figureChanged(event);
     }
   }
 
   /**
-   * Notify all listenerList that have registered interest for
+   * Notify all listeners that have registered interest for
    * notification on this event type.
    */
   protected void fireAttributeChanged(AttributeKey<?> attribute, Object oldValue, Object newValue) {
-    if (listenerList.getListenerCount() > 0) {
-      FigureEvent event = null;
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (listeners[i] == FigureListener.class) {
-          // Lazily create the event:
-          if (event == null) event = new FigureEvent(this, attribute, oldValue, newValue);
-          ((FigureListener) listeners[i + 1]).figureAttributeChanged(event);
-        }
+    FigureListener[] listeners = figureListeners;
+    if (listeners.length > 0) {
+      FigureEvent event = new FigureEvent(this, attribute, oldValue, newValue);
+      // Process the listeners last to first
+      for (int i = listeners.length - 1; i >= 0; i--) {
+        listeners[i].figureAttributeChanged(event);
       }
     }
   }
 
   /**
-   * Notify all listenerList that have registered interest for
+   * Notify all listeners that have registered interest for
    * notification on this event type.
    */
   public void fireUndoableEditHappened(UndoableEdit edit) {
-    UndoableEditEvent event = null;
-    if (listenerList.getListenerCount() > 0) {
-      // Notify all listeners that have registered interest for
-      // Guaranteed to return a non-null array
-      Object[] listeners = listenerList.getListenerList();
-      // Process the listeners last to first, notifying
-      // those that are interested in this event
-      for (int i = listeners.length - 2; i >= 0; i -= 2) {
-        if (event == null) event = new UndoableEditEvent(this, edit);
-        if (listeners[i] == UndoableEditListener.class) {
-          ((UndoableEditListener) listeners[i + 1]).undoableEditHappened(event);
-        }
+    UndoableEditListener[] listeners = undoableEditListeners;
+    if (listeners.length > 0) {
+      UndoableEditEvent event = new UndoableEditEvent(this, edit);
+      // Process the listeners last to first
+      for (int i = listeners.length - 1; i >= 0; i--) {
+        listeners[i].undoableEditHappened(event);
       }
     }
   }
@@ -314,7 +325,8 @@ public abstract class AbstractFigure implements Figure {
   public AbstractFigure clone() {
     try {
       AbstractFigure that = (AbstractFigure) super.clone();
-      that.listenerList = new EventListenerList();
+      that.figureListeners = NO_FIGURE_LISTENERS;
+      that.undoableEditListeners = NO_UNDOABLE_EDIT_LISTENERS;
       that.isConnectorsVisible = false;
       that.courtingConnection = null;
       if (this.decorator != null) {
@@ -388,7 +400,12 @@ public abstract class AbstractFigure implements Figure {
    * affects the contents of its display box.
    */
   public void willChange() {
-    changingDepth++;
+    if (changingDepth++ == 0) {
+      FigureEventBatch batch = FigureEventBatch.getCurrent();
+      if (batch != null) {
+        batch.changeStarted();
+      }
+    }
     invalidate();
   }
 
@@ -403,6 +420,12 @@ public abstract class AbstractFigure implements Figure {
     if (changingDepth <= 1) {
       validate();
       fireFigureChanged(getDrawBounds());
+      if (changingDepth == 1) {
+        FigureEventBatch batch = FigureEventBatch.getCurrent();
+        if (batch != null) {
+          batch.changeEnded();
+        }
+      }
       changingDepth = 0;
     } else {
       changingDepth--;
@@ -479,13 +502,36 @@ public abstract class AbstractFigure implements Figure {
   }
 
   public Point2D.Double getEndPoint() {
+    return getEndPoint(new Point2D.Double());
+  }
+
+  public Point2D.Double getEndPoint(Point2D.Double p) {
     Rectangle2D.Double r = getBounds();
-    return new Point2D.Double(r.x + r.width, r.y + r.height);
+    p.x = r.x + r.width;
+    p.y = r.y + r.height;
+    return p;
   }
 
   public Point2D.Double getStartPoint() {
+    return getStartPoint(new Point2D.Double());
+  }
+
+  public Point2D.Double getStartPoint(Point2D.Double p) {
     Rectangle2D.Double r = getBounds();
-    return new Point2D.Double(r.x, r.y);
+    p.x = r.x;
+    p.y = r.y;
+    return p;
+  }
+
+  /**
+   * Stores the logical bounds into the specified rectangle.
+   * This implementation copies the bounds returned by getBounds().
+   * Subclasses, which can compute their bounds without allocating a new
+   * rectangle, should override both methods.
+   */
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    r.setRect(getBounds());
+    return r;
   }
 
   /*
@@ -574,17 +620,63 @@ public abstract class AbstractFigure implements Figure {
   }
 
   public final void draw(Graphics2D g) {
-    if (isDrawDecoratorFirst()) {
-      drawDecorator(g);
-      drawFigure(g);
-    } else {
-      drawFigure(g);
-      drawDecorator(g);
+    drawLevelOfDetail = getLevelOfDetail(getScaleFactor());
+    switch (drawLevelOfDetail) {
+      case DETAIL_NONE:
+        break;
+      case DETAIL_BOX:
+        drawBox(g);
+        break;
+      case DETAIL_REDUCED:
+        drawFigure(g);
+        break;
+      case DETAIL_FULL:
+      default:
+        if (isDrawDecoratorFirst()) {
+          drawDecorator(g);
+          drawFigure(g);
+        } else {
+          drawFigure(g);
+          drawDecorator(g);
+        }
+        break;
     }
   }
 
+  /**
+   * Returns DETAIL_FULL. Subclasses can reduce the level of detail for
+   * small scale factors.
+   */
+  public int getLevelOfDetail(double scaleFactor) {
+    return DETAIL_FULL;
+  }
+
+  /**
+   * Returns the level of detail, with which method draw() draws the figure.
+   * Subclasses use this in drawFigure() to leave out details.
+   */
+  protected int getDrawLevelOfDetail() {
+    return drawLevelOfDetail;
+  }
+
+  /**
+   * Returns the scale factor with which the drawing of this figure is
+   * drawn, or 1 if the figure is not part of a drawing.
+   */
+  protected double getScaleFactor() {
+    return (drawing == null) ? 1d : drawing.getScaleFactor();
+  }
+
   protected abstract void drawFigure(Graphics2D g);
 
+  /**
+   * Draws the figure as a filled box, when its level of detail is
+   * DETAIL_BOX. This implementation draws the figure without its decorator.
+   */
+  protected void drawBox(Graphics2D g) {
+    drawFigure(g);
+  }
+
   protected void drawDecorator(Graphics2D g) {
     if (decorator != null) {
       updateDecoratorBounds();
@@ -606,16 +698,34 @@ public abstract class AbstractFigure implements Figure {
   }
 
   public final Rectangle2D.Double getDrawBounds() {
-    Rectangle2D.Double figureDrawBounds = getFigureDrawBounds();
+    return getDrawBounds(new Rectangle2D.Double());
+  }
+
+  public final Rectangle2D.Double getDrawBounds(Rectangle2D.Double r) {
+    getFigureDrawBounds(r);
     if (decorator != null) {
       updateDecoratorBounds();
-      figureDrawBounds.add(decorator.getDrawBounds());
+      r.add(decorator.getDrawBounds());
     }
-    return figureDrawBounds;
+    return r;
   }
 
   protected abstract Rectangle2D.Double getFigureDrawBounds();
 
+  /**
+   * Stores the drawing bounds of the figure without its decorator into the
+   * specified rectangle.
+   * This implementation copies the bounds returned by getFigureDrawBounds().
+   * Subclasses, which can compute their draw bounds without allocating a
+   * new rectangle, should override both methods.
+   *
+   * @return The specified rectangle.
+   */
+  protected Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
+    r.setRect(getFigureDrawBounds());
+    return r;
+  }
+
   public String toString() {
     return getClass().getName().substring(getClass().getName().lastIndexOf('.') + 1) +
             '@' +
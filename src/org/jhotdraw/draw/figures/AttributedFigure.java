@@ -1,5 +1,5 @@
 /*
- * @(#)AttributedFigure.java  3.1  2006-06-17
+ * @(#)AttributedFigure.java  3.9  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -16,6 +16,7 @@ package org.jhotdraw.draw.figures;
 
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.AttributeKeys;
+import org.jhotdraw.draw.FigureAttributes;
 import org.jhotdraw.draw.edits.AttributeChangeEdit;
 import org.jhotdraw.geom.Dimension2DDouble;
 import org.jhotdraw.geom.Geom;
@@ -26,6 +27,7 @@ import java.awt.*;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -38,19 +40,58 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * FIXME - Move all convenience attribute getter methods into AttributeKeys
  *
  * @author Werner Randelshofer
- * @version 3.1 2006-06-17 Method chop(Point2D.Double) added.
+ * @version 3.9 2026-10-18 The draw bounds growth is computed by AttributeKeys.
+ * <br>3.8 2026-10-18 Level of detail of figures other than text
+ * figures only depends on their projected size.
+ * <br>3.7 2026-10-18 Method drawStrokedShape added.
+ * <br>3.6 2026-10-17 Method getDrawBoundsGrowth added.
+ * <br>3.5 2026-10-17 Level of detail added.
+ * <br>3.4 2026-10-17 Derived values are cached in the attributes.
+ * <br>3.3 2026-10-17 Share equal attributes between figures.
+ * <br>3.2 2026-10-17 Keep attributes in FigureAttributes.
+ * <br>3.1 2006-06-17 Method chop(Point2D.Double) added.
  * <br>3.0 2006-06-07 Reworked.
  * <br>2.1 2006-02-20 Support for DoubleStroke added.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
 public abstract class AttributedFigure extends AbstractFigure {
-  private HashMap<AttributeKey, Object> attributes = new HashMap<>();
+  /**
+   * Figures, whose projected size is smaller than this number of pixels,
+   * are not drawn.
+   */
+  public static final double MIN_VISIBLE_SIZE = 0.25;
+  /**
+   * Figures, whose projected size is smaller than this number of pixels,
+   * are drawn as a filled box.
+   */
+  public static final double MIN_DETAILED_SIZE = 3;
+  /**
+   * Text figures, whose projected font size is smaller than this number of
+   * pixels, are drawn without text.
+   */
+  public static final double MIN_READABLE_FONT_SIZE = 4;
+
+  private FigureAttributes attributes = new FigureAttributes();
   /**
    * Forbidden attributes can't be set by the setAttribute() operation.
    * They can only be changed by basicSetAttribute().
    */
   private HashSet<AttributeKey> forbiddenAttributes;
+  /**
+   * The geometry version is incremented, whenever the figure is
+   * invalidated or validated, or when one of its attributes is changed.
+   */
+  private transient int geometryVersion;
+  /**
+   * The shape, which has been created by drawStrokedShape, together with
+   * the stroke and the geometry version, for which it has been created.
+   * We cache it, because strokes other than BasicStroke are not drawn
+   * natively, and creating their stroked shape is expensive.
+   */
+  private transient Shape strokedShape;
+  private transient Stroke strokedShapeStroke;
+  private transient int strokedShapeVersion;
 
   /**
    * Creates a new instance.
@@ -98,8 +139,27 @@ public abstract class AttributedFigure extends AbstractFigure {
     }
   }
 
+  /**
+   * Shares the attributes of this figure with all figures, which have
+   * equal attributes. The attributes are copied again, when one of them
+   * is changed.
+   */
+  public void internAttributes() {
+    attributes.intern();
+  }
+
   public Map<AttributeKey, Object> getAttributes() {
-    return new HashMap<>(attributes);
+    return attributes.toMap();
+  }
+
+  /**
+   * Returns the attributes of this figure. AttributeKeys caches the values,
+   * which it derives from the attributes, in there.
+   * <p>
+   * The returned object must not be changed.
+   */
+  public FigureAttributes getFigureAttributes() {
+    return attributes;
   }
 
   /**
@@ -110,6 +170,7 @@ public abstract class AttributedFigure extends AbstractFigure {
   public void basicSetAttribute(AttributeKey<?> key, Object newValue) {
     if (forbiddenAttributes == null || !forbiddenAttributes.contains(key)) {
       attributes.put(key, newValue);
+      geometryVersion++;
     }
   }
 
@@ -117,7 +178,58 @@ public abstract class AttributedFigure extends AbstractFigure {
    * Gets an attribute from the figure.
    */
   public Object getAttribute(AttributeKey<?> key) {
-    return hasAttribute(key) ? attributes.get(key) : key.getDefaultValue();
+    return attributes.getOrDefault(key);
+  }
+
+  /**
+   * Reduces the level of detail, when the figure together with its stroke
+   * and decorations is projected to a few pixels only.
+   */
+  @Override
+  public int getLevelOfDetail(double scaleFactor) {
+    Rectangle2D.Double r = getFigureDrawBounds(new Rectangle2D.Double());
+    double size = Math.max(r.width, r.height) * scaleFactor;
+    if (size < MIN_VISIBLE_SIZE) {
+      return DETAIL_NONE;
+    } else if (size < MIN_DETAILED_SIZE) {
+      return DETAIL_BOX;
+    } else {
+      return DETAIL_FULL;
+    }
+  }
+
+  /**
+   * Reduces the specified level of detail of a figure, which draws text.
+   * The text is left out, when the font is projected to less than
+   * MIN_READABLE_FONT_SIZE pixels.
+   */
+  protected int reduceTextLevelOfDetail(int detail, double scaleFactor) {
+    if (detail == DETAIL_FULL && scaleFactor * FONT_SIZE.get(this) < MIN_READABLE_FONT_SIZE) {
+      return DETAIL_REDUCED;
+    }
+    return detail;
+  }
+
+  /**
+   * Fills the bounds of the figure with the fill color, or with the stroke
+   * color, if the figure has no fill color.
+   */
+  @Override
+  protected void drawBox(Graphics2D g) {
+    Color color = FILL_COLOR.get(this);
+    if (color == null) {
+      color = STROKE_COLOR.get(this);
+    }
+    if (color == null) {
+      color = TEXT_COLOR.get(this);
+    }
+    if (color != null) {
+      g.setColor(color);
+      Rectangle2D.Double r = getBounds();
+      double grow = AttributeKeys.getStrokeTotalWidth(this) / 2d;
+      Geom.grow(r, grow, grow);
+      g.fill(r);
+    }
   }
 
   public void drawFigure(Graphics2D g) {
@@ -131,7 +243,7 @@ public abstract class AttributedFigure extends AbstractFigure {
 
       drawStroke(g);
     }
-    if (TEXT_COLOR.get(this) != null) {
+    if (TEXT_COLOR.get(this) != null && getDrawLevelOfDetail() == DETAIL_FULL) {
       if (TEXT_SHADOW_COLOR.get(this) != null && TEXT_SHADOW_OFFSET.get(this) != null) {
         Dimension2DDouble d = TEXT_SHADOW_OFFSET.get(this);
         g.translate(d.width, d.height);
@@ -150,6 +262,40 @@ public abstract class AttributedFigure extends AbstractFigure {
   protected void drawConnectors(Graphics2D g) {
   }
 
+  /**
+   * Draws the outline of the specified shape with the current stroke of
+   * the graphics.
+   * <p>
+   * If the stroke is not a BasicStroke, the stroked shape is cached until
+   * the geometry version of the figure or the stroke changes. Therefore a
+   * figure must draw only one shape with this method.
+   */
+  protected void drawStrokedShape(Graphics2D g, Shape shape) {
+    Stroke stroke = g.getStroke();
+    if (stroke instanceof BasicStroke) {
+      g.draw(shape);
+      return;
+    }
+    if (strokedShape == null || strokedShapeStroke != stroke || strokedShapeVersion != geometryVersion) {
+      strokedShape = stroke.createStrokedShape(shape);
+      strokedShapeStroke = stroke;
+      strokedShapeVersion = geometryVersion;
+    }
+    g.fill(strokedShape);
+  }
+
+  @Override
+  public void invalidate() {
+    geometryVersion++;
+    super.invalidate();
+  }
+
+  @Override
+  protected void validate() {
+    geometryVersion++;
+    super.validate();
+  }
+
   public Stroke getStroke() {
     return AttributeKeys.getStroke(this);
   }
@@ -160,16 +306,20 @@ public abstract class AttributedFigure extends AbstractFigure {
   }
 
   public Rectangle2D.Double getFigureDrawBounds() {
-    double width = AttributeKeys.getStrokeTotalWidth(this) / 2d;
-    if (STROKE_JOIN.get(this) == BasicStroke.JOIN_MITER) {
-      width *= STROKE_MITER_LIMIT_FACTOR.get(this);
-    }
-    width++;
     Rectangle2D.Double r = getBounds();
+    double width = getDrawBoundsGrowth();
     Geom.grow(r, width, width);
     return r;
   }
 
+  /**
+   * Returns the amount by which getFigureDrawBounds grows the bounds of
+   * the figure, to take the stroke into account.
+   */
+  protected double getDrawBoundsGrowth() {
+    return AttributeKeys.getDrawBoundsGrowth(this);
+  }
+
   /**
    * This method is called by method draw() to draw the fill
    * area of the figure. AttributedFigure configures the Graphics2D
@@ -197,29 +347,47 @@ public abstract class AttributedFigure extends AbstractFigure {
 
   public AttributedFigure clone() {
     AttributedFigure that = (AttributedFigure) super.clone();
-    that.attributes = new HashMap<>(this.attributes);
+    that.attributes = this.attributes.clone();
+    that.strokedShape = null;
+    that.strokedShapeStroke = null;
     if (this.forbiddenAttributes != null) {
       that.forbiddenAttributes = new HashSet<>(this.forbiddenAttributes);
     }
     return that;
   }
 
+  /**
+   * Writes the attributes, which differ from the attributes of the
+   * prototype. Figures with equal attributes write them only once, and
+   * refer to them by id afterwards.
+   */
   protected void writeAttributes(DOMOutput out) throws IOException {
     Figure prototype = (Figure) out.getPrototype();
 
+    Object style = Arrays.asList(attributes.getStyle(), prototype.getClass(),
+        (forbiddenAttributes == null) ? null : new HashSet<>(forbiddenAttributes));
+    String ref = FigureAttributes.getWrittenId(out, style);
+    if (ref != null) {
+      out.openElement("a");
+      out.addAttribute("ref", ref);
+      out.closeElement();
+      return;
+    }
+
     boolean isElementOpen = false;
-    for (Map.Entry<AttributeKey, Object> entry : attributes.entrySet()) {
-      AttributeKey<?> key = entry.getKey();
+    for (int i = 0, n = attributes.size(); i < n; i++) {
+      AttributeKey<?> key = attributes.getKey(i);
       if (forbiddenAttributes == null || !forbiddenAttributes.contains(key)) {
         Object prototypeValue = key.get(prototype);
         Object attributeValue = key.get(this);
         if (prototypeValue != null && !prototypeValue.equals(attributeValue)) {
           if (!isElementOpen) {
             out.openElement("a");
+            out.addAttribute("id", FigureAttributes.putWrittenId(out, style));
             isElementOpen = true;
           }
           out.openElement(key.getKey());
-          out.writeObject(entry.getValue());
+          out.writeObject(attributes.getValue(i));
           out.closeElement();
         }
       }
@@ -229,20 +397,44 @@ public abstract class AttributedFigure extends AbstractFigure {
     }
   }
 
+  /**
+   * Reads the attributes, and shares them with all figures which have
+   * equal attributes.
+   */
   protected void readAttributes(DOMInput in) throws IOException {
     if (in.getElementCount("a") > 0) {
       in.openElement("a");
-      for (int i = in.getElementCount() - 1; i >= 0; i--) {
-        in.openElement(i);
-        String name = in.getTagName();
-        Object value = in.readObject();
-        AttributeKey<?> key = getAttributeKey(name);
-        if (key != null && key.isAssignable(value) && (forbiddenAttributes == null || !forbiddenAttributes.contains(key))) {
-          setAttribute(key, value);
+      String ref = in.getAttribute("ref", null);
+      FigureAttributes read;
+      if (ref != null) {
+        read = FigureAttributes.getReadSet(in, ref);
+      } else {
+        read = new FigureAttributes();
+        for (int i = in.getElementCount() - 1; i >= 0; i--) {
+          in.openElement(i);
+          String name = in.getTagName();
+          Object value = in.readObject();
+          AttributeKey<?> key = getAttributeKey(name);
+          if (key != null && key.isAssignable(value)) {
+            read.put(key, value);
+          }
+          in.closeElement();
+        }
+        String id = in.getAttribute("id", null);
+        if (id != null) {
+          FigureAttributes.putReadSet(in, id, read);
         }
-        in.closeElement();
       }
       in.closeElement();
+      if (read != null) {
+        for (int i = 0, n = read.size(); i < n; i++) {
+          AttributeKey<?> key = read.getKey(i);
+          if (forbiddenAttributes == null || !forbiddenAttributes.contains(key)) {
+            setAttribute(key, read.getValue(i));
+          }
+        }
+      }
+      attributes.intern();
     }
   }
 
@@ -254,8 +446,8 @@ public abstract class AttributedFigure extends AbstractFigure {
    * Applies all attributes of this figure to that figure.
    */
   protected void applyAttributesTo(Figure that) {
-    for (Map.Entry<AttributeKey, Object> entry : attributes.entrySet()) {
-      that.setAttribute(entry.getKey(), entry.getValue());
+    for (int i = 0, n = attributes.size(); i < n; i++) {
+      that.setAttribute(attributes.getKey(i), attributes.getValue(i));
     }
   }
 
@@ -1,5 +1,5 @@
 /*
- * @(#)BezierFigure.java 2.1.1  2006-06-08
+ * @(#)BezierFigure.java  2.6.1  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -26,6 +26,7 @@ import org.jhotdraw.draw.handlers.BezierNodeHandle;
 import org.jhotdraw.draw.handlers.Handle;
 import org.jhotdraw.draw.views.DrawingView;
 import org.jhotdraw.geom.BezierPath;
+import org.jhotdraw.geom.CompactBezierPath;
 import org.jhotdraw.geom.Geom;
 import org.jhotdraw.geom.GrowStroke;
 import org.jhotdraw.xml.DOMInput;
@@ -50,7 +51,14 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * It can be used to draw an open path or a closed shape.
  *
  * @author Werner Randelshofer
- * @version 2.1.1 2006-06-08 Fixed caps drawing.
+ * @version 2.6.1 2026-10-18 Uses the level of detail of the current draw.
+ * <br>2.6 2026-10-18 Stroked shapes are cached.
+ * <br>2.5 2026-10-17 Restore data is a CompactBezierPath.
+ * <br>2.4 2026-10-17 Bounds and end points can be stored into a given
+ * object.
+ * <br>2.3 2026-10-17 Grown shapes and decoration geometry are cached.
+ * <br>2.2 2026-10-17 Caps are not drawn at a reduced level of detail.
+ * <br>2.1.1 2006-06-08 Fixed caps drawing.
  * <br>2.1 2006-04-21 Improved caps drawing.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 March 14, 2004.
@@ -69,6 +77,24 @@ public class BezierFigure extends AttributedFigure {
    */
   private transient BezierPath cappedPath;
 
+  /**
+   * The shapes for filling, drawing and hit testing a closed path are
+   * derived from variable path and the stroke attributes.
+   * We cache them to increase the drawing and hit testing speed of the
+   * figure.
+   */
+  private transient Shape fillShape;
+  private transient Shape drawShape;
+  private transient Shape hitShape;
+
+  /**
+   * The union of the draw bounds of the line decorations, or null if the
+   * figure has no line decorations. This is only valid, if
+   * isDecorationDrawBoundsValid is true.
+   */
+  private transient Rectangle2D.Double decorationDrawBounds;
+  private transient boolean isDecorationDrawBoundsValid;
+
   /**
    * Creates a new instance.
    */
@@ -110,18 +136,20 @@ public class BezierFigure extends AttributedFigure {
   // CLONING
   // EVENT HANDLING
   protected void drawStroke(Graphics2D g) {
+    boolean isDetailed = getDrawLevelOfDetail() == DETAIL_FULL;
     if (isClosed()) {
-      double grow = AttributeKeys.getPerpendicularDrawGrowth(this);
-      if (grow == 0d) {
-        g.draw(path);
-      } else {
-        GrowStroke gs = new GrowStroke((float) grow, (float) (AttributeKeys.getStrokeTotalWidth(this) * STROKE_MITER_LIMIT_FACTOR.get(this)));
-        g.draw(gs.createStrokedShape(path));
+      if (drawShape == null) {
+        drawShape = createGrownShape(AttributeKeys.getPerpendicularDrawGrowth(this));
       }
+      drawStrokedShape(g, drawShape);
+    } else if (isDetailed) {
+      drawStrokedShape(g, getCappedPath());
     } else {
-      g.draw(getCappedPath());
+      g.draw(path);
+    }
+    if (isDetailed) {
+      drawCaps(g);
     }
-    drawCaps(g);
   }
 
   protected void drawCaps(Graphics2D g) {
@@ -150,25 +178,37 @@ public class BezierFigure extends AttributedFigure {
   @Override
   protected void drawFill(Graphics2D g) {
     if (isClosed()) {
-      double grow = AttributeKeys.getPerpendicularFillGrowth(this);
-      if (grow == 0d) {
-        g.fill(path);
-      } else {
-        GrowStroke gs = new GrowStroke((float) grow, (float) (AttributeKeys.getStrokeTotalWidth(this) * STROKE_MITER_LIMIT_FACTOR.get(this)));
-        g.fill(gs.createStrokedShape(path));
+      if (fillShape == null) {
+        fillShape = createGrownShape(AttributeKeys.getPerpendicularFillGrowth(this));
       }
+      g.fill(fillShape);
     }
   }
 
+  /**
+   * Returns the path grown perpendicularly by the specified amount.
+   */
+  private Shape createGrownShape(double grow) {
+    if (grow == 0d) {
+      return path;
+    }
+    GrowStroke gs = new GrowStroke((float) grow, (float) (AttributeKeys.getStrokeTotalWidth(this) * STROKE_MITER_LIMIT_FACTOR.get(this)));
+    return gs.createStrokedShape(path);
+  }
+
+  /**
+   * Returns the shape which is used for hit testing a closed path.
+   */
+  private Shape getHitShape() {
+    if (hitShape == null) {
+      hitShape = createGrownShape(AttributeKeys.getPerpendicularHitGrowth(this));
+    }
+    return hitShape;
+  }
+
   public boolean contains(Point2D.Double p) {
     if (isClosed()) {
-      double grow = AttributeKeys.getPerpendicularHitGrowth(this);
-      if (grow == 0d) {
-        return path.contains(p);
-      } else {
-        GrowStroke gs = new GrowStroke((float) grow, (float) (AttributeKeys.getStrokeTotalWidth(this) * STROKE_MITER_LIMIT_FACTOR.get(this)));
-        return gs.createStrokedShape(path).contains(p);
-      }
+      return getHitShape().contains(p);
     } else {
       double tolerance = Math.max(2f, AttributeKeys.getStrokeTotalWidth(this) / 2);
       if (getCappedPath().outlineContains(p, tolerance)) {
@@ -221,29 +261,54 @@ public class BezierFigure extends AttributedFigure {
   }
 
   public Rectangle2D.Double getBounds() {
-    Rectangle2D.Double bounds = path.getBounds2DDouble();
+    return getBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    path.getBounds2D(r);
     // Make sure, bounds are not empty
-    bounds.width = Math.max(1, bounds.width);
-    bounds.height = Math.max(1, bounds.height);
-    return bounds;
+    r.width = Math.max(1, r.width);
+    r.height = Math.max(1, r.height);
+    return r;
   }
 
   public Rectangle2D.Double getFigureDrawBounds() {
-    Rectangle2D.Double r = super.getFigureDrawBounds();
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
 
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
+    getBounds(r);
+    double growth = getDrawBoundsGrowth();
+    Geom.grow(r, growth, growth);
+    if (!isDecorationDrawBoundsValid) {
+      decorationDrawBounds = computeDecorationDrawBounds();
+      isDecorationDrawBoundsValid = true;
+    }
+    if (decorationDrawBounds != null) {
+      r.add(decorationDrawBounds);
+    }
+    return r;
+  }
+
+  private Rectangle2D.Double computeDecorationDrawBounds() {
+    Rectangle2D.Double r = null;
     if (getNodeCount() > 1) {
       if (START_DECORATION.get(this) != null) {
         Point2D.Double p1 = getPoint(0, 0);
         Point2D.Double p2 = getPoint(1, 0);
-        r.add(START_DECORATION.get(this).getDrawBounds(this, p1, p2));
+        r = START_DECORATION.get(this).getDrawBounds(this, p1, p2);
       }
       if (END_DECORATION.get(this) != null) {
         Point2D.Double p1 = getPoint(getNodeCount() - 1, 0);
         Point2D.Double p2 = getPoint(getNodeCount() - 2, 0);
-        r.add(END_DECORATION.get(this).getDrawBounds(this, p1, p2));
+        Rectangle2D.Double b = END_DECORATION.get(this).getDrawBounds(this, p1, p2);
+        if (r == null) {
+          r = b;
+        } else {
+          r.add(b);
+        }
       }
     }
-
     return r;
   }
 
@@ -251,6 +316,7 @@ public class BezierFigure extends AttributedFigure {
     super.validate();
     path.invalidatePath();
     invalidateCappedPath();
+    invalidateShapes();
   }
 
   /**
@@ -260,6 +326,14 @@ public class BezierFigure extends AttributedFigure {
     return (BezierPath) path.clone();
   }
 
+  /**
+   * Appends the bezier path of this figure to the specified path as a new
+   * subpath, without cloning it.
+   */
+  public void appendBezierPathTo(CompactBezierPath p) {
+    p.append(path);
+  }
+
   public Point2D.Double getPointOnPath(float relative, double flatness) {
     return path.getPointOnPath(relative, flatness);
   }
@@ -269,6 +343,8 @@ public class BezierFigure extends AttributedFigure {
    */
   public void basicSetBezierPath(BezierPath newValue) {
     this.path = newValue;
+    invalidateCappedPath();
+    invalidateShapes();
     this.setClosed(newValue.isClosed());
   }
 
@@ -285,6 +361,8 @@ public class BezierFigure extends AttributedFigure {
       path.setClosed((Boolean) newValue);
     }
     super.basicSetAttribute(key, newValue);
+    invalidateCappedPath();
+    invalidateShapes();
   }
 
   public void basicSetBounds(Point2D.Double anchor, Point2D.Double lead) {
@@ -302,12 +380,24 @@ public class BezierFigure extends AttributedFigure {
     super.invalidate();
     path.invalidatePath();
     invalidateCappedPath();
+    invalidateShapes();
   }
 
   protected void invalidateCappedPath() {
     cappedPath = null;
   }
 
+  /**
+   * Discards the cached grown shapes and decoration bounds.
+   */
+  protected void invalidateShapes() {
+    fillShape = null;
+    drawShape = null;
+    hitShape = null;
+    decorationDrawBounds = null;
+    isDecorationDrawBoundsValid = false;
+  }
+
   /**
    * Returns a path which is cappedPath at the ends, to prevent
    * it from drawing under the end caps.
@@ -514,6 +604,13 @@ public class BezierFigure extends AttributedFigure {
     return getPoint(0, 0);
   }
 
+  public Point2D.Double getStartPoint(Point2D.Double p) {
+    BezierPath.Node node = path.get(0);
+    p.x = node.x[0];
+    p.y = node.y[0];
+    return p;
+  }
+
   /**
    * Convenience method for getting the end point.
    */
@@ -521,6 +618,13 @@ public class BezierFigure extends AttributedFigure {
     return getPoint(getNodeCount() - 1, 0);
   }
 
+  public Point2D.Double getEndPoint(Point2D.Double p) {
+    BezierPath.Node node = path.get(path.size() - 1);
+    p.x = node.x[0];
+    p.y = node.y[0];
+    return p;
+  }
+
   /**
    * Finds a control point index.
    * Returns -1 if no control point could be found.
@@ -669,22 +773,26 @@ public class BezierFigure extends AttributedFigure {
   }
 
   public void restoreTo(Object geometry) {
-    path.setTo((BezierPath) geometry);
+    if (geometry instanceof CompactBezierPath) {
+      path.setTo((CompactBezierPath) geometry);
+    } else {
+      path.setTo((BezierPath) geometry);
+    }
   }
 
+  /**
+   * Returns a CompactBezierPath with the nodes of this figure. It takes
+   * far less memory than a clone of the bezier path, which matters for
+   * undoing the transformation of many figures.
+   */
   public Object getRestoreData() {
-    return path.clone();
+    return new CompactBezierPath(path);
   }
 
   public Point2D.Double chop(Point2D.Double p) {
     if (isClosed()) {
-      double grow = AttributeKeys.getPerpendicularHitGrowth(this);
-      if (grow == 0d) {
-        return path.chop(p);
-      } else {
-        GrowStroke gs = new GrowStroke((float) grow, (float) (AttributeKeys.getStrokeTotalWidth(this) * STROKE_MITER_LIMIT_FACTOR.get(this)));
-        return Geom.chop(gs.createStrokedShape(path), p);
-      }
+      Shape shape = getHitShape();
+      return (shape == path) ? path.chop(p) : Geom.chop(shape, p);
     } else {
       return path.chop(p);
     }
@@ -1,5 +1,5 @@
 /*
- * @(#)DiamondFigure.java  1.0  2006-03-27
+ * @(#)DiamondFigure.java  1.2  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -30,7 +30,9 @@ import java.awt.geom.Rectangle2D;
  * A diamond with vertices at the midpoints of its enclosing rectangle.
  *
  * @author Werner Randelshofer
- * @version 1.0 2006-03-27 Created.
+ * @version 1.2 2026-10-18 Stroked shapes are cached.
+ * <br>1.1 2026-10-17 Bounds can be stored into a given rectangle.
+ * <br>1.0 2006-03-27 Created.
  */
 @SuppressWarnings("unused")
 public class DiamondFigure extends AttributedFigure {
@@ -132,7 +134,7 @@ public class DiamondFigure extends AttributedFigure {
     diamond.lineTo((float) (r.x + r.width / 2), (float) (r.y + r.height));
     diamond.lineTo((float) r.x, (float) (r.y + r.height / 2));
     diamond.closePath();
-    g.draw(diamond);
+    drawStrokedShape(g, diamond);
   }
 
   // SHAPE AND BOUNDS
@@ -140,6 +142,11 @@ public class DiamondFigure extends AttributedFigure {
     return (Rectangle2D.Double) rectangle.clone();
   }
 
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    r.setRect(rectangle);
+    return r;
+  }
+
   public Rectangle2D.Double getFigureDrawBounds() {
     Rectangle2D.Double r = (Rectangle2D.Double) rectangle.clone();
     if (isQuadratic()) {
@@ -1,5 +1,5 @@
 /*
- * @(#)EllipseFigure.java  2.3  2006-06-17
+ * @(#)EllipseFigure.java  2.5  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -31,7 +31,9 @@ import static org.jhotdraw.draw.AttributeKeys.TEXT_COLOR;
  * EllipseFigure.
  *
  * @author Werner Randelshofer
- * @version 2.3 2006-06-17 Added method chop(Point2D.Double).
+ * @version 2.5 2026-10-18 Stroked shapes are cached.
+ * <br>2.4 2026-10-17 Bounds can be stored into a given rectangle.
+ * <br>2.3 2006-06-17 Added method chop(Point2D.Double).
  * <br>2.2 2006-05-19 Support for stroke placement added.
  * <br>2.1 2006-03-22 Method getFigureDrawBounds added.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
@@ -76,8 +78,17 @@ public class EllipseFigure extends AttributedFigure {
     return (Rectangle2D.Double) ellipse.getBounds2D();
   }
 
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    r.setRect(ellipse.x, ellipse.y, ellipse.width, ellipse.height);
+    return r;
+  }
+
   public Rectangle2D.Double getFigureDrawBounds() {
-    Rectangle2D.Double r = (Rectangle2D.Double) ellipse.getBounds2D();
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
+    r.setRect(ellipse.x, ellipse.y, ellipse.width, ellipse.height);
     double grow = AttributeKeys.getPerpendicularHitGrowth(this);
     Geom.grow(r, grow, grow);
     return r;
@@ -104,7 +115,7 @@ public class EllipseFigure extends AttributedFigure {
     r.height += grow * 2;
 
     if (r.width > 0 && r.height > 0) {
-      g.draw(r);
+      drawStrokedShape(g, r);
     }
   }
 
@@ -1,5 +1,5 @@
 /*
- * @(#)Figure.java  3.0  2006-01-20
+ * @(#)Figure.java  3.2  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -52,9 +52,29 @@ import java.util.Map;
  * AbstractFigure.
  *
  * @author Werner Randelshofer
- * @version 3.0 2006-01-20 Reworked for J2SE 1.5.
+ * @version 3.2 2026-10-17 Bounds and points can be stored into a given object.
+ * <br>3.1 2026-10-17 Level of detail added.
+ * <br>3.0 2006-01-20 Reworked for J2SE 1.5.
  */
 public interface Figure extends Cloneable, Serializable, DOMStorable {
+  /**
+   * Level of detail: The figure is not drawn.
+   */
+  int DETAIL_NONE = 0;
+  /**
+   * Level of detail: The figure is drawn as a filled box.
+   */
+  int DETAIL_BOX = 1;
+  /**
+   * Level of detail: The figure is drawn without text, decorations and
+   * decorator.
+   */
+  int DETAIL_REDUCED = 2;
+  /**
+   * Level of detail: The figure is drawn completely.
+   */
+  int DETAIL_FULL = 3;
+
   // DRAWING
 
   /**
@@ -64,6 +84,16 @@ public interface Figure extends Cloneable, Serializable, DOMStorable {
    */
   void draw(Graphics2D g);
 
+  /**
+   * Returns the level of detail, with which the figure is drawn, when its
+   * drawing is drawn with the specified scale factor. Small figures can be
+   * drawn with less detail, because their details would cover a pixel or
+   * less.
+   *
+   * @return DETAIL_NONE, DETAIL_BOX, DETAIL_REDUCED or DETAIL_FULL.
+   */
+  int getLevelOfDetail(double scaleFactor);
+
   /**
    * Gets the layer of the figure.
    * The layer is used to determine the z-ordering of a figure inside a
@@ -119,6 +149,14 @@ public interface Figure extends Cloneable, Serializable, DOMStorable {
    */
   Point2D.Double getStartPoint();
 
+  /**
+   * Stores the start point of the bounds into the specified point.
+   *
+   * @return The specified point.
+   * @see #getStartPoint()
+   */
+  Point2D.Double getStartPoint(Point2D.Double p);
+
   /**
    * Returns the end point of the bounds.
    *
@@ -126,6 +164,14 @@ public interface Figure extends Cloneable, Serializable, DOMStorable {
    */
   Point2D.Double getEndPoint();
 
+  /**
+   * Stores the end point of the bounds into the specified point.
+   *
+   * @return The specified point.
+   * @see #getEndPoint()
+   */
+  Point2D.Double getEndPoint(Point2D.Double p);
+
   /**
    * Returns the logical bounds of the figure as a Rectangle.
    * The logical bounds are used by some Handle objects for adjusting the
@@ -133,6 +179,15 @@ public interface Figure extends Cloneable, Serializable, DOMStorable {
    */
   Rectangle2D.Double getBounds();
 
+  /**
+   * Stores the logical bounds of the figure into the specified rectangle.
+   * This avoids allocating a new rectangle in loops over many figures.
+   *
+   * @return The specified rectangle.
+   * @see #getBounds()
+   */
+  Rectangle2D.Double getBounds(Rectangle2D.Double r);
+
   /**
    * Returns the drawing bounding box of the figure and of its decorator figure.
    * This takes line width, line caps and other decorations into account.
@@ -140,6 +195,15 @@ public interface Figure extends Cloneable, Serializable, DOMStorable {
    */
   Rectangle2D.Double getDrawBounds();
 
+  /**
+   * Stores the drawing bounding box of the figure and of its decorator
+   * figure into the specified rectangle.
+   *
+   * @return The specified rectangle.
+   * @see #getDrawBounds()
+   */
+  Rectangle2D.Double getDrawBounds(Rectangle2D.Double r);
+
   /**
    * The preferred size is used by Layouter to determine the preferred
    * size of a Figure. For most Figure's this is the same as the
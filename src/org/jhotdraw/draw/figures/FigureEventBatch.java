@@ -0,0 +1,225 @@
+/*
+ * @(#)FigureEventBatch.java  1.0  2026-10-17
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.draw.figures;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * Defers and merges the figure changed and area invalidated events of
+ * figures, which are changed in a batch operation.
+ * <p>
+ * A batch is opened with {@link #begin} and closed with {@link #end} on the
+ * same thread:
+ * <pre>
+ * FigureEventBatch.begin();
+ * try {
+ *     for (Figure f : figures) {
+ *         f.willChange();
+ *         f.basicTransform(tx);
+ *         f.changed();
+ *     }
+ * } finally {
+ *     FigureEventBatch.end();
+ * }
+ * </pre>
+ * While the batch is open, each figure collects its changed and
+ * invalidated areas. When the outermost batch is closed, each figure fires
+ * a single figure changed event for the union of its areas, or a single
+ * area invalidated event if it has not been changed. Figures, which change
+ * in response to these events, such as connections, are collected again
+ * and notified after them.
+ * <p>
+ * Events of a figure, which are fired while another figure is changing,
+ * are not deferred. Composite figures depend on receiving the events of
+ * their children while they are laying them out.
+ * <p>
+ * Other events, such as attribute changes and undoable edits, are always
+ * fired immediately.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-17 Created.
+ */
+public final class FigureEventBatch {
+  private static final ThreadLocal<FigureEventBatch> current = new ThreadLocal<>();
+  /**
+   * The number of threads with an open batch. Allows to skip the thread
+   * local lookup, when no batch is open.
+   */
+  private static volatile int openCount;
+
+  /**
+   * The number of nested invocations of begin.
+   */
+  private int depth;
+  /**
+   * The number of figures, which are between willChange and changed.
+   */
+  private int changingCount;
+  /**
+   * key = AbstractFigure
+   * value = the deferred events of the figure
+   */
+  private IdentityHashMap<AbstractFigure, Pending> pending = new IdentityHashMap<>();
+  /**
+   * The deferred events in the order of the first event of each figure.
+   */
+  private ArrayList<Pending> order = new ArrayList<>();
+
+  private FigureEventBatch() {
+  }
+
+  /**
+   * Opens a batch on the current thread. Batches may be nested.
+   */
+  public static void begin() {
+    FigureEventBatch batch = current.get();
+    if (batch == null) {
+      batch = new FigureEventBatch();
+      current.set(batch);
+      synchronized (FigureEventBatch.class) {
+        openCount++;
+      }
+    }
+    batch.depth++;
+  }
+
+  /**
+   * Closes a batch on the current thread. Closing the outermost batch
+   * fires the deferred events.
+   *
+   * @throws IllegalStateException if no batch is open.
+   */
+  public static void end() {
+    FigureEventBatch batch = current.get();
+    if (batch == null) {
+      throw new IllegalStateException("No figure event batch is open");
+    }
+    if (--batch.depth == 0) {
+      try {
+        batch.flush();
+      } finally {
+        current.remove();
+        synchronized (FigureEventBatch.class) {
+          openCount--;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns true, if a batch is open on the current thread.
+   */
+  public static boolean isOpen() {
+    return getCurrent() != null;
+  }
+
+  /**
+   * Returns the open batch of the current thread, or null.
+   */
+  static FigureEventBatch getCurrent() {
+    return (openCount == 0) ? null : current.get();
+  }
+
+  /**
+   * Returns true, if the events of the specified figure are deferred.
+   * This is the case, unless a figure other than the specified figure is
+   * changing.
+   */
+  boolean isDeferring(AbstractFigure figure) {
+    return changingCount <= ((figure.changingDepth > 0) ? 1 : 0);
+  }
+
+  /**
+   * Informs that a figure is about to change.
+   */
+  void changeStarted() {
+    changingCount++;
+  }
+
+  /**
+   * Informs that a figure has changed. A figure which has started to
+   * change before the batch was opened may end its change in the batch.
+   */
+  void changeEnded() {
+    if (changingCount > 0) {
+      changingCount--;
+    }
+  }
+
+  void deferFigureChanged(AbstractFigure figure, Rectangle2D.Double changedArea) {
+    Pending p = getPending(figure);
+    if (p.changedArea == null) {
+      p.changedArea = (Rectangle2D.Double) changedArea.clone();
+    } else {
+      p.changedArea.add(changedArea);
+    }
+  }
+
+  void deferAreaInvalidated(AbstractFigure figure, Rectangle2D.Double invalidatedArea) {
+    Pending p = getPending(figure);
+    if (p.invalidatedArea == null) {
+      p.invalidatedArea = (Rectangle2D.Double) invalidatedArea.clone();
+    } else {
+      p.invalidatedArea.add(invalidatedArea);
+    }
+  }
+
+  private Pending getPending(AbstractFigure figure) {
+    Pending p = pending.get(figure);
+    if (p == null) {
+      p = new Pending(figure);
+      pending.put(figure, p);
+      order.add(p);
+    }
+    return p;
+  }
+
+  /**
+   * Fires the deferred events. The batch stays open meanwhile, so that
+   * the events of figures, which change in response, are merged as well.
+   */
+  private void flush() {
+    while (!order.isEmpty()) {
+      ArrayList<Pending> round = order;
+      order = new ArrayList<>();
+      pending = new IdentityHashMap<>();
+      for (Pending p : round) {
+        if (p.changedArea != null) {
+          if (p.invalidatedArea != null) {
+            p.changedArea.add(p.invalidatedArea);
+          }
+          p.figure.dispatchFigureChanged(p.changedArea);
+        } else {
+          p.figure.dispatchAreaInvalidated(p.invalidatedArea);
+        }
+      }
+    }
+  }
+
+  /**
+   * Holds the deferred events of a figure.
+   */
+  private static class Pending {
+    private final AbstractFigure figure;
+    private Rectangle2D.Double changedArea;
+    private Rectangle2D.Double invalidatedArea;
+
+    public Pending(AbstractFigure figure) {
+      this.figure = figure;
+    }
+  }
+}
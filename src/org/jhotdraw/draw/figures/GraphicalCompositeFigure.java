@@ -1,5 +1,5 @@
 /*
- * @(#)GraphicalCompositeFigure.java  2.0  2006-01-14
+ * @(#)GraphicalCompositeFigure.java  2.2  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -60,7 +60,9 @@ import static org.jhotdraw.draw.AttributeKeys.STROKE_PLACEMENT;
  * its contained figures.
  *
  * @author Wolfram Kaiser (original code), Werner Randelshofer (this derived version)
- * @version 2.0 2006-01-14 Changed to support double precision coordinates.
+ * @version 2.2 2026-10-17 Method getFigureDrawBounds(Rectangle2D.Double) added.
+ * <br>2.1 2026-10-17 Method getBounds(Rectangle2D.Double) added.
+ * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 1. December 2003  Derived from JHotDraw 5.4b1.
  */
 public class GraphicalCompositeFigure extends AbstractCompositeFigure {
@@ -150,6 +152,11 @@ public class GraphicalCompositeFigure extends AbstractCompositeFigure {
     return getPresentationFigure().getBounds();
   }
 
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    if (getPresentationFigure() == null) return super.getBounds(r);
+    return getPresentationFigure().getBounds(r);
+  }
+
   public boolean contains(Point2D.Double p) {
     if (getPresentationFigure() != null) {
       return getPresentationFigure().contains(p);
@@ -177,17 +184,17 @@ public class GraphicalCompositeFigure extends AbstractCompositeFigure {
    * encapsulated presentation figure.
    */
   public Rectangle2D.Double getFigureDrawBounds() {
-    Rectangle2D.Double r;
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
+    super.getFigureDrawBounds(r);
     if (getPresentationFigure() != null) {
-      Rectangle2D.Double presentationBounds = getPresentationFigure().getDrawBounds();
-      r = super.getFigureDrawBounds();
       if (r.isEmpty()) {
-        r = presentationBounds;
+        getPresentationFigure().getDrawBounds(r);
       } else {
-        r.add(presentationBounds);
+        r.add(getPresentationFigure().getDrawBounds());
       }
-    } else {
-      r = super.getFigureDrawBounds();
     }
     return r;
   }
@@ -1,5 +1,5 @@
 /*
- * @(#)LabeledLineConnection.java  1.1  2006-02-14
+ * @(#)LabeledLineConnection.java  1.2  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -34,7 +34,8 @@ import java.util.List;
  * A LineConnection with labels.
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-02-14 Do not include labels in logical bounds.
+ * @version 1.2 2026-10-17 Draw bounds can be stored into a given rectangle.
+ * <br>1.1 2006-02-14 Do not include labels in logical bounds.
  * <br>1.0 23. January 2006 Created.
  */
 public class LabeledLineConnectionFigure extends LineConnectionFigure implements CompositeFigure {
@@ -145,8 +146,12 @@ public class LabeledLineConnectionFigure extends LineConnectionFigure implements
   }
 
   public Rectangle2D.Double getFigureDrawBounds() {
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
     if (drawBounds == null) {
-      drawBounds = super.getFigureDrawBounds();
+      drawBounds = super.getFigureDrawBounds(new Rectangle2D.Double());
       for (Figure child : getChildrenFrontToBack()) {
         if (child.isVisible()) {
           Rectangle2D.Double childBounds = child.getDrawBounds();
@@ -156,7 +161,8 @@ public class LabeledLineConnectionFigure extends LineConnectionFigure implements
         }
       }
     }
-    return (Rectangle2D.Double) drawBounds.clone();
+    r.setRect(drawBounds);
+    return r;
   }
 
   public boolean contains(Point2D.Double p) {
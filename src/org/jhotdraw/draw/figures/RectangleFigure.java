@@ -1,5 +1,5 @@
 /*
- * @(#)RectangleFigure.java  2.2  2006-03-23
+ * @(#)RectangleFigure.java  2.4  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -26,7 +26,9 @@ import java.awt.geom.Rectangle2D;
  * RectangleFigure.
  *
  * @author Werner Randelshofer
- * @version 2.2 2006-03-23 Take stroke size into account in method contains.
+ * @version 2.4 2026-10-18 Stroked shapes are cached.
+ * <br>2.3 2026-10-17 Bounds can be stored into a given rectangle.
+ * <br>2.2 2006-03-23 Take stroke size into account in method contains.
  * <br>2.1 2006-03-22 Method getFigureDrawBounds added.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
@@ -61,6 +63,11 @@ public class RectangleFigure extends AttributedFigure {
     return (Rectangle2D.Double) rectangle.clone();
   }
 
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    r.setRect(rectangle);
+    return r;
+  }
+
   protected void drawFill(Graphics2D g) {
     Rectangle2D.Double r = (Rectangle2D.Double) rectangle.clone();
     double grow = AttributeKeys.getPerpendicularFillGrowth(this);
@@ -73,11 +80,15 @@ public class RectangleFigure extends AttributedFigure {
     double grow = AttributeKeys.getPerpendicularDrawGrowth(this);
     Geom.grow(r, grow, grow);
 
-    g.draw(r);
+    drawStrokedShape(g, r);
   }
 
   public Rectangle2D.Double getFigureDrawBounds() {
-    Rectangle2D.Double r = (Rectangle2D.Double) rectangle.clone();
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
+    r.setRect(rectangle);
     double grow = AttributeKeys.getPerpendicularHitGrowth(this) + 1d;
     Geom.grow(r, grow, grow);
     return r;
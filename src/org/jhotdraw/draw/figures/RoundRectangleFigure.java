@@ -1,5 +1,5 @@
 /*
- * @(#)RoundRectangleFigure.java  2.2  2006-06-17
+ * @(#)RoundRectangleFigure.java  2.5  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -35,7 +35,10 @@ import org.jhotdraw.xml.DOMOutput;
  * A Rectangle2D.Double with round corners.
  *
  * @author Werner Randelshofer
- * @version 2.2 2006-06-17 Method chop added.
+ * @version 2.5 2026-10-18 Stroked shapes are cached.
+ * <br>2.4 2026-10-18 Method chop intersects the rounded corners analytically.
+ * <br>2.3 2026-10-17 Bounds can be stored into a given rectangle.
+ * <br>2.2 2006-06-17 Method chop added.
  * 2.1 2006-05-29 Method basicSetBounds did not work for bounds smaller
  * than 1 pixel.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
@@ -64,8 +67,17 @@ public class RoundRectangleFigure extends AttributedFigure {
     return (Rectangle2D.Double) roundrect.getBounds2D();
   }
 
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    r.setRect(roundrect.x, roundrect.y, roundrect.width, roundrect.height);
+    return r;
+  }
+
   public Rectangle2D.Double getFigureDrawBounds() {
-    Rectangle2D.Double r = (Rectangle2D.Double) roundrect.getBounds2D();
+    return getFigureDrawBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getFigureDrawBounds(Rectangle2D.Double r) {
+    r.setRect(roundrect.x, roundrect.y, roundrect.width, roundrect.height);
     double grow = AttributeKeys.getPerpendicularHitGrowth(this);
     Geom.grow(r, grow, grow);
 
@@ -137,7 +149,7 @@ public class RoundRectangleFigure extends AttributedFigure {
     r.arcwidth += grow * 2;
     r.archeight += grow * 2;
     if (r.width > 0 && r.height > 0) {
-      g.draw(r);
+      drawStrokedShape(g, r);
     }
   }
 
@@ -242,22 +254,6 @@ public class RoundRectangleFigure extends AttributedFigure {
     outer.width += grow * 2;
     outer.height += grow * 2;
 
-    Rectangle2D.Double inner = (Rectangle2D.Double) outer.clone();
-    double gw = -(getArcWidth() + grow * 2) / 2;
-    double gh = -(getArcHeight() + grow * 2) / 2;
-    inner.x -= gw;
-    inner.y -= gh;
-    inner.width += gw * 2;
-    inner.height += gh * 2;
-
-    double angle = Geom.pointToAngle(outer, from);
-    Point2D.Double p = Geom.angleToPoint(outer, Geom.pointToAngle(outer, from));
-
-    if (p.x == outer.x || p.x == outer.x + outer.width) {
-      p.y = Math.min(Math.max(p.y, inner.y), inner.y + inner.height);
-    } else {
-      p.x = Math.min(Math.max(p.x, inner.x), inner.x + inner.width);
-    }
-    return p;
+    return Geom.chopRoundRect(outer, getArcWidth() + grow * 2, getArcHeight() + grow * 2, from);
   }
 }
@@ -1,5 +1,5 @@
 /*
- * @(#)TextAreaFigure.java  2.0.1  2006-02-27
+ * @(#)TextAreaFigure.java  2.3  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -24,21 +24,14 @@ import org.jhotdraw.xml.DOMInput;
 import org.jhotdraw.xml.DOMOutput;
 
 import java.awt.*;
-import java.awt.font.LineBreakMeasurer;
-import java.awt.font.TextAttribute;
-import java.awt.font.TextLayout;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
-import java.text.AttributedCharacterIterator;
-import java.text.AttributedString;
-import java.text.CharacterIterator;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.StringTokenizer;
 
 import static org.jhotdraw.draw.AttributeKeys.*;
 
@@ -66,7 +59,11 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  *
  * @author Eduardo Francos - InContext (original version),
  * Werner Randelshofer (this derived version)
- * @version 2.0.1 2006-02-27 Draw UNDERLINE_LOW_ONE_PIXEL instead of UNDERLINE_ON.
+ * @version 2.3 2026-10-18 Text is left out, when the font is projected to
+ * a few pixels only.
+ * <br>2.2 2026-10-17 Bounds can be stored into a given rectangle.
+ * <br>2.1 2026-10-17 Wrapped text is shared with TextLayoutCache.
+ * <br>2.0.1 2006-02-27 Draw UNDERLINE_LOW_ONE_PIXEL instead of UNDERLINE_ON.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 5. März 2004  Created.
  */
@@ -77,7 +74,8 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
   private static final BasicStroke dashes = new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0f, new float[]{4f, 4f}, 0f);
 
   // cache of the TextFigure's layout
-  private transient TextLayout textLayout;
+  private transient TextLayoutCache.WrappedText wrappedText;
+  private transient TextLayoutCache.Key wrappedTextKey;
 
   /**
    * Creates a new instance.
@@ -109,7 +107,6 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
     bounds.y = Math.min(anchor.y, lead.y);
     bounds.width = Math.max(1, Math.abs(lead.x - anchor.x));
     bounds.height = Math.max(1, Math.abs(lead.y - anchor.y));
-    textLayout = null;
   }
 
   public void basicTransform(AffineTransform tx) {
@@ -135,47 +132,33 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
     return 8;
   }
 
+  /**
+   * Leaves out the text, when the font is projected to a few pixels only.
+   */
+  @Override
+  public int getLevelOfDetail(double scaleFactor) {
+    return reduceTextLevelOfDetail(super.getLevelOfDetail(scaleFactor), scaleFactor);
+  }
+
   protected void drawText(Graphics2D g) {
     if (getText() == null && !isEditable()) {
       return;
     }
     Font font = getFont();
-    boolean isUnderlined = FONT_UNDERLINED.get(this);
     Insets2DDouble insets = getInsets();
     Rectangle2D.Double textRect = new Rectangle2D.Double(bounds.x + insets.left, bounds.y + insets.top, bounds.width - insets.left - insets.right, bounds.height - insets.top - insets.bottom);
-    float leftMargin = (float) textRect.x;
-    float rightMargin = (float) Math.max(leftMargin + 1, textRect.x + textRect.width);
     float verticalPos = (float) textRect.y;
-    if (leftMargin < rightMargin) {
+    if (getText() != null) {
       float tabWidth = (getTabSize() * g.getFontMetrics(font).charWidth('m'));
-      float[] tabStops = new float[(int) (textRect.width / tabWidth)];
-      for (int i = 0; i < tabStops.length; i++) {
-        tabStops[i] = (float) (textRect.x + (int) (tabWidth * (i + 1)));
-      }
-
-      if (getText() != null) {
-        Shape savedClipArea = g.getClip();
-        g.clip(textRect);
-
-        String[] paragraphs = getText().split("\n");
-        for (int i = 0; i < paragraphs.length; i++) {
-          if (paragraphs[i].isEmpty()) paragraphs[i] = " ";
-          AttributedString as = new AttributedString(paragraphs[i]);
-          as.addAttribute(TextAttribute.FONT, font);
-          if (isUnderlined) {
-            as.addAttribute(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
-          }
-          int tabCount = new StringTokenizer(paragraphs[i], "\t").countTokens() - 1;
-          verticalPos = drawParagraph(g, as.getIterator(), verticalPos, leftMargin, rightMargin, tabStops, tabCount);
-          if (verticalPos > textRect.y + textRect.height) {
-            break;
-          }
-        }
-        g.setClip(savedClipArea);
-      }
+      TextLayoutCache.WrappedText text = getWrappedText(font, (float) textRect.width, tabWidth);
+      Shape savedClipArea = g.getClip();
+      g.clip(textRect);
+      text.draw(g, (float) textRect.x, (float) textRect.y, (float) (textRect.y + textRect.height));
+      g.setClip(savedClipArea);
+      verticalPos += text.getHeight();
     }
 
-    if (leftMargin >= rightMargin || verticalPos > textRect.y + textRect.height) {
+    if (verticalPos > textRect.y + textRect.height) {
       g.setColor(Color.red);
       g.setStroke(dashes);
       g.draw(new Line2D.Double(textRect.x, textRect.y + textRect.height - 1, textRect.x + textRect.width - 1, textRect.y + textRect.height - 1));
@@ -183,100 +166,19 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
   }
 
   /**
-   * Draws a paragraph of text at the specified y location and returns
-   * the y position for the next paragraph.
+   * Returns the text broken into lines. The lines are taken from the shared
+   * TextLayoutCache, when the text, the font, the width or the
+   * FontRenderContext have changed.
    */
-  private float drawParagraph(Graphics2D g, AttributedCharacterIterator styledText, float verticalPos, float leftMargin, float rightMargin, float[] tabStops, int tabCount) {
-
-    // assume styledText is an AttributedCharacterIterator, and the number
-    // of tabs in styledText is tabCount
-
-    int[] tabLocations = new int[tabCount + 1];
-
-    int i = 0;
-    for (char c = styledText.first(); c != CharacterIterator.DONE; c = styledText.next()) {
-      if (c == '\t') {
-        tabLocations[i++] = styledText.getIndex();
-      }
-    }
-    tabLocations[tabCount] = styledText.getEndIndex() - 1;
-
-    // Now tabLocations has an entry for every tab's offset in
-    // the text.  For convenience, the last entry is tabLocations
-    // is the offset of the last character in the text.
-
-    LineBreakMeasurer measurer = new LineBreakMeasurer(styledText, getFontRenderContext());
-    int currentTab = 0;
-
-    while (measurer.getPosition() < styledText.getEndIndex()) {
-
-      /*
-       * Lay out and draw each line.  All segments on a line
-       * must be computed before any drawing can occur, since
-       * we must know the largest ascent on the line.
-       * TextLayouts are computed and stored in a List;
-       * their horizontal positions are stored in a parallel
-       * List.
-       */
-      // lineContainsText is true after first segment is drawn
-      boolean lineContainsText = false;
-      boolean lineComplete = false;
-      float maxAscent = 0;
-      float maxDescent = 0;
-      float horizontalPos = leftMargin;
-      LinkedList<TextLayout> layouts = new LinkedList<>();
-      LinkedList<Float> penPositions = new LinkedList<>();
-
-      while (!lineComplete) {
-        float wrappingWidth = rightMargin - horizontalPos;
-        TextLayout layout;
-        layout = measurer.nextLayout(wrappingWidth, tabLocations[currentTab] + 1, lineContainsText);
-
-        // layout can be null if lineContainsText is true
-        if (layout != null) {
-          layouts.add(layout);
-          penPositions.add(horizontalPos);
-          horizontalPos += layout.getAdvance();
-          maxAscent = Math.max(maxAscent, layout.getAscent());
-          maxDescent = Math.max(maxDescent, layout.getDescent() + layout.getLeading());
-        } else {
-          lineComplete = true;
-        }
-
-        lineContainsText = true;
-
-        if (measurer.getPosition() == tabLocations[currentTab] + 1) {
-          currentTab++;
-        }
-
-        if (measurer.getPosition() == styledText.getEndIndex()) lineComplete = true;
-        else if (tabStops.length == 0 || horizontalPos >= tabStops[tabStops.length - 1]) lineComplete = true;
-
-        if (!lineComplete) {
-          // move to next tab stop
-          int j;
-          for (j = 0; horizontalPos >= tabStops[j]; j++) {
-          }
-          horizontalPos = tabStops[j];
-        }
-      }
-
-      verticalPos += maxAscent;
-
-      Iterator<TextLayout> layoutEnum = layouts.iterator();
-      Iterator<Float> positionEnum = penPositions.iterator();
-
-      // now iterate through layouts and draw them
-      while (layoutEnum.hasNext()) {
-        TextLayout nextLayout = layoutEnum.next();
-        float nextPosition = positionEnum.next();
-        nextLayout.draw(g, nextPosition, verticalPos);
-      }
-
-      verticalPos += maxDescent;
+  private TextLayoutCache.WrappedText getWrappedText(Font font, float wrappingWidth, float tabWidth) {
+    String text = getText();
+    boolean isUnderlined = FONT_UNDERLINED.get(this);
+    FontRenderContext frc = getFontRenderContext();
+    if (wrappedText == null || !wrappedTextKey.matches(text, font, isUnderlined, frc, wrappingWidth, tabWidth)) {
+      wrappedTextKey = new TextLayoutCache.Key(text, font, isUnderlined, frc, wrappingWidth, tabWidth);
+      wrappedText = TextLayoutCache.getInstance().getWrappedText(wrappedTextKey);
     }
-
-    return verticalPos;
+    return wrappedText;
   }
 
   protected void drawFill(Graphics2D g) {
@@ -291,6 +193,11 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
     return (Rectangle2D.Double) bounds.getBounds2D();
   }
 
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    r.setRect(bounds);
+    return r;
+  }
+
   public Collection<Handle> createHandles(int detailLevel) {
     LinkedList<org.jhotdraw.draw.handlers.Handle> handles = (LinkedList<org.jhotdraw.draw.handlers.Handle>) super.createHandles(detailLevel);
     if (detailLevel == 0) {
@@ -299,11 +206,6 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
     return handles;
   }
 
-  protected void validate() {
-    super.validate();
-    textLayout = null;
-  }
-
   public boolean isEditable() {
     return editable;
   }
@@ -341,7 +243,6 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
   public void read(DOMInput in) throws IOException {
     readBounds(in);
     readAttributes(in);
-    textLayout = null;
   }
 
   public void write(DOMOutput out) throws IOException {
@@ -352,6 +253,8 @@ public class TextAreaFigure extends AttributedFigure implements TextHolder {
   public TextAreaFigure clone() {
     TextAreaFigure that = (TextAreaFigure) super.clone();
     that.bounds = (Rectangle2D.Double) this.bounds.clone();
+    that.wrappedText = null;
+    that.wrappedTextKey = null;
     return that;
   }
 
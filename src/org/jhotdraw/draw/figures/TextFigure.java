@@ -1,5 +1,5 @@
 /*
- * @(#)TextFigure.java  1.0.1  2006-02-27
+ * @(#)TextFigure.java  2.3  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -29,14 +29,12 @@ import org.jhotdraw.xml.DOMOutput;
 
 import java.awt.*;
 import java.awt.font.FontRenderContext;
-import java.awt.font.TextAttribute;
 import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.LinkedList;
 
 import static org.jhotdraw.draw.AttributeKeys.*;
@@ -45,7 +43,11 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * A text figure.
  *
  * @author Werner Randelshofer
- * @version 2.0.1 2006-02-27 Draw UNDERLINE_LOW_ONE_PIXEL instead of UNDERLINE_ON.
+ * @version 2.3 2026-10-18 Text is left out, when the font is projected to
+ * a few pixels only.
+ * <br>2.2 2026-10-17 Bounds can be stored into a given rectangle.
+ * <br>2.1 2026-10-17 Text layouts are shared with TextLayoutCache.
+ * <br>2.0.1 2006-02-27 Draw UNDERLINE_LOW_ONE_PIXEL instead of UNDERLINE_ON.
  * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  * @see TextTool
@@ -56,6 +58,7 @@ public class TextFigure extends AttributedFigure implements TextHolder {
 
   // cache of the TextFigure's layout
   private transient TextLayout textLayout;
+  private transient TextLayoutCache.Key textLayoutKey;
 
   public TextFigure() {
     this("Text");
@@ -106,6 +109,14 @@ public class TextFigure extends AttributedFigure implements TextHolder {
     // TODO document why this method is empty
   }
 
+  /**
+   * Leaves out the text, when the font is projected to a few pixels only.
+   */
+  @Override
+  public int getLevelOfDetail(double scaleFactor) {
+    return reduceTextLevelOfDetail(super.getLevelOfDetail(scaleFactor), scaleFactor);
+  }
+
   @Override
   protected void drawText(Graphics2D g) {
     if (getText() != null || isEditable()) {
@@ -114,33 +125,34 @@ public class TextFigure extends AttributedFigure implements TextHolder {
     }
   }
 
-  @Override
-  public void invalidate() {
-    super.invalidate();
-    textLayout = null;
-  }
-
+  /**
+   * Returns the layout of the text. The layout is taken from the shared
+   * TextLayoutCache, when the text, the font or the FontRenderContext
+   * have changed.
+   */
   protected TextLayout getTextLayout() {
-    if (textLayout == null) {
-      String text = getText();
-      if (text == null || text.isEmpty()) {
-        text = " ";
-      }
-
-      FontRenderContext frc = getFontRenderContext();
-      HashMap<TextAttribute, Object> textAttributes = new HashMap<>();
-      textAttributes.put(TextAttribute.FONT, getFont());
-      if (Boolean.TRUE.equals(FONT_UNDERLINED.get(this))) {
-        textAttributes.put(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
-      }
-      textLayout = new TextLayout(text, textAttributes, frc);
+    String text = getText();
+    if (text == null || text.isEmpty()) {
+      text = " ";
+    }
+    Font font = getFont();
+    boolean isUnderlined = Boolean.TRUE.equals(FONT_UNDERLINED.get(this));
+    FontRenderContext frc = getFontRenderContext();
+    if (textLayout == null || !textLayoutKey.matches(text, font, isUnderlined, frc)) {
+      textLayoutKey = new TextLayoutCache.Key(text, font, isUnderlined, frc);
+      textLayout = TextLayoutCache.getInstance().getTextLayout(textLayoutKey);
     }
     return textLayout;
   }
 
   public Rectangle2D.Double getBounds() {
+    return getBounds(new Rectangle2D.Double());
+  }
+
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
     TextLayout layout = getTextLayout();
-    return new Rectangle2D.Double(origin.x, origin.y, layout.getAdvance(), layout.getAscent() + layout.getDescent());
+    r.setRect(origin.x, origin.y, layout.getAdvance(), layout.getAscent() + layout.getDescent());
+    return r;
   }
 
   @Override
@@ -178,12 +190,6 @@ public class TextFigure extends AttributedFigure implements TextHolder {
     return handles;
   }
 
-  @Override
-  protected void validate() {
-    super.validate();
-    textLayout = null;
-  }
-
   public boolean isEditable() {
     return editable;
   }
@@ -248,6 +254,7 @@ public class TextFigure extends AttributedFigure implements TextHolder {
     TextFigure that = (TextFigure) super.clone();
     that.origin = (Point2D.Double) this.origin.clone();
     that.textLayout = null;
+    that.textLayoutKey = null;
     return that;
   }
 
@@ -0,0 +1,383 @@
+/*
+ * @(#)TextLayoutCache.java  1.0  2026-10-17
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.draw.figures;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.text.CharacterIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded cache of laid out text, which is shared by all text
+ * figures.
+ * <p>
+ * Shaping text with TextLayout and LineBreakMeasurer is expensive. Equal
+ * texts, which are laid out with the same font, wrapping width, tab width
+ * and FontRenderContext, are laid out only once. The least recently used
+ * layouts are discarded, when the cache holds more than the maximal number
+ * of entries.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-17 Created.
+ */
+public class TextLayoutCache {
+  /**
+   * The maximal number of entries of the shared instance.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+  private static TextLayoutCache instance;
+
+  private final int maxEntries;
+  /**
+   * key = Key
+   * value = TextLayout or WrappedText
+   */
+  private final LinkedHashMap<Key, Object> entries;
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxEntries The maximal number of entries.
+   */
+  public TextLayoutCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+    entries = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+        return size() > TextLayoutCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Returns the instance, which is shared by all text figures.
+   */
+  public static synchronized TextLayoutCache getInstance() {
+    if (instance == null) {
+      instance = new TextLayoutCache(DEFAULT_MAX_ENTRIES);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns a single line layout of the text of the specified key.
+   */
+  public synchronized TextLayout getTextLayout(Key key) {
+    TextLayout layout = (TextLayout) entries.get(key);
+    if (layout == null) {
+      missCount++;
+      layout = new TextLayout(key.text, key.getTextAttributes(), key.frc);
+      entries.put(key, layout);
+    } else {
+      hitCount++;
+    }
+    return layout;
+  }
+
+  /**
+   * Returns the text of the specified key broken into lines, which fit
+   * into the wrapping width of the key.
+   */
+  public synchronized WrappedText getWrappedText(Key key) {
+    WrappedText text = (WrappedText) entries.get(key);
+    if (text == null) {
+      missCount++;
+      text = new WrappedText(key);
+      entries.put(key, text);
+    } else {
+      hitCount++;
+    }
+    return text;
+  }
+
+  /**
+   * Returns the number of requests, which were answered from the cache.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of requests, which required to lay out text.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of entries in the cache.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Discards all entries and resets the hit and miss counts.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    hitCount = 0;
+    missCount = 0;
+  }
+
+  /**
+   * Identifies laid out text.
+   * <p>
+   * A figure can keep the key of its last layout, and check with
+   * {@code matches} whether the layout is still valid. This check compares
+   * the text and the font by identity, so that it does not need to compute
+   * hash codes.
+   */
+  public static final class Key {
+    private final String text;
+    private final Font font;
+    private final boolean isUnderlined;
+    private final FontRenderContext frc;
+    /**
+     * The wrapping width, or -1 if the text is laid out in a single line.
+     */
+    private final float wrappingWidth;
+    private final float tabWidth;
+    private final int hash;
+
+    /**
+     * Creates a key for a single line of text.
+     */
+    public Key(String text, Font font, boolean isUnderlined, FontRenderContext frc) {
+      this(text, font, isUnderlined, frc, -1f, 0f);
+    }
+
+    /**
+     * Creates a key for text, which is broken into lines.
+     *
+     * @param wrappingWidth The width of the lines.
+     * @param tabWidth      The distance between two tab stops.
+     */
+    public Key(String text, Font font, boolean isUnderlined, FontRenderContext frc, float wrappingWidth, float tabWidth) {
+      this.text = text;
+      this.font = font;
+      this.isUnderlined = isUnderlined;
+      this.frc = frc;
+      this.wrappingWidth = wrappingWidth;
+      this.tabWidth = tabWidth;
+      int h = text.hashCode();
+      h = h * 31 + font.hashCode();
+      h = h * 31 + (isUnderlined ? 1 : 0);
+      h = h * 31 + frc.hashCode();
+      h = h * 31 + Float.floatToIntBits(wrappingWidth);
+      h = h * 31 + Float.floatToIntBits(tabWidth);
+      hash = h;
+    }
+
+    /**
+     * Returns true if this key identifies the layout of a single line of
+     * the specified text.
+     */
+    public boolean matches(String text, Font font, boolean isUnderlined, FontRenderContext frc) {
+      return matches(text, font, isUnderlined, frc, -1f, 0f);
+    }
+
+    /**
+     * Returns true if this key identifies the layout of the specified text
+     * broken into lines.
+     */
+    public boolean matches(String text, Font font, boolean isUnderlined, FontRenderContext frc, float wrappingWidth, float tabWidth) {
+      return this.text == text && this.font == font && this.isUnderlined == isUnderlined &&
+          this.wrappingWidth == wrappingWidth && this.tabWidth == tabWidth && this.frc.equals(frc);
+    }
+
+    private Map<TextAttribute, Object> getTextAttributes() {
+      HashMap<TextAttribute, Object> textAttributes = new HashMap<>();
+      textAttributes.put(TextAttribute.FONT, font);
+      if (isUnderlined) {
+        textAttributes.put(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
+      }
+      return textAttributes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return that.hash == this.hash && that.isUnderlined == this.isUnderlined &&
+          Float.floatToIntBits(that.wrappingWidth) == Float.floatToIntBits(this.wrappingWidth) &&
+          Float.floatToIntBits(that.tabWidth) == Float.floatToIntBits(this.tabWidth) &&
+          that.text.equals(this.text) && that.font.equals(this.font) && that.frc.equals(this.frc);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Text which has been broken into lines and tab separated segments.
+   * The positions of the segments are relative to the top left corner of
+   * the text.
+   */
+  public static final class WrappedText {
+    private final ArrayList<TextLayout> layouts = new ArrayList<>();
+    /**
+     * x = the horizontal position of a segment
+     * y = the baseline of a segment
+     */
+    private float[] positions = new float[16];
+    private float height;
+
+    private WrappedText(Key key) {
+      float[] tabStops = new float[Math.max(0, (int) (key.wrappingWidth / key.tabWidth))];
+      for (int i = 0; i < tabStops.length; i++) {
+        tabStops[i] = (int) (key.tabWidth * (i + 1));
+      }
+      float rightMargin = Math.max(1f, key.wrappingWidth);
+      for (String paragraph : key.text.split("\n")) {
+        if (paragraph.isEmpty()) {
+          paragraph = " ";
+        }
+        AttributedString as = new AttributedString(paragraph, key.getTextAttributes());
+        height = addParagraph(as.getIterator(), key.frc, height, rightMargin, tabStops);
+      }
+    }
+
+    /**
+     * Lays out a paragraph of text at the specified y location and returns
+     * the y position for the next paragraph.
+     */
+    private float addParagraph(AttributedCharacterIterator styledText, FontRenderContext frc, float verticalPos, float rightMargin, float[] tabStops) {
+      // Collect the offsets of the tabs in the text. For convenience, the
+      // last entry is the offset of the last character in the text.
+      int tabCount = 0;
+      for (char c = styledText.first(); c != CharacterIterator.DONE; c = styledText.next()) {
+        if (c == '\t') {
+          tabCount++;
+        }
+      }
+      int[] tabLocations = new int[tabCount + 1];
+      int i = 0;
+      for (char c = styledText.first(); c != CharacterIterator.DONE; c = styledText.next()) {
+        if (c == '\t') {
+          tabLocations[i++] = styledText.getIndex();
+        }
+      }
+      tabLocations[tabCount] = styledText.getEndIndex() - 1;
+
+      LineBreakMeasurer measurer = new LineBreakMeasurer(styledText, frc);
+      int currentTab = 0;
+
+      while (measurer.getPosition() < styledText.getEndIndex()) {
+        // All segments of a line must be laid out, before the baseline of
+        // the line is known.
+        boolean lineContainsText = false;
+        boolean lineComplete = false;
+        float maxAscent = 0;
+        float maxDescent = 0;
+        float horizontalPos = 0;
+        int firstSegment = layouts.size();
+
+        while (!lineComplete) {
+          float wrappingWidth = rightMargin - horizontalPos;
+          TextLayout layout = measurer.nextLayout(wrappingWidth, tabLocations[currentTab] + 1, lineContainsText);
+
+          // layout can be null if lineContainsText is true
+          if (layout != null) {
+            addSegment(layout, horizontalPos);
+            horizontalPos += layout.getAdvance();
+            maxAscent = Math.max(maxAscent, layout.getAscent());
+            maxDescent = Math.max(maxDescent, layout.getDescent() + layout.getLeading());
+          } else {
+            lineComplete = true;
+          }
+
+          lineContainsText = true;
+
+          if (measurer.getPosition() == tabLocations[currentTab] + 1) {
+            currentTab++;
+          }
+
+          if (measurer.getPosition() == styledText.getEndIndex()) lineComplete = true;
+          else if (tabStops.length == 0 || horizontalPos >= tabStops[tabStops.length - 1]) lineComplete = true;
+
+          if (!lineComplete) {
+            // move to next tab stop
+            int j;
+            for (j = 0; horizontalPos >= tabStops[j]; j++) {
+            }
+            horizontalPos = tabStops[j];
+          }
+        }
+
+        verticalPos += maxAscent;
+        for (int s = firstSegment, n = layouts.size(); s < n; s++) {
+          positions[s * 2 + 1] = verticalPos;
+        }
+        verticalPos += maxDescent;
+      }
+      return verticalPos;
+    }
+
+    private void addSegment(TextLayout layout, float x) {
+      int index = layouts.size();
+      if (positions.length < index * 2 + 2) {
+        float[] grown = new float[positions.length * 2];
+        System.arraycopy(positions, 0, grown, 0, positions.length);
+        positions = grown;
+      }
+      layouts.add(layout);
+      positions[index * 2] = x;
+    }
+
+    /**
+     * Returns the height of all lines.
+     */
+    public float getHeight() {
+      return height;
+    }
+
+    /**
+     * Draws the lines, whose top is above the specified limit.
+     *
+     * @param x    The left side of the text.
+     * @param y    The top of the text.
+     * @param maxY The limit below which no lines are drawn.
+     */
+    public void draw(Graphics2D g, float x, float y, float maxY) {
+      for (int i = 0, n = layouts.size(); i < n; i++) {
+        TextLayout layout = layouts.get(i);
+        float baseline = y + positions[i * 2 + 1];
+        if (baseline - layout.getAscent() > maxY) {
+          break;
+        }
+        layout.draw(g, x + positions[i * 2], baseline);
+      }
+    }
+  }
+}
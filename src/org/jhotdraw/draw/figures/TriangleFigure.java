@@ -1,5 +1,5 @@
 /*
- * @(#)TriangleFigure.java  1.0  2006-03-27
+ * @(#)TriangleFigure.java  1.2  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -38,7 +38,9 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * and apex at any of 8 places
  *
  * @author Werner Randelshofer
- * @version 1.0 2006-03-27 Created.
+ * @version 1.2 2026-10-18 Stroked shapes are cached.
+ * <br>1.1 2026-10-17 Bounds can be stored into a given rectangle.
+ * <br>1.0 2006-03-27 Created.
  */
 
 public class TriangleFigure extends AttributedFigure {
@@ -105,6 +107,11 @@ public class TriangleFigure extends AttributedFigure {
     return (Rectangle2D.Double) rectangle.clone();
   }
 
+  public Rectangle2D.Double getBounds(Rectangle2D.Double r) {
+    r.setRect(rectangle);
+    return r;
+  }
+
   protected void drawFill(Graphics2D g) {
     Rectangle2D.Double r = (Rectangle2D.Double) rectangle.clone();
 
@@ -127,7 +134,7 @@ public class TriangleFigure extends AttributedFigure {
       triangle = gs.createStrokedShape(triangle);
     }
 
-    g.draw(triangle);
+    drawStrokedShape(g, triangle);
   }
 
   public Collection<Handle> createHandles(int detailLevel) {
@@ -1,5 +1,5 @@
 /*
- * @(#)BezierTool.java  1.1  2006-07-12
+ * @(#)BezierTool.java  1.2  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -19,6 +19,7 @@ import org.jhotdraw.draw.editors.DrawingEditor;
 import org.jhotdraw.draw.figures.BezierFigure;
 import org.jhotdraw.draw.figures.Figure;
 import org.jhotdraw.geom.Bezier;
+import org.jhotdraw.geom.BezierFitter;
 import org.jhotdraw.geom.BezierPath;
 import org.jhotdraw.geom.Geom;
 import org.jhotdraw.undo.CompositeEdit;
@@ -32,7 +33,9 @@ import java.util.Map;
  * Tool to scribble a BezierFigure
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-07-12 Extended support for subclassing.
+ * @version 1.2 2026-10-18 Fits the points with a BezierFitter while the
+ * mouse is being dragged.
+ * <br>1.1 2006-07-12 Extended support for subclassing.
  * <br>1.0 2006-01-21 Created.
  */
 public class BezierTool extends AbstractTool {
@@ -51,6 +54,12 @@ public class BezierTool extends AbstractTool {
 
   private int nodeCountBeforeDrag;
 
+  /**
+   * Fits the nodes, which are added while the mouse is being dragged.
+   * This is null, when the mouse is not pressed.
+   */
+  private BezierFitter fitter;
+
   /**
    * Creates a new instance.
    */
@@ -96,6 +105,7 @@ public class BezierTool extends AbstractTool {
 
   public void mousePressed(MouseEvent evt) {
     super.mousePressed(evt);
+    fitter = null;
     if (createdFigure == null) {
       finishWhenMouseReleased = null;
 
@@ -105,11 +115,18 @@ public class BezierTool extends AbstractTool {
       createdFigure.addNode(new BezierPath.Node(getView().getConstrainer().constrainPoint(getView().viewToDrawing(anchor))));
       getDrawing().add(createdFigure);
       nodeCountBeforeDrag = createdFigure.getNodeCount();
+
+      // If the figure is finished when the mouse is released, its first
+      // node is fitted as well.
+      Point2D.Double startPoint = createdFigure.getStartPoint();
+      fitter = new BezierFitter(1);
+      fitter.addPoint(startPoint.x, startPoint.y);
     } else {
       if (evt.getClickCount() == 1) {
         addPointToFigure(getView().getConstrainer().constrainPoint(getView().viewToDrawing(anchor)));
       }
       nodeCountBeforeDrag = createdFigure.getNodeCount();
+      fitter = new BezierFitter(1);
     }
   }
 
@@ -138,6 +155,9 @@ public class BezierTool extends AbstractTool {
     createdFigure.willChange();
     if (pointCount < 2) {
       createdFigure.basicAddNode(new BezierPath.Node(newPoint));
+      if (fitter != null) {
+        fitter.addPoint(newPoint.x, newPoint.y);
+      }
     } else {
       Point2D.Double endPoint = createdFigure.getEndPoint();
       Point2D.Double secondLastPoint = (pointCount <= 1) ? endPoint : createdFigure.getPoint(pointCount - 2, 0);
@@ -145,8 +165,14 @@ public class BezierTool extends AbstractTool {
         // nothing to do
       } else if (pointCount > 1 && Geom.lineContainsPoint(newPoint.x, newPoint.y, secondLastPoint.x, secondLastPoint.y, endPoint.x, endPoint.y, 0.9f / getView().getScaleFactor())) {
         createdFigure.basicSetPoint(pointCount - 1, 0, newPoint);
+        if (fitter != null && fitter.getPointCount() > 0) {
+          fitter.setLastPoint(newPoint.x, newPoint.y);
+        }
       } else {
         createdFigure.basicAddNode(new BezierPath.Node(newPoint));
+        if (fitter != null) {
+          fitter.addPoint(newPoint.x, newPoint.y);
+        }
       }
     }
     createdFigure.changed();
@@ -186,9 +212,17 @@ public class BezierTool extends AbstractTool {
   }
 
   public void mouseReleased(MouseEvent evt) {
+    BezierFitter fitter = this.fitter;
+    this.fitter = null;
     if (finishWhenMouseReleased == Boolean.TRUE) {
       if (createdFigure.getNodeCount() > 2) {
-        BezierPath fittedPath = Bezier.fitBezierCurve(createdFigure.getBezierPath(), 1);
+        BezierPath fittedPath;
+        if (fitter != null && fitter.getPointCount() == createdFigure.getNodeCount()) {
+          fittedPath = fitter.fit();
+          fittedPath.setClosed(createdFigure.isClosed());
+        } else {
+          fittedPath = Bezier.fitBezierCurve(createdFigure.getBezierPath(), 1);
+        }
         createdFigure.willChange();
         createdFigure.basicSetBezierPath(fittedPath);
         createdFigure.changed();
@@ -210,7 +244,11 @@ public class BezierTool extends AbstractTool {
         fittedPath.add(createdFigure.getNode(nodeCountBeforeDrag));
         createdFigure.basicRemoveNode(nodeCountBeforeDrag);
       }
-      fittedPath = Bezier.fitBezierCurve(fittedPath, 1);
+      if (fitter != null && fitter.getPointCount() == fittedPath.size()) {
+        fittedPath = fitter.fit();
+      } else {
+        fittedPath = Bezier.fitBezierCurve(fittedPath, 1);
+      }
       for (BezierPath.Node node : fittedPath) {
         createdFigure.basicAddNode(node);
       }
@@ -1,5 +1,5 @@
 /*
- * @(#)DragTracker.java  2.0  2006-01-14
+ * @(#)DragTracker.java  2.1  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -30,7 +30,9 @@ import java.util.LinkedList;
  * DragTracker.
  *
  * @author Werner Randelshofer
- * @version 2.0 2006-01-14 Changed to support double precision coordinates.
+ * @version 2.1 2026-10-17 Bounds of the selected figures are queried without
+ * allocating a rectangle for each figure.
+ * <br>2.0 2006-01-14 Changed to support double precision coordinates.
  * <br>1.0 2003-12-01 Derived from JHotDraw 5.4b1.
  */
 public class DragTracker extends AbstractTool {
@@ -66,8 +68,9 @@ public class DragTracker extends AbstractTool {
     }
 
     Point2D.Double origin = new Point2D.Double(Double.MAX_VALUE, Double.MAX_VALUE);
+    Rectangle2D.Double b = new Rectangle2D.Double();
     for (Figure f : view.getSelectedFigures()) {
-      Rectangle2D.Double b = f.getBounds();
+      f.getBounds(b);
       origin.x = Math.min(origin.x, b.x);
       origin.y = Math.min(origin.y, b.y);
     }
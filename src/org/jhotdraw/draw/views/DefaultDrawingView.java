@@ -58,7 +58,11 @@ import java.util.List;
  * DefaultDrawingView.
  *
  * @author Werner Randelshofer
- * @version 3.0.2 2006-07-03 Constrainer must be a bound property.
+ * @version 3.2.1 2026-10-18 Tell the tile cache the size of the visible area.
+ * <br>3.2 2026-10-17 Pass the scale factor to the drawing.
+ * <br>3.1 2026-10-17 Added tile caching. Coalesce invalidated
+ * areas, and take the drawing extent from the draw bounds of the drawing.
+ * <br>3.0.2 2006-07-03 Constrainer must be a bound property.
  * <br>3.0.1 2006-06-11 Draw handles when this DrawingView is the focused
  * drawing view of the DrawingEditor.
  * <br>3.0 2006-02-17 Reworked to support multiple drawing views in a
@@ -80,6 +84,18 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
   private LinkedList<Handle> secondaryHandles = new LinkedList<>();
   private boolean handlesAreValid = true;
   private Dimension preferredSize;
+  /**
+   * The draw bounds of the drawing, from which the preferred size has been
+   * computed. This is null, if the preferred size needs to be computed
+   * again.
+   */
+  private Rectangle2D.Double drawingBounds;
+  /**
+   * The union of the areas, which have been invalidated by the drawing
+   * since the last flush. This is null, if there is no invalidated area.
+   */
+  private Rectangle2D.Double invalidatedArea;
+  private boolean isFlushPending;
   private double scaleFactor = 1;
   private Point2D.Double translate = new Point2D.Double(0, 0);
   private int detailLevel;
@@ -87,6 +103,11 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
   private DrawingEditor editor;
   private Constrainer constrainer = new GridConstrainer(1, 1);
   private JLabel emptyDrawingLabel;
+  /**
+   * Holds the rendered figures, if tile caching is enabled.
+   * This is null, if tile caching is disabled.
+   */
+  private DrawingTileCache tileCache;
   //private boolean hasPermanentFocus;
 
   /**
@@ -144,6 +165,25 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
     return (emptyDrawingLabel == null) ? null : emptyDrawingLabel.getText();
   }
 
+  /**
+   * Sets whether the figures are rendered into cached tiles.
+   * <p>
+   * With tile caching, a repaint only renders the figures in the tiles,
+   * which intersect an area invalidated by the drawing. Repaints caused by
+   * handles, tools, selection changes or scrolling just draw the cached
+   * tiles.
+   */
+  public void setTileCachingEnabled(boolean newValue) {
+    boolean oldValue = isTileCachingEnabled();
+    tileCache = (newValue) ? new DrawingTileCache() : null;
+    firePropertyChange("tileCachingEnabled", oldValue, newValue);
+    repaint();
+  }
+
+  public boolean isTileCachingEnabled() {
+    return tileCache != null;
+  }
+
   public void paintComponent(Graphics gr) {
 
     Graphics2D g = (Graphics2D) gr;
@@ -205,6 +245,11 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
       if (drawing.getFigureCount() == 0 && emptyDrawingLabel != null) {
         emptyDrawingLabel.setBounds(0, 0, getWidth(), getHeight());
         emptyDrawingLabel.paint(gr);
+      } else if (tileCache != null) {
+        drawing.setScaleFactor(scaleFactor);
+        Rectangle visibleRect = getVisibleRect();
+        tileCache.setVisibleSize(visibleRect.width, visibleRect.height);
+        tileCache.draw(gr, drawing, scaleFactor, translate);
       } else {
         Graphics2D g = (Graphics2D) gr.create();
         AffineTransform tx = g.getTransform();
@@ -213,6 +258,7 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
         g.setTransform(tx);
 
         drawing.setFontRenderContext(g.getFontRenderContext());
+        drawing.setScaleFactor(scaleFactor);
         drawing.draw(g);
 
         g.dispose();
@@ -247,7 +293,10 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
     if (this.drawing != null) {
       this.drawing.addDrawingListener(this);
     }
-    invalidateDimension();
+    if (tileCache != null) {
+      tileCache.invalidate();
+    }
+    invalidateDrawingExtent();
     invalidate();
     if (getParent() != null) getParent().validate();
     repaint();
@@ -259,35 +308,74 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
     repaint(vr);
   }
 
+  /**
+   * Invalidates the cached tiles in the specified area.
+   */
+  protected void invalidateTiles(Rectangle2D.Double r) {
+    if (tileCache != null) {
+      tileCache.invalidate(r);
+    }
+  }
+
+  /**
+   * Adds an area to the invalidated area of the drawing. The invalidated
+   * area is repainted once, after all pending events on the event dispatch
+   * thread have been processed.
+   *
+   * @param r An area in drawing coordinates.
+   */
+  protected void invalidateDrawingArea(Rectangle2D.Double r) {
+    invalidateTiles(r);
+    if (invalidatedArea == null) {
+      invalidatedArea = (Rectangle2D.Double) r.clone();
+    } else {
+      invalidatedArea.add(r);
+    }
+    if (!isFlushPending) {
+      isFlushPending = true;
+      SwingUtilities.invokeLater(this::flushInvalidatedArea);
+    }
+  }
+
+  /**
+   * Repaints the invalidated area of the drawing, and invalidates the
+   * preferred size if the draw bounds of the drawing have changed.
+   */
+  private void flushInvalidatedArea() {
+    isFlushPending = false;
+    if (invalidatedArea != null) {
+      Rectangle2D.Double r = invalidatedArea;
+      invalidatedArea = null;
+      if (drawingBounds != null && drawing != null && !drawingBounds.equals(drawing.getDrawBounds())) {
+        invalidateDrawingExtent();
+      }
+      repaint(r);
+    }
+  }
+
   public void areaInvalidated(DrawingEvent evt) {
-    repaint(evt.getInvalidatedArea());
-    invalidateDimension();
+    invalidateDrawingArea(evt.getInvalidatedArea());
   }
 
   public void areaInvalidated(HandleEvent evt) {
     repaint(evt.getInvalidatedArea());
-    invalidateDimension();
   }
 
   public void figureAdded(DrawingEvent evt) {
+    invalidateDrawingArea(evt.getInvalidatedArea());
     // Repaint the whole drawing to remove the message label
-    if (evt.getDrawing().getFigureCount() == 1) {
+    if (evt.getDrawing().getFigureCount() == evt.getFigures().size()) {
       repaint();
-    } else {
-      repaint(evt.getInvalidatedArea());
     }
-    invalidateDimension();
   }
 
   public void figureRemoved(DrawingEvent evt) {
+    invalidateDrawingArea(evt.getInvalidatedArea());
     // Repaint the whole drawing to draw the message label
     if (evt.getDrawing().getFigureCount() == 0) {
       repaint();
-    } else {
-      repaint(evt.getInvalidatedArea());
     }
-    removeFromSelection(evt.getFigure());
-    invalidateDimension();
+    removeFromSelection(evt.getFigures());
   }
 
   @Override
@@ -327,6 +415,17 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
     repaint();
   }
 
+  /**
+   * Removes a collection of figures from the selection.
+   */
+  public void removeFromSelection(Collection<Figure> figures) {
+    if (selectedFigures.removeAll(figures)) {
+      invalidateHandles();
+      fireSelectionChanged();
+    }
+    repaint();
+  }
+
   /**
    * If a figure isn't selected it is added to the selection.
    * Otherwise, it is removed from the selection.
@@ -577,6 +676,16 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
     preferredSize = null;
   }
 
+  /**
+   * Invalidates the drawing extent. The extent is taken again from the
+   * draw bounds of the drawing, when the preferred size is needed the next
+   * time.
+   */
+  protected void invalidateDrawingExtent() {
+    drawingBounds = null;
+    invalidateDimension();
+  }
+
   public Constrainer getConstrainer() {
     return constrainer;
   }
@@ -594,18 +703,15 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
   @Override
   public Dimension getPreferredSize() {
     if (preferredSize == null) {
-      Dimension2DDouble d = new Dimension2DDouble();
-      if (drawing != null) {
-        translate.x = 0;
-        translate.y = 0;
-        for (Figure f : drawing.getFigures()) {
-          Rectangle2D.Double r = f.getDrawBounds();
-          d.width = Math.max(d.width, r.x + r.width);
-          d.height = Math.max(d.height, r.y + r.height);
-          translate.x = Math.min(translate.x, r.x);
-          translate.y = Math.min(translate.y, r.y);
-        }
-      }
+      drawingBounds = (drawing == null) ? new Rectangle2D.Double() : drawing.getDrawBounds();
+      // The extent always contains the origin of the drawing.
+      Rectangle2D.Double drawingExtent = (Rectangle2D.Double) drawingBounds.clone();
+      drawingExtent.add(0, 0);
+      Dimension2DDouble d = new Dimension2DDouble(
+          drawingExtent.x + drawingExtent.width,
+          drawingExtent.y + drawingExtent.height);
+      translate.x = drawingExtent.x;
+      translate.y = drawingExtent.y;
       preferredSize = new Dimension((int) ((d.width + 10 - translate.x) * scaleFactor), (int) ((d.height + 10 - translate.y) * scaleFactor));
       fireViewTransformChanged();
       repaint();
@@ -772,11 +878,10 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
           NanoXMLLiteDOMInput domi = new NanoXMLLiteDOMInput(domFactory, in);
           domi.openElement("DrawingClip");
           for (int i = 0, n = domi.getElementCount(); i < n; i++) {
-            Figure f = (Figure) domi.readObject(i);
-            getDrawing().add(f);
-            toBeSelected.add(f);
+            toBeSelected.add((Figure) domi.readObject(i));
           }
         }
+        getDrawing().addAll(toBeSelected);
         clearSelection();
         addToSelection(toBeSelected);
         getDrawing().fireUndoableEditHappened(ce);
@@ -803,8 +908,8 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Drawi
       d.basicTransform(tx);
       duplicates.add(d);
       originalToDuplicateMap.put(f, d);
-      drawing.add(d);
     }
+    drawing.addAll(duplicates);
     for (Figure f : duplicates) {
       f.remap(originalToDuplicateMap);
     }
@@ -0,0 +1,241 @@
+/*
+ * @(#)DrawingTileCache.java  1.1  2026-10-18
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.draw.views;
+
+import org.jhotdraw.draw.drawings.Drawing;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the rendered figures of a drawing in fixed-size tiles.
+ * <p>
+ * The tiles are laid out on the scaled drawing coordinates, so that changing
+ * the translation of a view does not invalidate them. Changing the scale
+ * factor discards all tiles. Only the tiles which intersect an invalidated
+ * area are rendered again. The least recently drawn tiles are discarded, when
+ * the cache holds more than {@link #getMaxTiles} tiles. Tiles which are
+ * needed by the current draw pass are never discarded, and the images of
+ * discarded tiles are reused for new tiles.
+ * <p>
+ * The maximal number of tiles is derived from the size of the visible area
+ * of the view, see {@link #setVisibleSize}.
+ * <p>
+ * The tiles are compatible images with a transparent background, which
+ * Java2D can keep in video memory.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 The maximal number of tiles depends on the size
+ * of the visible area. Tiles of the current draw pass are not discarded.
+ * <br>1.0 2026-10-17 Created.
+ */
+public class DrawingTileCache {
+  /**
+   * The width and height of a tile in pixels.
+   */
+  public static final int TILE_SIZE = 256;
+  /**
+   * The smallest value of the maximal number of cached tiles.
+   */
+  public static final int MIN_TILES = 128;
+
+  private double scaleFactor = 1;
+  private int maxTiles = MIN_TILES;
+  /**
+   * Counts the draw passes. Each tile remembers the last pass, which
+   * has drawn it.
+   */
+  private long pass;
+  /**
+   * key = tile column in the upper 32 bits, tile row in the lower 32 bits
+   * value = Tile
+   */
+  private final HashMap<Long, Tile> tiles = new HashMap<>();
+
+  /**
+   * Creates a new instance.
+   */
+  public DrawingTileCache() {
+  }
+
+  /**
+   * Sets the size of the visible area of the view in pixels.
+   * The cache keeps twice as many tiles as are needed to cover the
+   * visible area, so that scrolling back and forth does not render
+   * the tiles again.
+   */
+  public void setVisibleSize(int width, int height) {
+    int cols = (width + TILE_SIZE - 1) / TILE_SIZE + 1;
+    int rows = (height + TILE_SIZE - 1) / TILE_SIZE + 1;
+    maxTiles = Math.max(MIN_TILES, cols * rows * 2);
+  }
+
+  /**
+   * Returns the maximal number of cached tiles.
+   */
+  public int getMaxTiles() {
+    return maxTiles;
+  }
+
+  /**
+   * Discards all tiles.
+   */
+  public void invalidate() {
+    tiles.clear();
+  }
+
+  /**
+   * Marks all tiles as invalid, which intersect the specified area.
+   *
+   * @param r An area in drawing coordinates.
+   */
+  public void invalidate(Rectangle2D.Double r) {
+    int minCol = tileIndex(r.x * scaleFactor - 1);
+    int minRow = tileIndex(r.y * scaleFactor - 1);
+    int maxCol = tileIndex((r.x + r.width) * scaleFactor + 1);
+    int maxRow = tileIndex((r.y + r.height) * scaleFactor + 1);
+    if ((long) (maxCol - minCol + 1) * (maxRow - minRow + 1) > tiles.size()) {
+      for (Map.Entry<Long, Tile> entry : tiles.entrySet()) {
+        int col = (int) (entry.getKey() >> 32);
+        int row = (int) (long) entry.getKey();
+        if (col >= minCol && col <= maxCol && row >= minRow && row <= maxRow) {
+          entry.getValue().isValid = false;
+        }
+      }
+    } else {
+      for (int col = minCol; col <= maxCol; col++) {
+        for (int row = minRow; row <= maxRow; row++) {
+          Tile tile = tiles.get(key(col, row));
+          if (tile != null) {
+            tile.isValid = false;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Draws the drawing from the tiles, which intersect the clip bounds of
+   * the graphics. Missing and invalid tiles are rendered first.
+   *
+   * @param g           The graphics in view coordinates.
+   * @param drawing     The drawing.
+   * @param scaleFactor The scale factor of the view.
+   * @param translate   The drawing coordinates of the view origin.
+   */
+  public void draw(Graphics2D g, Drawing drawing, double scaleFactor, Point2D.Double translate) {
+    if (scaleFactor != this.scaleFactor) {
+      tiles.clear();
+      this.scaleFactor = scaleFactor;
+    }
+    // Position of the scaled drawing origin in view coordinates
+    double ox = -translate.x * scaleFactor;
+    double oy = -translate.y * scaleFactor;
+
+    Rectangle clip = g.getClipBounds();
+    int minCol = tileIndex(clip.x - ox);
+    int minRow = tileIndex(clip.y - oy);
+    int maxCol = tileIndex(clip.x + clip.width - ox);
+    int maxRow = tileIndex(clip.y + clip.height - oy);
+    pass++;
+    for (int col = minCol; col <= maxCol; col++) {
+      for (int row = minRow; row <= maxRow; row++) {
+        Long key = key(col, row);
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+          BufferedImage image = discardTiles();
+          if (image == null) {
+            image = g.getDeviceConfiguration().createCompatibleImage(TILE_SIZE, TILE_SIZE, Transparency.TRANSLUCENT);
+          }
+          tile = new Tile(image);
+          tiles.put(key, tile);
+        }
+        tile.lastPass = pass;
+        if (!tile.isValid) {
+          render(g, tile.image, drawing, col, row);
+          tile.isValid = true;
+        }
+        g.drawImage(tile.image, (int) Math.floor(col * TILE_SIZE + ox), (int) Math.floor(row * TILE_SIZE + oy), null);
+      }
+    }
+  }
+
+  /**
+   * Discards the least recently drawn tiles, until there is room for another
+   * tile. Tiles which have been drawn in the current pass are not discarded.
+   *
+   * @return The image of a discarded tile, or null.
+   */
+  private BufferedImage discardTiles() {
+    BufferedImage image = null;
+    while (tiles.size() >= maxTiles) {
+      Map.Entry<Long, Tile> oldest = null;
+      for (Map.Entry<Long, Tile> entry : tiles.entrySet()) {
+        long lastPass = entry.getValue().lastPass;
+        if (lastPass < pass && (oldest == null || lastPass < oldest.getValue().lastPass)) {
+          oldest = entry;
+        }
+      }
+      if (oldest == null) {
+        break;
+      }
+      tiles.remove(oldest.getKey());
+      image = oldest.getValue().image;
+    }
+    return image;
+  }
+
+  /**
+   * Renders a tile with the rendering hints of the view graphics.
+   */
+  private void render(Graphics2D g, BufferedImage image, Drawing drawing, int col, int row) {
+    Graphics2D tg = image.createGraphics();
+    tg.setRenderingHints(g.getRenderingHints());
+    tg.setComposite(AlphaComposite.Clear);
+    tg.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+    tg.setComposite(AlphaComposite.SrcOver);
+    tg.clipRect(0, 0, TILE_SIZE, TILE_SIZE);
+    tg.translate(-col * TILE_SIZE, -row * TILE_SIZE);
+    tg.scale(scaleFactor, scaleFactor);
+    drawing.setFontRenderContext(tg.getFontRenderContext());
+    drawing.draw(tg);
+    tg.dispose();
+  }
+
+  private static int tileIndex(double scaledCoordinate) {
+    return (int) Math.floor(scaledCoordinate / TILE_SIZE);
+  }
+
+  private static Long key(int col, int row) {
+    return ((long) col << 32) | (row & 0xffffffffL);
+  }
+
+  /**
+   * Holds the image of a tile.
+   */
+  private static class Tile {
+    private final BufferedImage image;
+    private boolean isValid;
+    private long lastPass;
+
+    public Tile(BufferedImage image) {
+      this.image = image;
+    }
+  }
+}
@@ -0,0 +1,507 @@
+/*
+ * @(#)BezierFitter.java  1.0  2026-10-18
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.geom;
+
+/**
+ * Fits Bézier curves to digitized points, while the points are being added.
+ * <p>
+ * The points are fitted with the algorithm of {@link Bezier}. Whenever the
+ * unfitted points at the end of the sequence have grown by a quarter, they
+ * are fitted again. If they need more than three curves, all curves
+ * but the last three are kept, and only the points of the last three curves
+ * remain unfitted. Points which are added later do not change the kept curves.
+ * Thus {@link #fit} only needs to fit the last few points, no matter how
+ * many points have been added.
+ * <p>
+ * The points and curves are stored in arrays of doubles, and all
+ * computations are done on scratch arrays, which are reused.
+ * <p>
+ * Source:<br>
+ * An Algorithm for Automatically Fitting Digitized Curves
+ * by Philip J. Schneider.<br>
+ * from "Graphics Gems", Academic Press, 1990
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class BezierFitter {
+  /**
+   * The number of unfitted points, at which the points are fitted for
+   * the first time.
+   */
+  private static final int MIN_CHECK_INTERVAL = 8;
+  /**
+   * The number of curves at the end, which are fitted again when more points
+   * are added. The split points of a curve still move a little, while its
+   * successors are being digitized. Keeping fewer curves needs more curves
+   * in total.
+   */
+  private static final int UNSTABLE_SEGMENT_COUNT = 3;
+  /**
+   * Max times to try iterating.
+   */
+  private static final int MAX_ITERATIONS = 4;
+
+  /**
+   * User-defined error squared.
+   */
+  private double error;
+  /**
+   * Error below which we try iterating.
+   */
+  private double iterationError;
+  /**
+   * If this is false, the points are only fitted by method fit.
+   */
+  private boolean isIncremental;
+
+  private double[] xs;
+  private double[] ys;
+  private int count;
+
+  /**
+   * The control points x1, y1, x2, y2, x3, y3 of each curve.
+   */
+  private double[] segmentCoords;
+  /**
+   * The index of the point at which each curve starts.
+   */
+  private int[] segmentFirst;
+  /**
+   * The unit tangent at the start of each curve.
+   */
+  private double[] segmentTangents;
+  private int segmentCount;
+
+  /**
+   * The number of kept curves.
+   */
+  private int stableSegmentCount;
+  /**
+   * The index of the first point, which is not fitted by the kept curves.
+   */
+  private int stableEnd;
+  /**
+   * The number of unfitted points, at which the points are fitted again.
+   */
+  private int nextCheck = MIN_CHECK_INTERVAL;
+
+  /**
+   * Parameter values of the points.
+   */
+  private double[] u;
+  /**
+   * Control points of the curve, which is currently being fitted.
+   */
+  private double[] bez = new double[8];
+  /**
+   * Point of maximum error, which is computed by method computeMaxError.
+   */
+  private int splitPoint;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param error User-defined error squared.
+   */
+  public BezierFitter(double error) {
+    this(error, true);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param error         User-defined error squared.
+   * @param isIncremental Whether the points shall be fitted while they
+   *                      are being added.
+   */
+  BezierFitter(double error, boolean isIncremental) {
+    this.error = error;
+    this.iterationError = error * error;
+    this.isIncremental = isIncremental;
+    xs = new double[64];
+    ys = new double[64];
+    u = new double[64];
+    segmentCoords = new double[16 * 6];
+    segmentFirst = new int[16];
+    segmentTangents = new double[16 * 2];
+  }
+
+  /**
+   * Returns the error squared.
+   */
+  public double getError() {
+    return error;
+  }
+
+  /**
+   * Returns the number of points.
+   */
+  public int getPointCount() {
+    return count;
+  }
+
+  /**
+   * Adds a point.
+   */
+  public void addPoint(double x, double y) {
+    if (count == xs.length) {
+      int capacity = count * 2;
+      double[] newXs = new double[capacity];
+      double[] newYs = new double[capacity];
+      System.arraycopy(xs, 0, newXs, 0, count);
+      System.arraycopy(ys, 0, newYs, 0, count);
+      xs = newXs;
+      ys = newYs;
+      u = new double[capacity];
+    }
+    xs[count] = x;
+    ys[count] = y;
+    count++;
+    if (isIncremental) {
+      updateStablePrefix();
+    }
+  }
+
+  /**
+   * Moves the last point.
+   * The last point is never fitted by a kept curve.
+   */
+  public void setLastPoint(double x, double y) {
+    if (count == 0) {
+      throw new IllegalStateException("setLastPoint only allowed when not empty");
+    }
+    xs[count - 1] = x;
+    ys[count - 1] = y;
+  }
+
+  /**
+   * Removes all points.
+   */
+  public void clear() {
+    count = 0;
+    segmentCount = 0;
+    stableSegmentCount = 0;
+    stableEnd = 0;
+    nextCheck = MIN_CHECK_INTERVAL;
+  }
+
+  /**
+   * Fits Bézier curves to the points.
+   *
+   * @return Returns a BezierPath containing the Bézier curves.
+   */
+  public BezierPath fit() {
+    segmentCount = stableSegmentCount;
+    fitTail();
+
+    BezierPath path = new BezierPath();
+    if (count > 0) {
+      path.moveTo(xs[0], ys[0]);
+    }
+    for (int i = 0, j = 0; i < segmentCount; i++, j += 6) {
+      path.curveTo(segmentCoords[j], segmentCoords[j + 1], segmentCoords[j + 2], segmentCoords[j + 3], segmentCoords[j + 4], segmentCoords[j + 5]);
+    }
+    segmentCount = stableSegmentCount;
+    return path;
+  }
+
+  /**
+   * Fits the unfitted points, if they have grown enough since they were
+   * fitted the last time, and keeps all curves but the last ones.
+   */
+  private void updateStablePrefix() {
+    int tailCount = count - stableEnd;
+    if (tailCount < nextCheck) {
+      return;
+    }
+    segmentCount = stableSegmentCount;
+    fitTail();
+    if (segmentCount - stableSegmentCount > UNSTABLE_SEGMENT_COUNT) {
+      stableSegmentCount = segmentCount - UNSTABLE_SEGMENT_COUNT;
+      stableEnd = segmentFirst[stableSegmentCount];
+    }
+    segmentCount = stableSegmentCount;
+
+    tailCount = count - stableEnd;
+    nextCheck = tailCount + Math.max(MIN_CHECK_INTERVAL, tailCount / 4);
+  }
+
+  /**
+   * Fits the points, which are not fitted by the kept curves.
+   */
+  private void fitTail() {
+    int last = count - 1;
+    if (last - stableEnd < 1) {
+      return;
+    }
+
+    /* Unit tangent vectors at endpoints */
+    double t1x, t1y;
+    if (stableSegmentCount == 0) {
+      t1x = xs[1] - xs[0];
+      t1y = ys[1] - ys[0];
+      double len = Math.sqrt(t1x * t1x + t1y * t1y);
+      if (len != 0) {
+        t1x /= len;
+        t1y /= len;
+      }
+    } else {
+      t1x = segmentTangents[stableSegmentCount * 2];
+      t1y = segmentTangents[stableSegmentCount * 2 + 1];
+    }
+    double t2x = xs[last - 1] - xs[last];
+    double t2y = ys[last - 1] - ys[last];
+    double len = Math.sqrt(t2x * t2x + t2y * t2y);
+    if (len != 0) {
+      t2x /= len;
+      t2y /= len;
+    }
+
+    fitCubic(stableEnd, last, t1x, t1y, t2x, t2y);
+  }
+
+  /**
+   * Fit a Bézier curve to a (sub)set of the points.
+   *
+   * @param first Index of first point.
+   * @param last  Index of last point.
+   * @param t1x   Unit tangent vector at start point.
+   * @param t2x   Unit tangent vector at end point.
+   */
+  private void fitCubic(int first, int last, double t1x, double t1y, double t2x, double t2y) {
+    /*  Use heuristic if region only has two points in it */
+    if (last - first == 1) {
+      double dx = xs[last] - xs[first];
+      double dy = ys[last] - ys[first];
+      double dist = Math.sqrt(dx * dx + dy * dy) / 3.0;
+      setControlPoints(first, last, t1x, t1y, t2x, t2y, dist, dist);
+      addSegment(first, t1x, t1y);
+      return;
+    }
+
+    /*  Parameterize points, and attempt to fit curve */
+    chordLengthParameterize(first, last);
+    generateBezier(first, last, t1x, t1y, t2x, t2y);
+
+    /*  Find max deviation of points to fitted curve */
+    double maxError = computeMaxError(first, last);
+    if (maxError < error) {
+      addSegment(first, t1x, t1y);
+      return;
+    }
+
+    /*  If error not too large, try some reparameterization  */
+    /*  and iteration */
+    if (maxError < iterationError) {
+      for (int i = 0; i < MAX_ITERATIONS; i++) {
+        reparameterize(first, last);
+        generateBezier(first, last, t1x, t1y, t2x, t2y);
+        maxError = computeMaxError(first, last);
+        if (maxError < error) {
+          addSegment(first, t1x, t1y);
+          return;
+        }
+      }
+    }
+
+    /* Fitting failed -- split at max error point and fit recursively */
+    int split = splitPoint;
+    double cx = (xs[split - 1] - xs[split + 1]) / 2.0;
+    double cy = (ys[split - 1] - ys[split + 1]) / 2.0;
+    double len = Math.sqrt(cx * cx + cy * cy);
+    if (len != 0) {
+      cx /= len;
+      cy /= len;
+    }
+    fitCubic(first, split, t1x, t1y, cx, cy);
+    fitCubic(split, last, -cx, -cy, t2x, t2y);
+  }
+
+  /**
+   * Adds the current curve.
+   *
+   * @param first Index of the point at which the curve starts.
+   * @param t1x   Unit tangent vector at start point.
+   */
+  private void addSegment(int first, double t1x, double t1y) {
+    if (segmentCount == segmentFirst.length) {
+      int capacity = segmentCount * 2;
+      double[] newCoords = new double[capacity * 6];
+      int[] newFirst = new int[capacity];
+      double[] newTangents = new double[capacity * 2];
+      System.arraycopy(segmentCoords, 0, newCoords, 0, segmentCount * 6);
+      System.arraycopy(segmentFirst, 0, newFirst, 0, segmentCount);
+      System.arraycopy(segmentTangents, 0, newTangents, 0, segmentCount * 2);
+      segmentCoords = newCoords;
+      segmentFirst = newFirst;
+      segmentTangents = newTangents;
+    }
+    System.arraycopy(bez, 2, segmentCoords, segmentCount * 6, 6);
+    segmentFirst[segmentCount] = first;
+    segmentTangents[segmentCount * 2] = t1x;
+    segmentTangents[segmentCount * 2 + 1] = t1y;
+    segmentCount++;
+  }
+
+  /**
+   * Positions the control points of the current curve at the first and
+   * last point, and on the tangent vectors, left and right, respectively.
+   */
+  private void setControlPoints(int first, int last, double t1x, double t1y, double t2x, double t2y, double alphaL, double alphaR) {
+    bez[0] = xs[first];
+    bez[1] = ys[first];
+    bez[2] = xs[first] + t1x * alphaL;
+    bez[3] = ys[first] + t1y * alphaL;
+    bez[4] = xs[last] + t2x * alphaR;
+    bez[5] = ys[last] + t2y * alphaR;
+    bez[6] = xs[last];
+    bez[7] = ys[last];
+  }
+
+  /**
+   * Use least-squares method to find Bézier control points for region.
+   *
+   * @param first Index of first point of region.
+   * @param last  Index of last point of region.
+   * @param t1x   Unit tangent vector at start point.
+   * @param t2x   Unit tangent vector at end point.
+   */
+  private void generateBezier(int first, int last, double t1x, double t1y, double t2x, double t2y) {
+    double c00 = 0, c01 = 0, c11 = 0; /* Matrix C */
+    double x0 = 0, x1 = 0; /* Matrix X */
+    double fx = xs[first], fy = ys[first];
+    double lx = xs[last], ly = ys[last];
+
+    for (int i = first; i <= last; i++) {
+      double t = u[i];
+      double s = 1.0 - t;
+      double b0 = s * s * s;
+      double b1 = 3 * t * s * s;
+      double b2 = 3 * t * t * s;
+      double b3 = t * t * t;
+
+      /* The A's */
+      double a0x = t1x * b1, a0y = t1y * b1;
+      double a1x = t2x * b2, a1y = t2y * b2;
+
+      c00 += a0x * a0x + a0y * a0y;
+      c01 += a0x * a1x + a0y * a1y;
+      c11 += a1x * a1x + a1y * a1y;
+
+      double tmpx = xs[i] - (fx * (b0 + b1) + lx * (b2 + b3));
+      double tmpy = ys[i] - (fy * (b0 + b1) + ly * (b2 + b3));
+      x0 += a0x * tmpx + a0y * tmpy;
+      x1 += a1x * tmpx + a1y * tmpy;
+    }
+
+    /* Compute the determinants of C and X */
+    double detC0C1 = c00 * c11 - c01 * c01;
+    double detC0X = c00 * x1 - c01 * x0;
+    double detXC1 = x0 * c11 - x1 * c01;
+
+    /* Finally, derive alpha values */
+    if (detC0C1 == 0.0) {
+      detC0C1 = (c00 * c11) * 10e-12;
+    }
+    double alphaL = detXC1 / detC0C1;
+    double alphaR = detC0X / detC0C1;
+
+    /*  If alpha negative, use the Wu/Barsky heuristic (see text) */
+    /* (if alpha is 0, you get coincident control points that lead to
+     * divide by zero in any subsequent NewtonRaphsonRootFind() call. */
+    if (!(alphaL >= 1.0e-6 && alphaR >= 1.0e-6)) {
+      double dx = lx - fx;
+      double dy = ly - fy;
+      alphaL = alphaR = Math.sqrt(dx * dx + dy * dy) / 3.0;
+    }
+    setControlPoints(first, last, t1x, t1y, t2x, t2y, alphaL, alphaR);
+  }
+
+  /**
+   * Given the points and their parameterization, try to find
+   * a better parameterization for the current curve.
+   */
+  private void reparameterize(int first, int last) {
+    double[] q = bez;
+    /* Control vertices for Q' */
+    double d0x = 3 * (q[2] - q[0]), d0y = 3 * (q[3] - q[1]);
+    double d1x = 3 * (q[4] - q[2]), d1y = 3 * (q[5] - q[3]);
+    double d2x = 3 * (q[6] - q[4]), d2y = 3 * (q[7] - q[5]);
+
+    for (int i = first; i <= last; i++) {
+      /* Use Newton-Raphson iteration to find better root */
+      double t = u[i];
+      double s = 1.0 - t;
+
+      /* Compute Q(u), Q'(u) and Q''(u) */
+      double b0 = s * s * s, b1 = 3 * s * s * t, b2 = 3 * s * t * t, b3 = t * t * t;
+      double qx = b0 * q[0] + b1 * q[2] + b2 * q[4] + b3 * q[6] - xs[i];
+      double qy = b0 * q[1] + b1 * q[3] + b2 * q[5] + b3 * q[7] - ys[i];
+      double q1x = s * s * d0x + 2 * s * t * d1x + t * t * d2x;
+      double q1y = s * s * d0y + 2 * s * t * d1y + t * t * d2y;
+      double q2x = 2 * (s * (d1x - d0x) + t * (d2x - d1x));
+      double q2y = 2 * (s * (d1y - d0y) + t * (d2y - d1y));
+
+      /* u = u - f(u)/f'(u) */
+      double numerator = qx * q1x + qy * q1y;
+      double denominator = q1x * q1x + q1y * q1y + qx * q2x + qy * q2y;
+      if (denominator != 0) {
+        u[i] = t - numerator / denominator;
+      }
+    }
+  }
+
+  /**
+   * Assign parameter values to the points of a region
+   * using relative distances between points.
+   */
+  private void chordLengthParameterize(int first, int last) {
+    u[first] = 0.0;
+    for (int i = first + 1; i <= last; i++) {
+      double dx = xs[i] - xs[i - 1];
+      double dy = ys[i] - ys[i - 1];
+      u[i] = u[i - 1] + Math.sqrt(dx * dx + dy * dy);
+    }
+
+    double total = u[last];
+    for (int i = first + 1; i <= last; i++) {
+      u[i] = (total == 0) ? (i - first) / (double) (last - first) : u[i] / total;
+    }
+  }
+
+  /**
+   * Find the maximum squared distance of the points of a region
+   * to the current curve, and set splitPoint to the point of maximum error.
+   */
+  private double computeMaxError(int first, int last) {
+    double[] q = bez;
+    double maxDist = 0.0;
+    splitPoint = (first + last) / 2;
+    for (int i = first + 1; i < last; i++) {
+      double t = u[i];
+      double s = 1.0 - t;
+      double b0 = s * s * s, b1 = 3 * s * s * t, b2 = 3 * s * t * t, b3 = t * t * t;
+      double dx = b0 * q[0] + b1 * q[2] + b2 * q[4] + b3 * q[6] - xs[i];
+      double dy = b0 * q[1] + b1 * q[3] + b2 * q[5] + b3 * q[7] - ys[i];
+      double dist = dx * dx + dy * dy;
+      if (dist >= maxDist) {
+        maxDist = dist;
+        splitPoint = i;
+      }
+    }
+    return maxDist;
+  }
+}
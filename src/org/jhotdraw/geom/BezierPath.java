@@ -1,5 +1,5 @@
 /*
- * @(#)BezierPath.java  1.1  2006-03-22
+ * @(#)BezierPath.java  1.5.1  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -29,7 +29,14 @@ import java.util.ArrayList;
  * away from C0.
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-03-22 Methods moveTo, lineTo and quadTo  added.
+ * @version 1.5.2 2026-10-18 Flattened paths are cached for two flatness
+ * values.
+ * <br>1.5.1 2026-10-18 Method transform discards the cached shape.
+ * <br>1.5 2026-10-17 Lengths along the path are cached.
+ * <br>1.4 2026-10-17 Shape operations use a CompactBezierPath.
+ * <br>1.3 2026-10-17 Bounds are cached.
+ * <br>1.2 2026-10-17 Flattened path is cached and indexed.
+ * <br>1.1 2006-03-22 Methods moveTo, lineTo and quadTo  added.
  * <br>1.0 January 20, 2006, Created.
  */
 public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
@@ -47,9 +54,26 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
   public final static int C1C2_MASK = C1_MASK | C2_MASK;
 
   /**
-   * We cache a GeneralPath instance to speed up Shape operations.
+   * We cache a CompactBezierPath instance to speed up Shape operations.
+   * The nodes of this list remain the storage of the path, the cache holds
+   * a second copy of the geometry until the path is invalidated.
    */
-  private transient GeneralPath generalPath;
+  private transient CompactBezierPath shape;
+
+  /**
+   * We cache the two most recently flattened paths to speed up hit tests.
+   * Two entries are needed, because outlineContains and findSegment are
+   * called alternately with different tolerances. The most recently used
+   * entry is flattenedPath, the other one is olderFlattenedPath.
+   */
+  private transient FlattenedPath flattenedPath;
+  private transient FlattenedPath olderFlattenedPath;
+
+  /**
+   * We cache the path flattened for measuring lengths along the path
+   * separately, because hit tests flatten the path with their tolerance.
+   */
+  private transient FlattenedPath measuredPath;
 
   /**
    * We cache the index of the outermost node to speed up method indexOfOutermostNode();
@@ -251,6 +275,37 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
     Node c = get(index);
     c.x[coordinate] = p.x;
     c.y[coordinate] = p.y;
+    invalidatePath();
+  }
+
+  @Override
+  public boolean add(Node node) {
+    invalidatePath();
+    return super.add(node);
+  }
+
+  @Override
+  public void add(int index, Node node) {
+    invalidatePath();
+    super.add(index, node);
+  }
+
+  @Override
+  public Node set(int index, Node node) {
+    invalidatePath();
+    return super.set(index, node);
+  }
+
+  @Override
+  public Node remove(int index) {
+    invalidatePath();
+    return super.remove(index);
+  }
+
+  @Override
+  public void clear() {
+    invalidatePath();
+    super.clear();
   }
 
   /**
@@ -265,7 +320,10 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
    * This must be called after the BezierPath has been changed.
    */
   public void invalidatePath() {
-    generalPath = null;
+    shape = null;
+    flattenedPath = null;
+    olderFlattenedPath = null;
+    measuredPath = null;
     outer = -1;
   }
 
@@ -273,11 +331,27 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
    * Recomputes the BezierPath, if it is invalid.
    */
   public void validatePath() {
-    if (generalPath == null) {
-      generalPath = toGeneralPath();
+    if (shape == null) {
+      shape = toCompactPath();
     }
   }
 
+  /**
+   * Converts the BezierPath into a CompactBezierPath.
+   * An empty path is converted into a path with a single node at the
+   * origin.
+   */
+  public CompactBezierPath toCompactPath() {
+    CompactBezierPath cp;
+    if (size() == 0) {
+      cp = new CompactBezierPath(1);
+      cp.moveTo(0, 0);
+    } else {
+      cp = new CompactBezierPath(this);
+    }
+    return cp;
+  }
+
   /**
    * Converts the BezierPath into a GeneralPath.
    */
@@ -342,7 +416,7 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
 
   public boolean contains(Point2D p) {
     validatePath();
-    return generalPath.contains(p);
+    return shape.contains(p);
   }
 
   /**
@@ -353,80 +427,86 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
    * @param tolerance The tolerance for the test.
    */
   public boolean outlineContains(Point2D.Double p, double tolerance) {
-    validatePath();
+    return getFlattenedPath(tolerance).outlineContains(p.x, p.y, tolerance);
+  }
 
-    PathIterator i = generalPath.getPathIterator(new AffineTransform(), tolerance);
-
-    double[] coordinates = new double[6];
-    int type = i.currentSegment(coordinates);
-    double prevX = coordinates[0];
-    double prevY = coordinates[1];
-    i.next();
-    while (!i.isDone()) {
-      i.currentSegment(coordinates);
-      if (Geom.lineContainsPoint(prevX, prevY, coordinates[0], coordinates[1], p.x, p.y, tolerance)) {
-        return true;
-      }
-      prevX = coordinates[0];
-      prevY = coordinates[1];
-      i.next();
+  /**
+   * Returns the bezier path flattened with the specified flatness.
+   * The flattened paths of the two most recently used flatness values are
+   * cached until the bezier path is invalidated.
+   */
+  public FlattenedPath getFlattenedPath(double flatness) {
+    FlattenedPath fp = flattenedPath;
+    if (fp != null && fp.getFlatness() == flatness) {
+      return fp;
+    }
+    FlattenedPath older = olderFlattenedPath;
+    if (older == null || older.getFlatness() != flatness) {
+      validatePath();
+      older = shape.getFlattenedPath(flatness);
     }
-    return false;
+    olderFlattenedPath = fp;
+    flattenedPath = older;
+    return older;
   }
 
   public boolean intersects(Rectangle2D r) {
     validatePath();
-    return generalPath.intersects(r);
+    return shape.intersects(r);
   }
 
   public PathIterator getPathIterator(AffineTransform at) {
     validatePath();
-    return generalPath.getPathIterator(at);
+    return shape.getPathIterator(at);
   }
 
   public boolean contains(Rectangle2D r) {
     validatePath();
-    return generalPath.contains(r);
+    return shape.contains(r);
   }
 
   public PathIterator getPathIterator(AffineTransform at, double flatness) {
     validatePath();
-    return generalPath.getPathIterator(at, flatness);
+    return shape.getPathIterator(at, flatness);
   }
 
   public boolean intersects(double x, double y, double w, double h) {
     validatePath();
-    return generalPath.intersects(x, y, w, h);
+    return shape.intersects(x, y, w, h);
   }
 
   public Rectangle2D getBounds2D() {
     validatePath();
-    return generalPath.getBounds2D();
+    return shape.getBounds2D();
   }
 
   public Rectangle2D.Double getBounds2DDouble() {
+    return getBounds2D(new Rectangle2D.Double());
+  }
+
+  /**
+   * Stores the bounds of the path into the specified rectangle.
+   *
+   * @return The specified rectangle.
+   */
+  public Rectangle2D.Double getBounds2D(Rectangle2D.Double r) {
     validatePath();
-    Rectangle2D r = generalPath.getBounds2D();
-    if (r instanceof Rectangle2D.Double) {
-      return (Rectangle2D.Double) r;
-    } else {
-      return new Rectangle2D.Double(r.getX(), r.getY(), r.getWidth(), r.getHeight());
-    }
+    return shape.getBounds2D(r);
   }
 
   public Rectangle getBounds() {
     validatePath();
-    return generalPath.getBounds();
+    return shape.getBounds();
   }
 
   public boolean contains(double x, double y, double w, double h) {
     validatePath();
-    return generalPath.contains(x, y, w, h);
+    return shape.contains(x, y, w, h);
   }
 
   public boolean contains(double x, double y) {
     validatePath();
-    return generalPath.contains(x, y);
+    return shape.contains(x, y);
   }
 
   public void setClosed(boolean newValue) {
@@ -470,6 +550,23 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
     invalidatePath();
   }
 
+  /**
+   * Sets the nodes of this path to the nodes of the specified path.
+   * All subpaths of the specified path are joined.
+   */
+  public void setTo(CompactBezierPath that) {
+    while (that.size() < size()) {
+      remove(size() - 1);
+    }
+    for (int i = 0, n = size(); i < n; i++) {
+      that.getNode(i, get(i));
+    }
+    while (size() < that.size()) {
+      add(that.getNode(size()));
+    }
+    invalidatePath();
+  }
+
   public void setTo(BezierPath that) {
     while (that.size() < size()) {
       remove(size() - 1);
@@ -480,6 +577,7 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
     while (size() < that.size()) {
       add((Node) that.get(size()).clone());
     }
+    invalidatePath();
   }
 
   /**
@@ -504,7 +602,7 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
    */
   public Point2D.Double chop(Point2D.Double p) {
     validatePath();
-    return Geom.chop(generalPath, p);
+    return Geom.chop(shape, p);
         /*
         Point2D.Double ctr = getCenter();
         
@@ -601,6 +699,20 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
     return outer;
   }
 
+  /**
+   * Returns the path flattened with the specified flatness for measuring
+   * lengths along the path.
+   */
+  private FlattenedPath getMeasuredPath(double flatness) {
+    FlattenedPath fp = measuredPath;
+    if (fp == null || fp.getFlatness() != flatness) {
+      validatePath();
+      fp = new FlattenedPath(shape, flatness);
+      measuredPath = fp;
+    }
+    return fp;
+  }
+
   /**
    * Returns a relative point on the path.
    * Where 0 is the start point of the path and 1 is the end point of the
@@ -619,50 +731,48 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
     } else if (relative >= 1) {
       return get(size() - 1).getControlPoint(0);
     }
-    validatePath();
-    // Determine the length of the path
-    double len = 0;
-    PathIterator i = generalPath.getPathIterator(new AffineTransform(), flatness);
-    double[] coordinates = new double[6];
-    int type = i.currentSegment(coordinates);
-    double prevX = coordinates[0];
-    double prevY = coordinates[1];
-    i.next();
-    for (; !i.isDone(); i.next()) {
-      i.currentSegment(coordinates);
-      len += Geom.length(prevX, prevY, coordinates[0], coordinates[1]);
-      prevX = coordinates[0];
-      prevY = coordinates[1];
-    }
-
-    // Compute the relative point on the path
-    double relativeLen = len * relative;
-    double pos = 0;
-    i = generalPath.getPathIterator(new AffineTransform(), flatness);
-    type = i.currentSegment(coordinates);
-    prevX = coordinates[0];
-    prevY = coordinates[1];
-    i.next();
-    for (; !i.isDone(); i.next()) {
-      i.currentSegment(coordinates);
-      double segLen = Geom.length(prevX, prevY, coordinates[0], coordinates[1]);
-      if (pos + segLen >= relativeLen) {
-        //if (true) return new Point2D.Double(coordinates[0], coordinates[1]);
-        // Compute the relative Point2D.Double on the line
-                /*
-                return new Point2D.Double(
-                        prevX * pos / len + coordinates[0] * (pos + segLen) / len,
-                        prevY * pos / len + coordinates[1] * (pos + segLen) / len
-                        );*/
-        double factor = (relativeLen - pos) / segLen;
-
-        return new Point2D.Double(prevX * (1 - factor) + coordinates[0] * factor, prevY * (1 - factor) + coordinates[1] * factor);
-      }
-      pos += segLen;
-      prevX = coordinates[0];
-      prevY = coordinates[1];
+    FlattenedPath fp = getMeasuredPath(flatness);
+    return fp.getPointAt(fp.getLength() * relative);
+  }
+
+  /**
+   * Returns the direction of the path at a relative point on the path,
+   * as an angle in radians, or NaN if the path has no direction.
+   *
+   * @param relative a value between 0 and 1.
+   */
+  public double getAngleOnPath(double relative, double flatness) {
+    if (size() < 2) {
+      return Double.NaN;
+    }
+    FlattenedPath fp = getMeasuredPath(flatness);
+    return fp.getAngleAt(fp.getLength() * Math.max(0, Math.min(1, relative)));
+  }
+
+  /**
+   * Returns the relative position of the point on the path, which is
+   * nearest to the specified point. Where 0 is the start point of the path
+   * and 1 is the end point of the path.
+   */
+  public double getRelativePositionOnPath(Point2D.Double p, double flatness) {
+    if (size() < 2) {
+      return 0;
+    }
+    FlattenedPath fp = getMeasuredPath(flatness);
+    double len = fp.getLength();
+    return (len == 0) ? 0 : fp.getDistanceOfNearestPoint(p.x, p.y) / len;
+  }
+
+  /**
+   * Returns the point on the path, which is nearest to the specified
+   * point, or null if the path is empty.
+   */
+  public Point2D.Double getNearestPointOnPath(Point2D.Double p, double flatness) {
+    if (size() < 2) {
+      return (size() == 0) ? null : get(0).getControlPoint(0);
     }
-    throw new InternalError("We should never get here");
+    FlattenedPath fp = getMeasuredPath(flatness);
+    return fp.getPointAt(fp.getDistanceOfNearestPoint(p.x, p.y));
   }
 
   /**
@@ -672,46 +782,10 @@ public class BezierPath extends ArrayList<BezierPath.Node> implements Shape {
    * @return the index of the segment or -1 if no segment was hit.
    */
   public int findSegment(Point2D.Double find, float tolerance) {
-    // XXX - This works only for straight lines!
-    Node v1, v2;
-    BezierPath tempPath = new BezierPath();
-    Node t1, t2;
-    tempPath.add(t1 = new Node());
-    tempPath.add(t2 = new Node());
-
-    for (int i = 0, n = size() - 1; i < n; i++) {
-      v1 = get(i);
-      v2 = get(i + 1);
-      if (v1.mask == 0 && v2.mask == 0) {
-        if (Geom.lineContainsPoint(v1.x[0], v1.y[0], v2.x[0], v2.y[0], find.x, find.y, tolerance)) {
-          return i;
-        }
-      } else {
-        t1.setTo(v1);
-        t2.setTo(v2);
-        tempPath.invalidatePath();
-        if (tempPath.outlineContains(find, tolerance)) {
-          return i;
-        }
-      }
+    if (size() < 2) {
+      return -1;
     }
-    if (isClosed && size() > 1) {
-      v1 = get(size() - 1);
-      v2 = get(0);
-      if (v1.mask == 0 && v2.mask == 0) {
-        if (Geom.lineContainsPoint(v1.x[0], v1.y[0], v2.x[0], v2.y[0], find.x, find.y, tolerance)) {
-          return size() - 1;
-        }
-      } else {
-        t1.setTo(v1);
-        t2.setTo(v2);
-        tempPath.invalidatePath();
-        if (tempPath.outlineContains(find, tolerance)) {
-          return size() - 1;
-        }
-      }
-    }
-    return -1;
+    return getFlattenedPath(tolerance).findSegment(find.x, find.y, tolerance);
   }
 
   /**
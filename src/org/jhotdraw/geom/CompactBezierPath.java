@@ -0,0 +1,614 @@
+/*
+ * @(#)CompactBezierPath.java  1.0  2026-10-17
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.geom;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bezier path, which keeps the coordinates of all its nodes in a single
+ * array.
+ * <p>
+ * The nodes have the same control points C0, C1 and C2 as the nodes of a
+ * {@link BezierPath}. The coordinates of node i are stored at index i * 6
+ * in the sequence x0, y0, x1, y1, x2, y2, and its mask is stored in a
+ * byte array. A path with ten thousand nodes therefore consists of two
+ * arrays instead of thirty thousand objects.
+ * <p>
+ * The path may consist of several subpaths, each of which may be closed.
+ * A PathIterator reads the arrays directly, without converting the path
+ * into a GeneralPath. Nodes can be read and written as
+ * {@link BezierPath.Node} objects for editing.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-17 Created.
+ */
+public class CompactBezierPath implements Shape, Cloneable {
+  /**
+   * The node starts a subpath.
+   */
+  private static final int START_MASK = 4;
+  /**
+   * The subpath, which starts with the node, is closed.
+   */
+  private static final int CLOSED_MASK = 8;
+  /**
+   * The node does not keep its control points colinear.
+   */
+  private static final int NOT_COLINEAR_MASK = 16;
+
+  /**
+   * The coordinates x0, y0, x1, y1, x2, y2 of each node.
+   */
+  private double[] coords;
+  /**
+   * The mask of each node, combined with the flags above.
+   */
+  private byte[] masks;
+  private int size;
+  /**
+   * The index of the first node of the last subpath.
+   */
+  private int lastStart = -1;
+  private int windingRule = PathIterator.WIND_EVEN_ODD;
+
+  /**
+   * We cache the bounds to speed up hit tests.
+   */
+  private transient Rectangle2D.Double bounds;
+  /**
+   * We cache the most recently flattened path to speed up hit tests.
+   */
+  private transient FlattenedPath flattenedPath;
+
+  /**
+   * Creates a new instance.
+   */
+  public CompactBezierPath() {
+    this(8);
+  }
+
+  /**
+   * Creates a new instance with room for the specified number of nodes.
+   */
+  public CompactBezierPath(int initialCapacity) {
+    coords = new double[Math.max(1, initialCapacity) * 6];
+    masks = new byte[Math.max(1, initialCapacity)];
+  }
+
+  /**
+   * Creates a new instance with the nodes of the specified bezier path.
+   */
+  public CompactBezierPath(BezierPath path) {
+    this(path.size());
+    append(path);
+  }
+
+  /**
+   * Returns the number of nodes.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of subpaths.
+   */
+  public int getSubpathCount() {
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if ((masks[i] & START_MASK) != 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public int getWindingRule() {
+    return windingRule;
+  }
+
+  /**
+   * Sets the winding rule.
+   *
+   * @param rule PathIterator.WIND_EVEN_ODD or PathIterator.WIND_NON_ZERO.
+   */
+  public void setWindingRule(int rule) {
+    if (rule != PathIterator.WIND_EVEN_ODD && rule != PathIterator.WIND_NON_ZERO) {
+      throw new IllegalArgumentException("winding rule must be WIND_EVEN_ODD or WIND_NON_ZERO");
+    }
+    windingRule = rule;
+  }
+
+  /**
+   * Returns the x coordinate of a control point of a node.
+   */
+  public double getX(int index, int coordinate) {
+    return coords[index * 6 + coordinate * 2];
+  }
+
+  /**
+   * Returns the y coordinate of a control point of a node.
+   */
+  public double getY(int index, int coordinate) {
+    return coords[index * 6 + coordinate * 2 + 1];
+  }
+
+  /**
+   * Returns the mask of a node, which describes which control points in
+   * addition to C0 are in effect.
+   */
+  public int getMask(int index) {
+    return masks[index] & BezierPath.C1C2_MASK;
+  }
+
+  /**
+   * Returns a copy of a node.
+   */
+  public BezierPath.Node getNode(int index) {
+    return getNode(index, new BezierPath.Node());
+  }
+
+  /**
+   * Stores a node into the specified node.
+   *
+   * @return The specified node.
+   */
+  public BezierPath.Node getNode(int index, BezierPath.Node node) {
+    int j = index * 6;
+    for (int i = 0; i < 3; i++) {
+      node.x[i] = coords[j + i * 2];
+      node.y[i] = coords[j + i * 2 + 1];
+    }
+    node.mask = masks[index] & BezierPath.C1C2_MASK;
+    node.keepColinear = (masks[index] & NOT_COLINEAR_MASK) == 0;
+    return node;
+  }
+
+  /**
+   * Sets the control points and the mask of a node.
+   */
+  public void setNode(int index, BezierPath.Node node) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    int j = index * 6;
+    for (int i = 0; i < 3; i++) {
+      coords[j + i * 2] = node.x[i];
+      coords[j + i * 2 + 1] = node.y[i];
+    }
+    masks[index] = (byte) toMask(node, masks[index] & (START_MASK | CLOSED_MASK));
+    invalidate();
+  }
+
+  /**
+   * Adds a node to the last subpath. Starts a subpath, if the path is
+   * empty.
+   */
+  public void addNode(BezierPath.Node node) {
+    int j = allocateNode(toMask(node, (size == 0) ? START_MASK : 0));
+    for (int i = 0; i < 3; i++) {
+      coords[j + i * 2] = node.x[i];
+      coords[j + i * 2 + 1] = node.y[i];
+    }
+  }
+
+  private static int toMask(BezierPath.Node node, int flags) {
+    return (node.mask & BezierPath.C1C2_MASK) | flags | (node.keepColinear ? 0 : NOT_COLINEAR_MASK);
+  }
+
+  /**
+   * Appends a node with the specified mask and returns the index of its
+   * coordinates.
+   */
+  private int allocateNode(int mask) {
+    if (size == masks.length) {
+      int capacity = size * 2;
+      double[] grownCoords = new double[capacity * 6];
+      System.arraycopy(coords, 0, grownCoords, 0, size * 6);
+      coords = grownCoords;
+      byte[] grownMasks = new byte[capacity];
+      System.arraycopy(masks, 0, grownMasks, 0, size);
+      masks = grownMasks;
+    }
+    if ((mask & START_MASK) != 0) {
+      lastStart = size;
+    }
+    masks[size] = (byte) mask;
+    invalidate();
+    return size++ * 6;
+  }
+
+  private void setCoords(int j, double x0, double y0, double x1, double y1, double x2, double y2) {
+    coords[j] = x0;
+    coords[j + 1] = y0;
+    coords[j + 2] = x1;
+    coords[j + 3] = y1;
+    coords[j + 4] = x2;
+    coords[j + 5] = y2;
+  }
+
+  /**
+   * Starts a new subpath at the specified point.
+   */
+  public void moveTo(double x1, double y1) {
+    setCoords(allocateNode(START_MASK), x1, y1, x1, y1, x1, y1);
+  }
+
+  public void lineTo(double x1, double y1) {
+    if (size == 0) {
+      throw new IllegalPathStateException("lineTo only allowed when not empty");
+    }
+    setCoords(allocateNode(0), x1, y1, x1, y1, x1, y1);
+  }
+
+  public void quadTo(double x1, double y1, double x2, double y2) {
+    if (size == 0) {
+      throw new IllegalPathStateException("quadTo only allowed when not empty");
+    }
+    setCoords(allocateNode(BezierPath.C1_MASK), x2, y2, x1, y1, x2, y2);
+  }
+
+  public void curveTo(double x1, double y1, double x2, double y2, double x3, double y3) {
+    if (size == 0) {
+      throw new IllegalPathStateException("curveTo only allowed when not empty");
+    }
+    int last = size - 1;
+    masks[last] |= BezierPath.C2_MASK;
+    coords[last * 6 + 4] = x1;
+    coords[last * 6 + 5] = y1;
+    setCoords(allocateNode(BezierPath.C1_MASK), x3, y3, x2, y2, x3, y3);
+  }
+
+  /**
+   * Closes the last subpath.
+   */
+  public void closePath() {
+    if (size == 0) {
+      throw new IllegalPathStateException("closePath only allowed when not empty");
+    }
+    masks[lastStart] |= CLOSED_MASK;
+    invalidate();
+  }
+
+  /**
+   * Appends the nodes of the specified bezier path as a new subpath.
+   */
+  public void append(BezierPath path) {
+    for (int i = 0, n = path.size(); i < n; i++) {
+      BezierPath.Node node = path.get(i);
+      int j = allocateNode(toMask(node, (i == 0) ? START_MASK : 0));
+      setCoords(j, node.x[0], node.y[0], node.x[1], node.y[1], node.x[2], node.y[2]);
+    }
+    if (path.size() > 0 && path.isClosed()) {
+      closePath();
+    }
+  }
+
+  /**
+   * Converts each subpath into a bezier path.
+   */
+  public List<BezierPath> toBezierPaths() {
+    ArrayList<BezierPath> paths = new ArrayList<>();
+    BezierPath path = null;
+    for (int i = 0; i < size; i++) {
+      if ((masks[i] & START_MASK) != 0) {
+        path = new BezierPath();
+        path.setClosed((masks[i] & CLOSED_MASK) != 0);
+        paths.add(path);
+      }
+      path.add(getNode(i));
+    }
+    return paths;
+  }
+
+  /**
+   * Removes all nodes.
+   */
+  public void clear() {
+    size = 0;
+    lastStart = -1;
+    invalidate();
+  }
+
+  /**
+   * Transforms all control points.
+   */
+  public void transform(AffineTransform tx) {
+    tx.transform(coords, 0, coords, 0, size * 3);
+    invalidate();
+  }
+
+  private void invalidate() {
+    bounds = null;
+    flattenedPath = null;
+  }
+
+  /**
+   * Returns the path flattened with the specified flatness.
+   * The flattened path is cached until the path is changed, or until it is
+   * flattened with a different flatness.
+   */
+  public FlattenedPath getFlattenedPath(double flatness) {
+    FlattenedPath fp = flattenedPath;
+    if (fp == null || fp.getFlatness() != flatness) {
+      fp = new FlattenedPath(this, flatness);
+      flattenedPath = fp;
+    }
+    return fp;
+  }
+
+  /**
+   * Returns true, if the outline of this path contains the specified point.
+   *
+   * @param tolerance The tolerance for the test.
+   */
+  public boolean outlineContains(Point2D.Double p, double tolerance) {
+    return getFlattenedPath(tolerance).outlineContains(p.x, p.y, tolerance);
+  }
+
+  /**
+   * Stores the bounds of the control points, which are in effect, into
+   * the specified rectangle.
+   *
+   * @return The specified rectangle.
+   */
+  public Rectangle2D.Double getBounds2D(Rectangle2D.Double r) {
+    if (bounds == null) {
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      double[] c = new double[6];
+      for (PathIterator i = new SegmentIterator(null); !i.isDone(); i.next()) {
+        int type = i.currentSegment(c);
+        int n = (type == PathIterator.SEG_CUBICTO) ? 6 : (type == PathIterator.SEG_QUADTO) ? 4 : (type == PathIterator.SEG_CLOSE) ? 0 : 2;
+        for (int k = 0; k < n; k += 2) {
+          minX = Math.min(minX, c[k]);
+          minY = Math.min(minY, c[k + 1]);
+          maxX = Math.max(maxX, c[k]);
+          maxY = Math.max(maxY, c[k + 1]);
+        }
+      }
+      bounds = (size == 0) ?
+          new Rectangle2D.Double() :
+          new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+    r.setRect(bounds);
+    return r;
+  }
+
+  public Rectangle2D getBounds2D() {
+    return getBounds2D(new Rectangle2D.Double());
+  }
+
+  public Rectangle getBounds() {
+    return getBounds2D().getBounds();
+  }
+
+  public boolean contains(double x, double y) {
+    if (bounds == null) {
+      getBounds2D(new Rectangle2D.Double());
+    }
+    Rectangle2D.Double b = bounds;
+    if (x < b.x || y < b.y || x > b.x + b.width || y > b.y + b.height) {
+      return false;
+    }
+    return Path2D.contains(new SegmentIterator(null), x, y);
+  }
+
+  public boolean contains(Point2D p) {
+    return contains(p.getX(), p.getY());
+  }
+
+  public boolean intersects(double x, double y, double w, double h) {
+    return Path2D.intersects(new SegmentIterator(null), x, y, w, h);
+  }
+
+  public boolean intersects(Rectangle2D r) {
+    return intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+  }
+
+  public boolean contains(double x, double y, double w, double h) {
+    return Path2D.contains(new SegmentIterator(null), x, y, w, h);
+  }
+
+  public boolean contains(Rectangle2D r) {
+    return contains(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+  }
+
+  public PathIterator getPathIterator(AffineTransform at) {
+    return new SegmentIterator(at);
+  }
+
+  public PathIterator getPathIterator(AffineTransform at, double flatness) {
+    return new FlatteningPathIterator(new SegmentIterator(at), flatness);
+  }
+
+  /**
+   * Creates a deep copy of the path.
+   */
+  public CompactBezierPath clone() {
+    try {
+      CompactBezierPath that = (CompactBezierPath) super.clone();
+      that.coords = this.coords.clone();
+      that.masks = this.masks.clone();
+      return that;
+    } catch (CloneNotSupportedException e) {
+      throw new InternalError(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Iterates over the segments of the path.
+   * <p>
+   * A subpath with a single node yields a line of length 1 downwards, so
+   * that it can be drawn and hit. A closed subpath yields a segment from
+   * its last node to its first node, before it is closed.
+   */
+  private class SegmentIterator implements PathIterator {
+    private static final int MOVE = 0;
+    private static final int SEGMENT = 1;
+    private static final int POINT = 2;
+    private static final int CLOSING_SEGMENT = 3;
+    private static final int CLOSE = 4;
+
+    private final AffineTransform at;
+    private final double[] buf = new double[6];
+    /**
+     * The first node of the current subpath.
+     */
+    private int start;
+    /**
+     * The index after the last node of the current subpath.
+     */
+    private int end;
+    /**
+     * The node at the end of the current segment.
+     */
+    private int index;
+    private int state;
+
+    public SegmentIterator(AffineTransform at) {
+      this.at = at;
+      startSubpath(0);
+    }
+
+    private void startSubpath(int first) {
+      start = first;
+      end = first + 1;
+      while (end < size && (masks[end] & START_MASK) == 0) {
+        end++;
+      }
+      state = MOVE;
+    }
+
+    public int getWindingRule() {
+      return windingRule;
+    }
+
+    public boolean isDone() {
+      return start >= size;
+    }
+
+    public void next() {
+      switch (state) {
+        case MOVE:
+          if (end - start == 1) {
+            state = POINT;
+          } else {
+            index = start + 1;
+            state = SEGMENT;
+          }
+          break;
+        case SEGMENT:
+          if (++index == end) {
+            if ((masks[start] & CLOSED_MASK) != 0) {
+              state = CLOSING_SEGMENT;
+            } else {
+              startSubpath(end);
+            }
+          }
+          break;
+        case CLOSING_SEGMENT:
+          state = CLOSE;
+          break;
+        default:
+          startSubpath(end);
+          break;
+      }
+    }
+
+    public int currentSegment(float[] coords) {
+      int type = currentSegment(buf);
+      for (int i = 0; i < 6; i++) {
+        coords[i] = (float) buf[i];
+      }
+      return type;
+    }
+
+    public int currentSegment(double[] c) {
+      int type;
+      int n;
+      switch (state) {
+        case MOVE:
+          c[0] = coords[start * 6];
+          c[1] = coords[start * 6 + 1];
+          type = SEG_MOVETO;
+          n = 1;
+          break;
+        case POINT:
+          c[0] = coords[start * 6];
+          c[1] = coords[start * 6 + 1] + 1;
+          type = SEG_LINETO;
+          n = 1;
+          break;
+        case SEGMENT:
+          type = segment(index - 1, index, c);
+          n = (type == SEG_CUBICTO) ? 3 : (type == SEG_QUADTO) ? 2 : 1;
+          break;
+        case CLOSING_SEGMENT:
+          type = segment(end - 1, start, c);
+          n = (type == SEG_CUBICTO) ? 3 : (type == SEG_QUADTO) ? 2 : 1;
+          break;
+        default:
+          return SEG_CLOSE;
+      }
+      if (at != null) {
+        at.transform(c, 0, c, 0, n);
+      }
+      return type;
+    }
+
+    /**
+     * Stores the segment from node prev to node next.
+     */
+    private int segment(int prev, int next, double[] c) {
+      int p = prev * 6;
+      int q = next * 6;
+      if ((masks[prev] & BezierPath.C2_MASK) == 0) {
+        if ((masks[next] & BezierPath.C1_MASK) == 0) {
+          c[0] = coords[q];
+          c[1] = coords[q + 1];
+          return SEG_LINETO;
+        } else {
+          c[0] = coords[q + 2];
+          c[1] = coords[q + 3];
+          c[2] = coords[q];
+          c[3] = coords[q + 1];
+          return SEG_QUADTO;
+        }
+      } else {
+        if ((masks[next] & BezierPath.C1_MASK) == 0) {
+          c[0] = coords[p + 4];
+          c[1] = coords[p + 5];
+          c[2] = coords[q];
+          c[3] = coords[q + 1];
+          return SEG_QUADTO;
+        } else {
+          c[0] = coords[p + 4];
+          c[1] = coords[p + 5];
+          c[2] = coords[q + 2];
+          c[3] = coords[q + 3];
+          c[4] = coords[q];
+          c[5] = coords[q + 1];
+          return SEG_CUBICTO;
+        }
+      }
+    }
+  }
+}
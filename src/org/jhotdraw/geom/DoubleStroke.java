@@ -1,5 +1,5 @@
 /*
- * @(#)DoubleStroke.java  1.0  2006-06-18
+ * @(#)DoubleStroke.java  2.0  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -15,21 +15,38 @@
 package org.jhotdraw.geom;
 
 import java.awt.*;
-import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
-import java.awt.geom.Point2D;
+import java.util.Arrays;
 
 /**
  * Draws a double stroke (an outline of an outline).
  * The inner width of a DoubleStroke defines the distance between the two
  * outlines being drawn. The outline width of a DoubleStroke defines the
  * thickness of the outline.
+ * <p>
+ * The outlines are offset curves of the shape. Straight segments are offset
+ * by straight segments, and curved segments by cubic curves, which are
+ * subdivided until they are within {@link #OFFSET_TOLERANCE} of the exact
+ * offset. The shape is not flattened.
  *
  * @author Werner Randelshofer
- * @version 1.0 2006-06-18 Fixed bugs.
+ * @version 2.0 2026-10-18 Offset curved segments by cubic curves instead
+ * of flattening the shape.
+ * <br>1.0 2006-06-18 Fixed bugs.
  * <br>1.0 21. March 2006 Created.
  */
 public class DoubleStroke implements Stroke {
+  /**
+   * The maximal distance between an offset curve and the exact offset of
+   * a curved segment.
+   */
+  public static final double OFFSET_TOLERANCE = 0.01;
+  /**
+   * The maximal number of times a curved segment is subdivided.
+   */
+  private static final int MAX_SUBDIVISION_DEPTH = 10;
+
   private BasicStroke outlineStroke;
 
   private float innerWidth;
@@ -51,197 +68,473 @@ public class DoubleStroke implements Stroke {
   }
 
   public Shape createStrokedShape(Shape s) {
-    BezierPath bp = new BezierPath();
-    GeneralPath left = new GeneralPath();
-    GeneralPath right = new GeneralPath();
+    Path2D.Double left = new Path2D.Double();
+    Path2D.Double right = new Path2D.Double();
+    traceStroke(s, left, right);
 
-    double[] coordinates = new double[6];
-    // FIXME - We only do a flattened path
-    for (PathIterator i = s.getPathIterator(null, 0.1d); !i.isDone(); i.next()) {
-      int type = i.currentSegment(coordinates);
+    // Note: This could be extended to use different stroke objects for
+    // the inner and the outer path.
+    right.append(left, false);
+    return outlineStroke.createStrokedShape(right);
+  }
 
-      switch (type) {
+  /**
+   * Appends the offset curves of the subpaths of the specified shape, at
+   * half of the inner width on either side, to the left and to the right
+   * path.
+   */
+  protected void traceStroke(Shape s, Path2D.Double left, Path2D.Double right) {
+    Segments segments = new Segments();
+    OffsetPath offset = new OffsetPath();
+    double[] coordinates = new double[6];
+    for (PathIterator i = s.getPathIterator(null); !i.isDone(); i.next()) {
+      switch (i.currentSegment(coordinates)) {
         case PathIterator.SEG_MOVETO:
-          if (bp.size() != 0) {
-            traceStroke(bp, left, right);
-          }
-          bp.clear();
-          bp.setClosed(false);
-          bp.moveTo(coordinates[0], coordinates[1]);
+          traceSubpath(segments, offset, left, right);
+          segments.moveTo(coordinates[0], coordinates[1]);
           break;
         case PathIterator.SEG_LINETO:
-          if (coordinates[0] != bp.get(bp.size() - 1).x[0] || coordinates[1] != bp.get(bp.size() - 1).y[0]) {
-            bp.lineTo(coordinates[0], coordinates[1]);
-          }
+          segments.lineTo(coordinates[0], coordinates[1]);
           break;
         case PathIterator.SEG_QUADTO:
-          bp.quadTo(coordinates[0], coordinates[1], coordinates[2], coordinates[3]);
+          segments.quadTo(coordinates[0], coordinates[1], coordinates[2], coordinates[3]);
           break;
         case PathIterator.SEG_CUBICTO:
-          bp.curveTo(coordinates[0], coordinates[1], coordinates[2], coordinates[3], coordinates[4], coordinates[5]);
+          segments.curveTo(coordinates[0], coordinates[1], coordinates[2], coordinates[3], coordinates[4], coordinates[5]);
           break;
         case PathIterator.SEG_CLOSE:
-          bp.setClosed(true);
+          segments.closePath();
+          traceSubpath(segments, offset, left, right);
           break;
       }
     }
-    if (bp.size() != 0) {
-      traceStroke(bp, left, right);
-    }
-
-    // Note: This could be extended to use different stroke objects for
-    // the inner and the outer path.
-    right.append(left, false);
-    return outlineStroke.createStrokedShape(right);
-
+    traceSubpath(segments, offset, left, right);
   }
 
-  protected void traceStroke(BezierPath bp, GeneralPath left, GeneralPath right) {
-    // XXX - We only support straight line segments here
-    // Corners of the current and the previous thick line
-    double[] currentCorners = new double[8];
-    double[] prevCorners = new double[8];
-
-    Point2D.Double intersect;
+  /**
+   * Appends the offset curves of the collected subpath to the left and to
+   * the right path, and clears the collected subpath.
+   */
+  private void traceSubpath(Segments segments, OffsetPath offset, Path2D.Double left, Path2D.Double right) {
+    if (segments.size != 0) {
+      traceOffset(segments, innerWidth / 2d, offset);
+      offset.appendTo(right);
+      traceOffset(segments, -innerWidth / 2d, offset);
+      offset.appendTo(left);
+    }
+    segments.clear();
+  }
 
-    // Remove duplicate nodes from bezier path.
-    if (bp.isClosed()) {
-      BezierPath.Node prev = bp.get(bp.size() - 1);
-      for (int i = 0; i < bp.size(); i++) {
-        BezierPath.Node node = bp.get(i);
-        if (prev.x[0] == node.x[0] && prev.y[0] == node.y[0]) {
-          bp.remove(i--);
+  /**
+   * Traces the offset curve of a subpath at the specified distance.
+   * Positive distances are on the side of the subpath, to which the
+   * y-axis is turned from the x-axis.
+   */
+  private void traceOffset(Segments segments, double d, OffsetPath offset) {
+    offset.clear();
+    double[] c = segments.coords;
+    for (int i = 0; i < segments.size; i++) {
+      int k = i * 8;
+      if (i == 0) {
+        offset.moveTo(c[k] + d * -segments.tangents[i * 4 + 1], c[k + 1] + d * segments.tangents[i * 4]);
+      } else {
+        traceJoin(segments, i - 1, i, d, offset);
+      }
+      if (segments.isLine[i]) {
+        double[] t = segments.tangents;
+        offset.lineTo(c[k + 6] + d * -t[i * 4 + 3], c[k + 7] + d * t[i * 4 + 2]);
+      } else {
+        traceCubic(c[k], c[k + 1], c[k + 2], c[k + 3], c[k + 4], c[k + 5], c[k + 6], c[k + 7], d, offset, 0);
+      }
+    }
+    if (segments.isClosed) {
+      traceJoin(segments, segments.size - 1, 0, d, offset);
+      offset.closePath();
+    }
+  }
 
-        } else {
-          prev = node;
+  /**
+   * Joins the offset of the segment with index prev to the offset of the
+   * segment with index next at distance d.
+   * <p>
+   * On the outer side of a corner, the offsets are extended until they
+   * meet, if the miter is not longer than the miter limit. Otherwise they
+   * are connected by a bevel. On the inner side of a corner between two
+   * straight segments, the offsets are cut off where they cross.
+   */
+  private void traceJoin(Segments segments, int prev, int next, double d, OffsetPath offset) {
+    double[] t = segments.tangents;
+    double tax = t[prev * 4 + 2];
+    double tay = t[prev * 4 + 3];
+    double tbx = t[next * 4];
+    double tby = t[next * 4 + 1];
+    double ax = offset.getLastX();
+    double ay = offset.getLastY();
+    double bx = segments.coords[next * 8] - d * tby;
+    double by = segments.coords[next * 8 + 1] + d * tbx;
+    if (Geom.length2(ax, ay, bx, by) < 1e-18) {
+      return;
+    }
+    double cross = tax * tby - tay * tbx;
+    if (Math.abs(cross) < 1e-12) {
+      // The path turns back on itself
+      offset.lineTo(bx, by);
+      return;
+    }
+    // The offsets meet at a + s * ta = b + u * tb
+    double s = ((bx - ax) * tby - (by - ay) * tbx) / cross;
+    double u = ((bx - ax) * tay - (by - ay) * tax) / cross;
+    if (s >= 0) {
+      if (s <= miterLimit) {
+        offset.lineTo(ax + s * tax, ay + s * tay);
+        if (segments.isLine[next]) {
+          // The offset of the next segment continues from the miter
+          return;
         }
       }
+      offset.lineTo(bx, by);
+    } else if (segments.isLine[prev] && segments.isLine[next] &&
+        -s <= offset.getLastLineLength() &&
+        u <= Geom.length(segments.coords[next * 8], segments.coords[next * 8 + 1],
+            segments.coords[next * 8 + 6], segments.coords[next * 8 + 7])) {
+      offset.setLastPoint(ax + s * tax, ay + s * tay);
+      if (next == 0) {
+        offset.setFirstPoint(ax + s * tax, ay + s * tay);
+      }
     } else {
-      BezierPath.Node prev = bp.get(0);
-      for (int i = 1; i < bp.size(); i++) {
-        BezierPath.Node node = bp.get(i);
-        if (prev.x[0] == node.x[0] && prev.y[0] == node.y[0]) {
-          bp.remove(i--);
-
-        } else {
-          prev = node;
-        }
+      offset.lineTo(bx, by);
+    }
+  }
+
+  /**
+   * Traces the offset of a cubic curve at distance d. The offset is
+   * approximated by a cubic curve with the same tangents at its end
+   * points, whose control points are scaled by the change of the
+   * curvature. The curve is subdivided, if the approximation is not
+   * within the tolerance.
+   */
+  private void traceCubic(double x0, double y0, double x1, double y1, double x2, double y2, double x3, double y3,
+                          double d, OffsetPath offset, int depth) {
+    // Tangents at the end points
+    double t0x = x1 - x0;
+    double t0y = y1 - y0;
+    if (t0x == 0 && t0y == 0) {
+      t0x = x2 - x0;
+      t0y = y2 - y0;
+      if (t0x == 0 && t0y == 0) {
+        t0x = x3 - x0;
+        t0y = y3 - y0;
+      }
+    }
+    double t3x = x3 - x2;
+    double t3y = y3 - y2;
+    if (t3x == 0 && t3y == 0) {
+      t3x = x3 - x1;
+      t3y = y3 - y1;
+      if (t3x == 0 && t3y == 0) {
+        t3x = x3 - x0;
+        t3y = y3 - y0;
       }
     }
+    double len0 = Math.sqrt(t0x * t0x + t0y * t0y);
+    double len3 = Math.sqrt(t3x * t3x + t3y * t3y);
+    if (len0 == 0 || len3 == 0) {
+      return;
+    }
 
-    // Handle the first point of the bezier path
-    if (bp.isClosed() && bp.size() > 1) {
-      prevCorners = computeThickLine(bp.get(bp.size() - 1).x[0], bp.get(bp.size() - 1).y[0], bp.get(0).x[0], bp.get(0).y[0], innerWidth, prevCorners);
-      currentCorners = computeThickLine(bp.get(0).x[0], bp.get(0).y[0], bp.get(1).x[0], bp.get(1).y[0], innerWidth, currentCorners);
+    // End points of the offset
+    double q0x = x0 - d * t0y / len0;
+    double q0y = y0 + d * t0x / len0;
+    double q3x = x3 - d * t3y / len3;
+    double q3y = y3 + d * t3x / len3;
+
+    // The speed of the offset differs from the speed of the curve by the
+    // factor 1 - d * curvature.
+    double f0 = 1 - d * curvature(x1 - x0, y1 - y0, x2 - 2 * x1 + x0, y2 - 2 * y1 + y0);
+    double f3 = 1 - d * curvature(x3 - x2, y3 - y2, x3 - 2 * x2 + x1, y3 - 2 * y2 + y1);
+    double q1x = q0x + (x1 - x0) * f0;
+    double q1y = q0y + (y1 - y0) * f0;
+    double q2x = q3x + (x2 - x3) * f3;
+    double q2y = q3y + (y2 - y3) * f3;
+
+    if (depth < MAX_SUBDIVISION_DEPTH &&
+        (f0 < 0 || f3 < 0 ||
+            offsetError(x0, y0, x1, y1, x2, y2, x3, y3, q0x, q0y, q1x, q1y, q2x, q2y, q3x, q3y, d) > OFFSET_TOLERANCE)) {
+      // Subdivide the curve at t = 0.5
+      double x01 = (x0 + x1) / 2;
+      double y01 = (y0 + y1) / 2;
+      double x12 = (x1 + x2) / 2;
+      double y12 = (y1 + y2) / 2;
+      double x23 = (x2 + x3) / 2;
+      double y23 = (y2 + y3) / 2;
+      double x012 = (x01 + x12) / 2;
+      double y012 = (y01 + y12) / 2;
+      double x123 = (x12 + x23) / 2;
+      double y123 = (y12 + y23) / 2;
+      double xm = (x012 + x123) / 2;
+      double ym = (y012 + y123) / 2;
+      traceCubic(x0, y0, x01, y01, x012, y012, xm, ym, d, offset, depth + 1);
+      traceCubic(xm, ym, x123, y123, x23, y23, x3, y3, d, offset, depth + 1);
+    } else {
+      offset.curveTo(q1x, q1y, q2x, q2y, q3x, q3y);
+    }
+  }
 
-      intersect = Geom.intersect(prevCorners[0], prevCorners[1], prevCorners[4], prevCorners[5], currentCorners[0], currentCorners[1], currentCorners[4], currentCorners[5], miterLimit);
+  /**
+   * Returns the signed curvature of a cubic curve at an end point, from
+   * the difference to the adjacent control point and from the second
+   * difference of the control points.
+   */
+  private static double curvature(double dx, double dy, double ddx, double ddy) {
+    double len2 = dx * dx + dy * dy;
+    if (len2 == 0) {
+      return 0;
+    }
+    // B' = 3 * d, B'' = 6 * dd, curvature = (B' x B'') / |B'|^3
+    return 2 * (dx * ddy - dy * ddx) / (3 * len2 * Math.sqrt(len2));
+  }
 
-      if (intersect != null) {
-        right.moveTo((float) intersect.x, (float) intersect.y);
-      } else {
-        right.moveTo((float) prevCorners[4], (float) prevCorners[5]);
-        right.lineTo((float) currentCorners[0], (float) currentCorners[1]);
+  /**
+   * Returns the largest distance between the offset curve q and the exact
+   * offset of the curve p at distance d, at three points of the curves.
+   */
+  private static double offsetError(double x0, double y0, double x1, double y1, double x2, double y2, double x3, double y3,
+                                    double q0x, double q0y, double q1x, double q1y, double q2x, double q2y, double q3x, double q3y,
+                                    double d) {
+    double error = 0;
+    for (int i = 1; i < 4; i++) {
+      double t = i / 4d;
+      double v = 1 - t;
+      double b0 = v * v * v;
+      double b1 = 3 * v * v * t;
+      double b2 = 3 * v * t * t;
+      double b3 = t * t * t;
+      // Derivative of the curve
+      double dx = v * v * (x1 - x0) + 2 * v * t * (x2 - x1) + t * t * (x3 - x2);
+      double dy = v * v * (y1 - y0) + 2 * v * t * (y2 - y1) + t * t * (y3 - y2);
+      double len = Math.sqrt(dx * dx + dy * dy);
+      if (len == 0) {
+        continue;
       }
+      double px = b0 * x0 + b1 * x1 + b2 * x2 + b3 * x3 - d * dy / len;
+      double py = b0 * y0 + b1 * y1 + b2 * y2 + b3 * y3 + d * dx / len;
+      double qx = b0 * q0x + b1 * q1x + b2 * q2x + b3 * q3x;
+      double qy = b0 * q0y + b1 * q1y + b2 * q2y + b3 * q3y;
+      error = Math.max(error, Geom.length(px, py, qx, qy));
+    }
+    return error;
+  }
 
-      intersect = Geom.intersect(prevCorners[2], prevCorners[3], prevCorners[6], prevCorners[7], currentCorners[2], currentCorners[3], currentCorners[6], currentCorners[7], miterLimit);
-      if (intersect != null) {
-        left.moveTo((float) intersect.x, (float) intersect.y);
-      } else {
-        left.moveTo((float) prevCorners[6], (float) prevCorners[7]);
-        left.lineTo((float) currentCorners[2], (float) currentCorners[3]);
-      }
-    } else {
-      if (bp.size() > 1) {
-        currentCorners = computeThickLine(bp.get(0).x[0], bp.get(0).y[0], bp.get(1).x[0], bp.get(1).y[0], innerWidth, currentCorners);
-        right.moveTo((float) currentCorners[0], (float) currentCorners[1]);
-        left.moveTo((float) currentCorners[2], (float) currentCorners[3]);
+  /**
+   * The segments of a subpath. Each segment is stored as a cubic curve,
+   * together with the unit tangents at its end points. Segments of zero
+   * length are dropped.
+   */
+  private static class Segments {
+    /**
+     * x0, y0, x1, y1, x2, y2, x3, y3 of each segment.
+     */
+    private double[] coords = new double[8 * 8];
+    /**
+     * The tangent at the start and at the end of each segment.
+     */
+    private double[] tangents = new double[8 * 4];
+    private boolean[] isLine = new boolean[8];
+    private int size;
+    private boolean isClosed;
+    private double moveToX;
+    private double moveToY;
+    private double lastX;
+    private double lastY;
+
+    public void clear() {
+      size = 0;
+      isClosed = false;
+    }
+
+    public void moveTo(double x, double y) {
+      moveToX = lastX = x;
+      moveToY = lastY = y;
+    }
+
+    public void lineTo(double x, double y) {
+      if (x != lastX || y != lastY) {
+        add(true, lastX + (x - lastX) / 3, lastY + (y - lastY) / 3, x - (x - lastX) / 3, y - (y - lastY) / 3, x, y);
       }
     }
 
-    // Handle points in the middle of the bezier path
-    for (int i = 1, n = bp.size() - 1; i < n; i++) {
-      double[] tmp = prevCorners;
-      prevCorners = currentCorners;
-      currentCorners = computeThickLine(bp.get(i).x[0], bp.get(i).y[0], bp.get(i + 1).x[0], bp.get(i + 1).y[0], innerWidth, tmp);
-      intersect = Geom.intersect(prevCorners[0], prevCorners[1], prevCorners[4], prevCorners[5], currentCorners[0], currentCorners[1], currentCorners[4], currentCorners[5], miterLimit);
-      if (intersect != null) {
-        right.lineTo((float) intersect.x, (float) intersect.y);
-      } else {
-        right.lineTo((float) prevCorners[4], (float) prevCorners[5]);
-        right.lineTo((float) currentCorners[0], (float) currentCorners[1]);
+    public void quadTo(double x1, double y1, double x2, double y2) {
+      add(false, lastX + (x1 - lastX) * 2 / 3, lastY + (y1 - lastY) * 2 / 3,
+          x2 + (x1 - x2) * 2 / 3, y2 + (y1 - y2) * 2 / 3, x2, y2);
+    }
+
+    public void curveTo(double x1, double y1, double x2, double y2, double x3, double y3) {
+      add(false, x1, y1, x2, y2, x3, y3);
+    }
+
+    public void closePath() {
+      lineTo(moveToX, moveToY);
+      isClosed = size > 0;
+    }
+
+    private void add(boolean isLine, double x1, double y1, double x2, double y2, double x3, double y3) {
+      double x0 = lastX;
+      double y0 = lastY;
+      // Tangents
+      double t0x = x1 - x0;
+      double t0y = y1 - y0;
+      if (t0x == 0 && t0y == 0) {
+        t0x = x2 - x0;
+        t0y = y2 - y0;
+        if (t0x == 0 && t0y == 0) {
+          t0x = x3 - x0;
+          t0y = y3 - y0;
+        }
+      }
+      double t3x = x3 - x2;
+      double t3y = y3 - y2;
+      if (t3x == 0 && t3y == 0) {
+        t3x = x3 - x1;
+        t3y = y3 - y1;
+        if (t3x == 0 && t3y == 0) {
+          t3x = x3 - x0;
+          t3y = y3 - y0;
+        }
+      }
+      double len0 = Math.sqrt(t0x * t0x + t0y * t0y);
+      double len3 = Math.sqrt(t3x * t3x + t3y * t3y);
+      if (len0 == 0 || len3 == 0) {
+        return;
       }
 
-      intersect = Geom.intersect(prevCorners[2], prevCorners[3], prevCorners[6], prevCorners[7], currentCorners[2], currentCorners[3], currentCorners[6], currentCorners[7], miterLimit);
-      if (intersect != null) {
-        left.lineTo((float) intersect.x, (float) intersect.y);
-      } else {
-        left.lineTo((float) prevCorners[6], (float) prevCorners[7]);
-        left.lineTo((float) currentCorners[2], (float) currentCorners[3]);
+      if (size == this.isLine.length) {
+        coords = Arrays.copyOf(coords, size * 16);
+        tangents = Arrays.copyOf(tangents, size * 8);
+        this.isLine = Arrays.copyOf(this.isLine, size * 2);
       }
+      int k = size * 8;
+      coords[k] = x0;
+      coords[k + 1] = y0;
+      coords[k + 2] = x1;
+      coords[k + 3] = y1;
+      coords[k + 4] = x2;
+      coords[k + 5] = y2;
+      coords[k + 6] = x3;
+      coords[k + 7] = y3;
+      k = size * 4;
+      tangents[k] = t0x / len0;
+      tangents[k + 1] = t0y / len0;
+      tangents[k + 2] = t3x / len3;
+      tangents[k + 3] = t3y / len3;
+      this.isLine[size] = isLine;
+      size++;
+      lastX = x3;
+      lastY = y3;
     }
+  }
 
-    // Handle the last point of the bezier path
-    if (bp.isClosed()) {
-      double[] tmp = prevCorners;
-      prevCorners = currentCorners;
-      currentCorners = computeThickLine(bp.get(bp.size() - 1).x[0], bp.get(bp.size() - 1).y[0], bp.get(0).x[0], bp.get(0).y[0],
-              //bp.get(1).x[0], bp.get(1).y[0],
-              innerWidth, tmp);
-      intersect = Geom.intersect(prevCorners[0], prevCorners[1], prevCorners[4], prevCorners[5], currentCorners[0], currentCorners[1], currentCorners[4], currentCorners[5], miterLimit);
-      if (intersect != null) {
-        right.lineTo((float) intersect.x, (float) intersect.y);
-      } else {
-        right.lineTo((float) prevCorners[4], (float) prevCorners[5]);
-        right.lineTo((float) currentCorners[0], (float) currentCorners[1]);
-      }
+  /**
+   * An offset curve under construction. Unlike a Path2D, it allows to move
+   * its first and its last point, which is needed to cut off the offsets
+   * at inner corners.
+   */
+  private static class OffsetPath {
+    private int[] types = new int[16];
+    /**
+     * The coordinates of each segment. The end point of a segment is at
+     * offset 4 and 5.
+     */
+    private double[] coords = new double[16 * 6];
+    private int size;
+
+    public void clear() {
+      size = 0;
+    }
 
-      intersect = Geom.intersect(prevCorners[2], prevCorners[3], prevCorners[6], prevCorners[7], currentCorners[2], currentCorners[3], currentCorners[6], currentCorners[7], miterLimit);
-      if (intersect != null) {
-        left.lineTo((float) intersect.x, (float) intersect.y);
-      } else {
-        left.lineTo((float) prevCorners[6], (float) prevCorners[7]);
-        left.lineTo((float) currentCorners[2], (float) currentCorners[3]);
+    public void moveTo(double x, double y) {
+      int k = add(PathIterator.SEG_MOVETO);
+      coords[k + 4] = x;
+      coords[k + 5] = y;
+    }
+
+    public void lineTo(double x, double y) {
+      int k = add(PathIterator.SEG_LINETO);
+      coords[k + 4] = x;
+      coords[k + 5] = y;
+    }
+
+    public void curveTo(double x1, double y1, double x2, double y2, double x3, double y3) {
+      int k = add(PathIterator.SEG_CUBICTO);
+      coords[k] = x1;
+      coords[k + 1] = y1;
+      coords[k + 2] = x2;
+      coords[k + 3] = y2;
+      coords[k + 4] = x3;
+      coords[k + 5] = y3;
+    }
+
+    public void closePath() {
+      add(PathIterator.SEG_CLOSE);
+    }
+
+    private int add(int type) {
+      if (size == types.length) {
+        types = Arrays.copyOf(types, size * 2);
+        coords = Arrays.copyOf(coords, size * 12);
       }
+      types[size] = type;
+      return 6 * size++;
+    }
 
-      right.closePath();
-      left.closePath();
+    public double getLastX() {
+      return coords[6 * (size - 1) + 4];
+    }
 
-    } else {
-      right.lineTo((float) currentCorners[4], (float) currentCorners[5]);
-      left.lineTo((float) currentCorners[6], (float) currentCorners[7]);
+    public double getLastY() {
+      return coords[6 * (size - 1) + 5];
     }
-  }
 
-  private double[] computeThickLine(double[] seg, int offset, double[] corners) {
-    return computeThickLine(seg[offset], seg[1 + offset], seg[2 + offset], seg[3 + offset], innerWidth, corners);
-  }
+    /**
+     * Returns the length of the last segment, if it is a straight line,
+     * or 0.
+     */
+    public double getLastLineLength() {
+      if (size < 2 || types[size - 1] != PathIterator.SEG_LINETO) {
+        return 0;
+      }
+      int k = 6 * (size - 1);
+      return Geom.length(coords[k - 2], coords[k - 1], coords[k + 4], coords[k + 5]);
+    }
+
+    public void setLastPoint(double x, double y) {
+      coords[6 * (size - 1) + 4] = x;
+      coords[6 * (size - 1) + 5] = y;
+    }
 
-  private double[] computeThickLine(double x1, double y1, double x2, double y2, double thickness, double[] corners) {
-    double dx = x2 - x1;
-    double dy = y2 - y1;
-
-    // line length
-    double lineLength = Math.sqrt(dx * dx + dy * dy);
-
-    double scale = thickness / (2d * lineLength);
-
-    // The x and y increments from an endpoint needed to create a rectangle...
-    double ddx = -scale * dy;
-    double ddy = scale * dx;
-        /*
-        ddx += (ddx > 0) ? 0.5 : -0.5;
-        ddy += (ddy > 0) ? 0.5 : -0.5;
-         */
-    // Now we can compute the corner points...
-    corners[0] = x1 + ddx;
-    corners[1] = y1 + ddy;
-    corners[2] = x1 - ddx;
-    corners[3] = y1 - ddy;
-    corners[4] = x2 + ddx;
-    corners[5] = y2 + ddy;
-    corners[6] = x2 - ddx;
-    corners[7] = y2 - ddy;
-
-    return corners;
+    public void setFirstPoint(double x, double y) {
+      coords[4] = x;
+      coords[5] = y;
+    }
+
+    public void appendTo(Path2D.Double path) {
+      double[] c = coords;
+      for (int i = 0; i < size; i++) {
+        int k = 6 * i;
+        switch (types[i]) {
+          case PathIterator.SEG_MOVETO:
+            path.moveTo(c[k + 4], c[k + 5]);
+            break;
+          case PathIterator.SEG_LINETO:
+            path.lineTo(c[k + 4], c[k + 5]);
+            break;
+          case PathIterator.SEG_CUBICTO:
+            path.curveTo(c[k], c[k + 1], c[k + 2], c[k + 3], c[k + 4], c[k + 5]);
+            break;
+          case PathIterator.SEG_CLOSE:
+            path.closePath();
+            break;
+        }
+      }
+    }
   }
 }
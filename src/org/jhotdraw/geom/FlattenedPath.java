@@ -0,0 +1,402 @@
+/*
+ * @(#)FlattenedPath.java  1.1.1  2026-10-18
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.geom;
+
+import java.awt.*;
+import java.awt.geom.CubicCurve2D;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.QuadCurve2D;
+
+/**
+ * The outline of a shape, which has been flattened into straight lines.
+ * <p>
+ * Each line remembers the index of the segment of the shape, which it
+ * approximates. The segments are numbered in the order of the path
+ * iterator of the shape, without counting SEG_MOVETO and SEG_CLOSE.
+ * <p>
+ * Consecutive lines of a path lie close to each other. The lines are
+ * therefore indexed by a balanced tree of bounding boxes over runs of
+ * consecutive lines, which is built in linear time. A hit test only
+ * visits the runs whose bounding boxes are near the point, so that it
+ * takes logarithmic time for long paths.
+ * <p>
+ * Points along the path are found by a binary search in a table of the
+ * cumulative lengths of the lines, which is built on first use.
+ * A flattened path is immutable.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1.1 2026-10-18 Points along the path skip lines of zero
+ * length.
+ * <br>1.1 2026-10-17 Arc length table added.
+ * <br>1.0 2026-10-17 Created.
+ */
+public class FlattenedPath {
+  /**
+   * The maximal number of lines in a leaf of the tree.
+   */
+  private static final int LEAF_SIZE = 8;
+  /**
+   * The maximal number of subdivisions of a curve.
+   * This is the default of FlatteningPathIterator.
+   */
+  private static final int LIMIT = 10;
+
+  private final double flatness;
+  /**
+   * The lines in the sequence x1, y1, x2, y2.
+   */
+  private double[] lines = new double[64];
+  /**
+   * The index of the segment of the shape, which each line approximates.
+   */
+  private int[] segments = new int[16];
+  private int lineCount;
+  /**
+   * The bounding boxes of the nodes of the tree in the sequence minX,
+   * minY, maxX, maxY. The root is node 0, the children of node i are the
+   * nodes 2i+1 and 2i+2. A node covers a run of lines, which is split in
+   * halves for its children, until a run has at most LEAF_SIZE lines.
+   */
+  private double[] tree;
+  /**
+   * The length of the path from its start to the start of each line, and
+   * the total length of the path as the last element. Built when needed.
+   */
+  private double[] distances;
+
+  /**
+   * Flattens the outline of the specified shape.
+   *
+   * @param shape    The shape.
+   * @param flatness The maximal distance of the lines from the curves.
+   */
+  public FlattenedPath(Shape shape, double flatness) {
+    this.flatness = flatness;
+    PathIterator i = shape.getPathIterator(null);
+    double[] coords = new double[6];
+    double[] curve = new double[6];
+    double prevX = 0;
+    double prevY = 0;
+    int segment = 0;
+    for (; !i.isDone(); i.next()) {
+      switch (i.currentSegment(coords)) {
+        case PathIterator.SEG_MOVETO:
+          prevX = coords[0];
+          prevY = coords[1];
+          break;
+        case PathIterator.SEG_LINETO:
+          addLine(prevX, prevY, coords[0], coords[1], segment++);
+          prevX = coords[0];
+          prevY = coords[1];
+          break;
+        case PathIterator.SEG_QUADTO:
+          addCurve(new QuadCurve2D.Double(prevX, prevY, coords[0], coords[1], coords[2], coords[3]), curve, segment++);
+          prevX = coords[2];
+          prevY = coords[3];
+          break;
+        case PathIterator.SEG_CUBICTO:
+          addCurve(new CubicCurve2D.Double(prevX, prevY, coords[0], coords[1], coords[2], coords[3], coords[4], coords[5]), curve, segment++);
+          prevX = coords[4];
+          prevY = coords[5];
+          break;
+        default:
+          // SEG_CLOSE: The shapes of JHotDraw close their paths explicitly.
+          break;
+      }
+    }
+    int nodeCount = 1;
+    for (int n = lineCount; n > LEAF_SIZE; n = (n + 1) / 2) {
+      nodeCount = nodeCount * 2 + 1;
+    }
+    tree = new double[nodeCount * 4];
+    if (lineCount > 0) {
+      buildTree(0, 0, lineCount);
+    }
+  }
+
+  private void addCurve(Shape curve, double[] coords, int segment) {
+    PathIterator i = new FlatteningPathIterator(curve.getPathIterator(null), flatness, LIMIT);
+    i.currentSegment(coords);
+    double prevX = coords[0];
+    double prevY = coords[1];
+    for (i.next(); !i.isDone(); i.next()) {
+      i.currentSegment(coords);
+      addLine(prevX, prevY, coords[0], coords[1], segment);
+      prevX = coords[0];
+      prevY = coords[1];
+    }
+  }
+
+  private void addLine(double x1, double y1, double x2, double y2, int segment) {
+    if (segments.length == lineCount) {
+      int[] grownSegments = new int[lineCount * 2];
+      System.arraycopy(segments, 0, grownSegments, 0, lineCount);
+      segments = grownSegments;
+      double[] grownLines = new double[lineCount * 8];
+      System.arraycopy(lines, 0, grownLines, 0, lineCount * 4);
+      lines = grownLines;
+    }
+    int j = lineCount * 4;
+    lines[j] = x1;
+    lines[j + 1] = y1;
+    lines[j + 2] = x2;
+    lines[j + 3] = y2;
+    segments[lineCount++] = segment;
+  }
+
+  /**
+   * Computes the bounding box of the specified node, which covers the
+   * lines from index lo to index hi - 1.
+   */
+  private void buildTree(int node, int lo, int hi) {
+    int b = node * 4;
+    if (hi - lo <= LEAF_SIZE) {
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      for (int j = lo * 4, end = hi * 4; j < end; j += 2) {
+        minX = Math.min(minX, lines[j]);
+        minY = Math.min(minY, lines[j + 1]);
+        maxX = Math.max(maxX, lines[j]);
+        maxY = Math.max(maxY, lines[j + 1]);
+      }
+      tree[b] = minX;
+      tree[b + 1] = minY;
+      tree[b + 2] = maxX;
+      tree[b + 3] = maxY;
+    } else {
+      int mid = (lo + hi) >>> 1;
+      int left = node * 2 + 1;
+      int right = left + 1;
+      buildTree(left, lo, mid);
+      buildTree(right, mid, hi);
+      tree[b] = Math.min(tree[left * 4], tree[right * 4]);
+      tree[b + 1] = Math.min(tree[left * 4 + 1], tree[right * 4 + 1]);
+      tree[b + 2] = Math.max(tree[left * 4 + 2], tree[right * 4 + 2]);
+      tree[b + 3] = Math.max(tree[left * 4 + 3], tree[right * 4 + 3]);
+    }
+  }
+
+  /**
+   * Returns the flatness, with which the shape has been flattened.
+   */
+  public double getFlatness() {
+    return flatness;
+  }
+
+  /**
+   * Returns the number of lines.
+   */
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Returns the index of the first segment of the shape, whose outline
+   * contains the specified point, or -1 if no segment contains the point.
+   *
+   * @param tolerance The tolerance for the test.
+   * @see Geom#lineContainsPoint(double, double, double, double, double, double, double)
+   */
+  public int findSegment(double px, double py, double tolerance) {
+    if (lineCount == 0) {
+      return -1;
+    }
+    // Geom.lineContainsPoint rejects all points outside of this margin
+    double margin = Math.max(2, (int) Math.ceil(tolerance));
+    int line = findLine(0, 0, lineCount, px, py, tolerance, margin);
+    return (line == -1) ? -1 : segments[line];
+  }
+
+  /**
+   * Returns true, if the outline of the shape contains the specified point.
+   *
+   * @param tolerance The tolerance for the test.
+   */
+  public boolean outlineContains(double px, double py, double tolerance) {
+    return findSegment(px, py, tolerance) != -1;
+  }
+
+  private int findLine(int node, int lo, int hi, double px, double py, double tolerance, double margin) {
+    int b = node * 4;
+    if (px < tree[b] - margin || py < tree[b + 1] - margin ||
+        px > tree[b + 2] + margin || py > tree[b + 3] + margin) {
+      return -1;
+    }
+    if (hi - lo <= LEAF_SIZE) {
+      for (int k = lo; k < hi; k++) {
+        int j = k * 4;
+        if (Geom.lineContainsPoint(lines[j], lines[j + 1], lines[j + 2], lines[j + 3], px, py, tolerance)) {
+          return k;
+        }
+      }
+      return -1;
+    }
+    int mid = (lo + hi) >>> 1;
+    int line = findLine(node * 2 + 1, lo, mid, px, py, tolerance, margin);
+    return (line != -1) ? line : findLine(node * 2 + 2, mid, hi, px, py, tolerance, margin);
+  }
+
+  private double[] getDistances() {
+    if (distances == null) {
+      double[] d = new double[lineCount + 1];
+      double len = 0;
+      for (int k = 0, j = 0; k < lineCount; k++, j += 4) {
+        len += Geom.length(lines[j], lines[j + 1], lines[j + 2], lines[j + 3]);
+        d[k + 1] = len;
+      }
+      distances = d;
+    }
+    return distances;
+  }
+
+  /**
+   * Returns the length of the path.
+   */
+  public double getLength() {
+    return getDistances()[lineCount];
+  }
+
+  /**
+   * Returns the index of the first line of nonzero length, which ends at
+   * or behind the specified distance from the start of the path, or the
+   * index of the last line if there is no such line.
+   */
+  private int indexOfLine(double distance) {
+    double[] d = getDistances();
+    int low = 0;
+    int high = lineCount - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (d[mid + 1] >= distance) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    // Skip lines of zero length
+    while (low < lineCount - 1 && d[low + 1] == d[low]) {
+      low++;
+    }
+    return low;
+  }
+
+  /**
+   * Returns the point at the specified distance from the start of the
+   * path, or null if the path has no lines.
+   */
+  public Point2D.Double getPointAt(double distance) {
+    if (lineCount == 0) {
+      return null;
+    }
+    int k = indexOfLine(distance);
+    int j = k * 4;
+    double x1 = lines[j];
+    double y1 = lines[j + 1];
+    double x2 = lines[j + 2];
+    double y2 = lines[j + 3];
+    double pos = getDistances()[k];
+    double lineLength = Geom.length(x1, y1, x2, y2);
+    if (lineLength == 0) {
+      return new Point2D.Double(x1, y1);
+    }
+    if (pos + lineLength < distance) {
+      return new Point2D.Double(x2, y2);
+    }
+    double factor = (distance - pos) / lineLength;
+    return new Point2D.Double(x1 * (1 - factor) + x2 * factor, y1 * (1 - factor) + y2 * factor);
+  }
+
+  /**
+   * Returns the direction of the path at the specified distance from the
+   * start of the path, as an angle in radians, or NaN if the path has no
+   * lines of nonzero length.
+   */
+  public double getAngleAt(double distance) {
+    if (lineCount == 0) {
+      return Double.NaN;
+    }
+    int k = indexOfLine(distance);
+    // Skip lines of zero length, first forwards, then backwards
+    for (int i = k; i < lineCount; i++) {
+      int j = i * 4;
+      if (lines[j] != lines[j + 2] || lines[j + 1] != lines[j + 3]) {
+        return Math.atan2(lines[j + 3] - lines[j + 1], lines[j + 2] - lines[j]);
+      }
+    }
+    for (int i = k - 1; i >= 0; i--) {
+      int j = i * 4;
+      if (lines[j] != lines[j + 2] || lines[j + 1] != lines[j + 3]) {
+        return Math.atan2(lines[j + 3] - lines[j + 1], lines[j + 2] - lines[j]);
+      }
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * Returns the distance from the start of the path to the point on the
+   * path, which is nearest to the specified point, or -1 if the path has
+   * no lines.
+   */
+  public double getDistanceOfNearestPoint(double px, double py) {
+    if (lineCount == 0) {
+      return -1;
+    }
+    double[] best = {Double.POSITIVE_INFINITY, 0};
+    findNearest(0, 0, lineCount, px, py, best);
+    return best[1];
+  }
+
+  /**
+   * Searches the lines of a node for a point nearer than best[0].
+   *
+   * @param best The squared distance to the nearest point found so far,
+   *             and the distance of that point from the start of the path.
+   */
+  private void findNearest(int node, int lo, int hi, double px, double py, double[] best) {
+    int b = node * 4;
+    double dx = Math.max(0, Math.max(tree[b] - px, px - tree[b + 2]));
+    double dy = Math.max(0, Math.max(tree[b + 1] - py, py - tree[b + 3]));
+    if (dx * dx + dy * dy >= best[0]) {
+      return;
+    }
+    if (hi - lo <= LEAF_SIZE) {
+      double[] d = getDistances();
+      for (int k = lo; k < hi; k++) {
+        int j = k * 4;
+        double x1 = lines[j];
+        double y1 = lines[j + 1];
+        double vx = lines[j + 2] - x1;
+        double vy = lines[j + 3] - y1;
+        double len2 = vx * vx + vy * vy;
+        double t = (len2 == 0) ? 0 : Math.max(0, Math.min(1, ((px - x1) * vx + (py - y1) * vy) / len2));
+        double ex = x1 + t * vx - px;
+        double ey = y1 + t * vy - py;
+        double dist2 = ex * ex + ey * ey;
+        if (dist2 < best[0]) {
+          best[0] = dist2;
+          best[1] = d[k] + t * (d[k + 1] - d[k]);
+        }
+      }
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    findNearest(node * 2 + 1, lo, mid, px, py, best);
+    findNearest(node * 2 + 2, mid, hi, px, py, best);
+  }
+}
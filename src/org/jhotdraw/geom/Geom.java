@@ -1,5 +1,5 @@
 /*
- * @(#)Geom.java  2.2  2006-07-04
+ * @(#)Geom.java  2.3  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -20,7 +20,9 @@ import java.awt.geom.*;
 /**
  * Some geometric utilities.
  *
- * @version 2.2 2006-07-04 Method grow(Rectangle2D.Double) added.
+ * @version 2.3 2026-10-18 Analytic intersection of rays with lines, bezier
+ * curves and ellipses added. Method chop intersects the unflattened shape.
+ * <br>2.2 2006-07-04 Method grow(Rectangle2D.Double) added.
  * <br>2.1 2006-01-20 Support for double precision coordinates enhanced.
  */
 public class Geom {
@@ -225,78 +227,69 @@ public class Geom {
     Rectangle2D bounds = shape.getBounds2D();
     Point2D.Double ctr = new Point2D.Double(bounds.getCenterX(), bounds.getCenterY());
 
-    // Chopped point
-    double cx = -1;
-    double cy = -1;
-    double len = Double.MAX_VALUE;
+    // The line from p (t = 0) to the center (t = 1)
+    double dx = ctr.x - p.x;
+    double dy = ctr.y - p.y;
+    double t = Double.POSITIVE_INFINITY;
 
     // Try for points along edge
-    PathIterator i = shape.getPathIterator(new AffineTransform(), 1);
+    PathIterator i = shape.getPathIterator(null);
     double[] coordinates = new double[6];
-    int type = i.currentSegment(coordinates);
-    double prevX = coordinates[0];
-    double prevY = coordinates[1];
-    double moveToX = prevX;
-    double moveToY = prevY;
-    i.next();
+    double prevX = 0;
+    double prevY = 0;
+    double moveToX = 0;
+    double moveToY = 0;
     for (; !i.isDone(); i.next()) {
+      double maxT = Math.min(t, 1);
       switch (i.currentSegment(coordinates)) {
         case PathIterator.SEG_MOVETO:
-          moveToX = coordinates[0];
-          moveToY = coordinates[1];
+          moveToX = prevX = coordinates[0];
+          moveToY = prevY = coordinates[1];
+          break;
+        case PathIterator.SEG_LINETO:
+          t = Math.min(t, intersectRayLine(p.x, p.y, dx, dy,
+              prevX, prevY, coordinates[0], coordinates[1], maxT));
+          prevX = coordinates[0];
+          prevY = coordinates[1];
+          break;
+        case PathIterator.SEG_QUADTO:
+          t = Math.min(t, intersectRayQuad(p.x, p.y, dx, dy,
+              prevX, prevY, coordinates[0], coordinates[1], coordinates[2], coordinates[3], maxT));
+          prevX = coordinates[2];
+          prevY = coordinates[3];
+          break;
+        case PathIterator.SEG_CUBICTO:
+          t = Math.min(t, intersectRayCubic(p.x, p.y, dx, dy,
+              prevX, prevY, coordinates[0], coordinates[1], coordinates[2], coordinates[3],
+              coordinates[4], coordinates[5], maxT));
+          prevX = coordinates[4];
+          prevY = coordinates[5];
           break;
         case PathIterator.SEG_CLOSE:
-          coordinates[0] = moveToX;
-          coordinates[1] = moveToY;
+          t = Math.min(t, intersectRayLine(p.x, p.y, dx, dy,
+              prevX, prevY, moveToX, moveToY, maxT));
+          prevX = moveToX;
+          prevY = moveToY;
           break;
       }
-      Point2D.Double chop = Geom.intersect(prevX, prevY, coordinates[0], coordinates[1], p.x, p.y, ctr.x, ctr.y);
-
-      if (chop != null) {
-        double cl = Geom.length2(chop.x, chop.y, p.x, p.y);
-        if (cl < len) {
-          len = cl;
-          cx = chop.x;
-          cy = chop.y;
-        }
-      }
-
-      prevX = coordinates[0];
-      prevY = coordinates[1];
     }
-        
-        /*
-        if (isClosed() && size() > 1) {
-            Node first = get(0);
-            Node last = get(size() - 1);
-            Point2D.Double chop = Geom.intersect(
-                    first.x[0], first.y[0],
-                    last.x[0], last.y[0],
-                    p.x, p.y,
-                    ctr.x, ctr.y
-                    );
-            if (chop != null) {
-                double cl = Geom.length2(chop.x, chop.y, p.x, p.y);
-                if (cl < len) {
-                    len = cl;
-                    cx = chop.x;
-                    cy = chop.y;
-                }
-            }
-        }*/
+    if (t != Double.POSITIVE_INFINITY) {
+      return new Point2D.Double(p.x + t * dx, p.y + t * dy);
+    }
 
     // if none found, pick the closest vertex
-    if (len == Double.MAX_VALUE) {
-      i = shape.getPathIterator(new AffineTransform(), 1);
-      for (; !i.isDone(); i.next()) {
-        i.currentSegment(coordinates);
-
-        double l = Geom.length2(ctr.x, ctr.y, coordinates[0], coordinates[1]);
-        if (l < len) {
-          len = l;
-          cx = coordinates[0];
-          cy = coordinates[1];
-        }
+    double cx = -1;
+    double cy = -1;
+    double len = Double.MAX_VALUE;
+    i = shape.getPathIterator(new AffineTransform(), 1);
+    for (; !i.isDone(); i.next()) {
+      i.currentSegment(coordinates);
+
+      double l = Geom.length2(ctr.x, ctr.y, coordinates[0], coordinates[1]);
+      if (l < len) {
+        len = l;
+        cx = coordinates[0];
+        cy = coordinates[1];
       }
     }
     return new Point2D.Double(cx, cy);
@@ -678,6 +671,307 @@ public class Geom {
     }
   }
 
+  /**
+   * Returns the smallest parameter t in the range [0, maxT], at which the
+   * ray (ox + t * dx, oy + t * dy) crosses the line segment from (x0, y0)
+   * to (x1, y1). Returns Double.POSITIVE_INFINITY if there is no such t.
+   */
+  public static double intersectRayLine(double ox, double oy, double dx, double dy,
+                                        double x0, double y0, double x1, double y1,
+                                        double maxT) {
+    double len2 = dx * dx + dy * dy;
+    if (len2 == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double ex = x1 - x0;
+    double ey = y1 - y0;
+    double denominator = dx * ey - dy * ex;
+    if (denominator == 0) { // parallel
+      if ((x0 - ox) * dy - (y0 - oy) * dx != 0) {
+        return Double.POSITIVE_INFINITY;
+      }
+      // coincident; pick the nearest point of the overlap
+      double t0 = ((x0 - ox) * dx + (y0 - oy) * dy) / len2;
+      double t1 = ((x1 - ox) * dx + (y1 - oy) * dy) / len2;
+      return rayParameter(Math.max(0, Math.min(t0, t1)), Math.max(t0, t1), maxT);
+    }
+    double s = ((x0 - ox) * dy - (y0 - oy) * dx) / denominator;
+    if (s < 0 || s > 1) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double t = ((x0 - ox) * ey - (y0 - oy) * ex) / denominator;
+    return rayParameter(t, t, maxT);
+  }
+
+  /**
+   * Returns the smallest parameter t in the range [0, maxT], at which the
+   * ray (ox + t * dx, oy + t * dy) crosses the quadratic bezier curve with
+   * the control points (x0, y0), (x1, y1) and (x2, y2).
+   * Returns Double.POSITIVE_INFINITY if there is no such t.
+   */
+  public static double intersectRayQuad(double ox, double oy, double dx, double dy,
+                                        double x0, double y0, double x1, double y1,
+                                        double x2, double y2, double maxT) {
+    // A quadratic curve is a cubic curve with the control points at two
+    // thirds of the way to the middle control point.
+    return intersectRayCubic(ox, oy, dx, dy,
+        x0, y0,
+        x0 + (x1 - x0) * 2 / 3, y0 + (y1 - y0) * 2 / 3,
+        x2 + (x1 - x2) * 2 / 3, y2 + (y1 - y2) * 2 / 3,
+        x2, y2, maxT);
+  }
+
+  /**
+   * Returns the smallest parameter t in the range [0, maxT], at which the
+   * ray (ox + t * dx, oy + t * dy) crosses the cubic bezier curve with
+   * the control points (x0, y0), (x1, y1), (x2, y2) and (x3, y3).
+   * Returns Double.POSITIVE_INFINITY if there is no such t.
+   * <p>
+   * The curve is tested against the bounding box of its control points in
+   * the coordinate system of the ray first. The crossings are then found by
+   * solving the cubic equation of the distance of the curve from the ray.
+   */
+  public static double intersectRayCubic(double ox, double oy, double dx, double dy,
+                                         double x0, double y0, double x1, double y1,
+                                         double x2, double y2, double x3, double y3,
+                                         double maxT) {
+    double len2 = dx * dx + dy * dy;
+    if (len2 == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    // The positions of the control points along the ray. The curve lies
+    // within their range.
+    double p0 = (x0 - ox) * dx + (y0 - oy) * dy;
+    double p1 = (x1 - ox) * dx + (y1 - oy) * dy;
+    double p2 = (x2 - ox) * dx + (y2 - oy) * dy;
+    double p3 = (x3 - ox) * dx + (y3 - oy) * dy;
+    if (Math.max(Math.max(p0, p1), Math.max(p2, p3)) < 0 ||
+        Math.min(Math.min(p0, p1), Math.min(p2, p3)) > maxT * len2) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    // The signed distances of the control points from the ray. The curve
+    // can only cross the ray, if they are not all on the same side.
+    double d0 = (x0 - ox) * dy - (y0 - oy) * dx;
+    double d1 = (x1 - ox) * dy - (y1 - oy) * dx;
+    double d2 = (x2 - ox) * dy - (y2 - oy) * dx;
+    double d3 = (x3 - ox) * dy - (y3 - oy) * dx;
+    if (d0 > 0 && d1 > 0 && d2 > 0 && d3 > 0 ||
+        d0 < 0 && d1 < 0 && d2 < 0 && d3 < 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    if (d0 == 0 && d1 == 0 && d2 == 0 && d3 == 0) {
+      // coincident; pick the nearest point of the overlap
+      return rayParameter(Math.max(0, Math.min(p0, p3) / len2), Math.max(p0, p3) / len2, maxT);
+    }
+
+    // The distance of the curve from the ray in power basis:
+    // d(u) = ((a3 * u + a2) * u + a1) * u + a0
+    double a3 = -d0 + 3 * d1 - 3 * d2 + d3;
+    double a2 = 3 * d0 - 6 * d1 + 3 * d2;
+    double a1 = 3 * (d1 - d0);
+    double a0 = d0;
+
+    // Split the curve at the extrema of the distance, so that the distance
+    // is monotonic in each part, and each part crosses the ray at most once.
+    double e1 = 1;
+    double e2 = 1;
+    if (a3 != 0) {
+      double discriminant = a2 * a2 - 3 * a3 * a1;
+      if (discriminant > 0) {
+        double q = -(a2 + Math.copySign(Math.sqrt(discriminant), a2));
+        e1 = q / (3 * a3);
+        e2 = (q == 0) ? e1 : a1 / q;
+      }
+    } else if (a2 != 0) {
+      e1 = -a1 / (2 * a2);
+    }
+    e1 = (e1 > 0 && e1 < 1) ? e1 : 1;
+    e2 = (e2 > 0 && e2 < 1) ? e2 : 1;
+    if (e2 < e1) {
+      double swap = e1;
+      e1 = e2;
+      e2 = swap;
+    }
+
+    double t = Double.POSITIVE_INFINITY;
+    double lo = 0;
+    double dlo = a0;
+    for (int part = 0; part < 3; part++) {
+      double hi = (part == 0) ? e1 : (part == 1) ? e2 : 1;
+      if (hi <= lo) {
+        continue;
+      }
+      double dhi = ((a3 * hi + a2) * hi + a1) * hi + a0;
+      double u;
+      if (dlo == 0) {
+        u = lo;
+      } else if (dhi == 0) {
+        u = hi;
+      } else if ((dlo < 0) != (dhi < 0)) {
+        u = solveMonotonicCubic(a3, a2, a1, a0, lo, hi, dlo);
+      } else {
+        lo = hi;
+        dlo = dhi;
+        continue;
+      }
+      double v = 1 - u;
+      double b0 = v * v * v;
+      double b1 = 3 * v * v * u;
+      double b2 = 3 * v * u * u;
+      double b3 = u * u * u;
+      double px = b0 * x0 + b1 * x1 + b2 * x2 + b3 * x3;
+      double py = b0 * y0 + b1 * y1 + b2 * y2 + b3 * y3;
+      double pt = ((px - ox) * dx + (py - oy) * dy) / len2;
+      t = Math.min(t, rayParameter(pt, pt, maxT));
+      lo = hi;
+      dlo = dhi;
+    }
+    return t;
+  }
+
+  /**
+   * Returns the root of the cubic polynomial ((a3 * u + a2) * u + a1) * u + a0
+   * in the range [lo, hi], in which the polynomial is monotonic and changes
+   * its sign. Uses Newton steps, which are kept within the range by
+   * bisection.
+   *
+   * @param dlo The value of the polynomial at lo.
+   */
+  private static double solveMonotonicCubic(double a3, double a2, double a1, double a0,
+                                            double lo, double hi, double dlo) {
+    double u = (lo + hi) / 2;
+    for (int i = 0; i < 100; i++) {
+      double d = ((a3 * u + a2) * u + a1) * u + a0;
+      if (d == 0) {
+        return u;
+      }
+      if ((d < 0) == (dlo < 0)) {
+        lo = u;
+      } else {
+        hi = u;
+      }
+      double slope = (3 * a3 * u + 2 * a2) * u + a1;
+      double next = u - d / slope;
+      if (!(next > lo && next < hi)) {
+        next = (lo + hi) / 2;
+      }
+      if (next == u) {
+        break;
+      }
+      u = next;
+    }
+    return u;
+  }
+
+  /**
+   * Returns the smallest parameter t in the range [0, maxT], at which the
+   * ray (ox + t * dx, oy + t * dy) crosses the ellipse with the specified
+   * bounds. Returns Double.POSITIVE_INFINITY if there is no such t.
+   */
+  public static double intersectRayEllipse(double ox, double oy, double dx, double dy,
+                                           double x, double y, double w, double h,
+                                           double maxT) {
+    if (w <= 0 || h <= 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    // Solve the equation of the unit circle in the coordinate system of
+    // the ellipse.
+    double rx = w / 2;
+    double ry = h / 2;
+    double ux = (ox - x - rx) / rx;
+    double uy = (oy - y - ry) / ry;
+    double vx = dx / rx;
+    double vy = dy / ry;
+    double a = vx * vx + vy * vy;
+    double halfB = ux * vx + uy * vy;
+    double c = ux * ux + uy * uy - 1;
+    double discriminant = halfB * halfB - a * c;
+    if (a == 0 || discriminant < 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double q = -(halfB + Math.copySign(Math.sqrt(discriminant), halfB));
+    double t1 = (q == 0) ? 0 : q / a;
+    double t2 = (q == 0) ? 0 : c / q;
+    return rayParameter(Math.min(t1, t2), Math.max(t1, t2), maxT);
+  }
+
+  /**
+   * Returns the first of the two parameters, which is in the range
+   * [0, maxT], or Double.POSITIVE_INFINITY if none of them is.
+   */
+  private static double rayParameter(double t1, double t2, double maxT) {
+    if (t1 >= 0 && t1 <= maxT) {
+      return t1;
+    }
+    if (t2 >= 0 && t2 <= maxT) {
+      return t2;
+    }
+    return Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the point, at which the ray from the center of the specified
+   * rectangle through the specified point leaves the ellipse, which is
+   * inscribed in the rectangle.
+   */
+  public static Point2D.Double chopEllipse(Rectangle2D.Double r, Point2D.Double p) {
+    double cx = r.x + r.width / 2;
+    double cy = r.y + r.height / 2;
+    double dx = p.x - cx;
+    double dy = p.y - cy;
+    if (dx == 0 && dy == 0) {
+      dx = 1;
+    }
+    double t = intersectRayEllipse(cx, cy, dx, dy, r.x, r.y, r.width, r.height, Double.POSITIVE_INFINITY);
+    if (t == Double.POSITIVE_INFINITY) {
+      return new Point2D.Double(cx, cy);
+    }
+    return new Point2D.Double(cx + t * dx, cy + t * dy);
+  }
+
+  /**
+   * Returns the point, at which the ray from the center of the specified
+   * rectangle through the specified point leaves the rectangle with the
+   * specified rounded corners.
+   *
+   * @param arcWidth  The width of the arc that rounds off the corners.
+   * @param arcHeight The height of the arc that rounds off the corners.
+   */
+  public static Point2D.Double chopRoundRect(Rectangle2D.Double r, double arcWidth, double arcHeight, Point2D.Double p) {
+    double cx = r.x + r.width / 2;
+    double cy = r.y + r.height / 2;
+    double dx = p.x - cx;
+    double dy = p.y - cy;
+    if (dx == 0 && dy == 0) {
+      dx = 1;
+    }
+    // The point where the ray leaves the rectangle without the rounded
+    // corners.
+    double t = Math.min(
+        (dx == 0) ? Double.POSITIVE_INFINITY : r.width / 2 / Math.abs(dx),
+        (dy == 0) ? Double.POSITIVE_INFINITY : r.height / 2 / Math.abs(dy));
+    double x = cx + t * dx;
+    double y = cy + t * dy;
+
+    // If the point lies beyond the center of the arc of the corner, the
+    // ray leaves the rectangle through the arc. We find the arc by casting
+    // a ray back to the center.
+    double rx = Math.min(Math.abs(arcWidth), r.width) / 2;
+    double ry = Math.min(Math.abs(arcHeight), r.height) / 2;
+    double ax = (dx < 0) ? r.x + rx : r.x + r.width - rx;
+    double ay = (dy < 0) ? r.y + ry : r.y + r.height - ry;
+    if ((x - ax) * dx > 0 && (y - ay) * dy > 0) {
+      double s = intersectRayEllipse(x, y, -dx, -dy, ax - rx, ay - ry, rx * 2, ry * 2, t);
+      if (s != Double.POSITIVE_INFINITY) {
+        x -= s * dx;
+        y -= s * dy;
+      }
+    }
+    return new Point2D.Double(x, y);
+  }
+
   /**
    * compute distance of point from line segment, or
    * Double.MAX_VALUE if perpendicular projection is outside segment; or
@@ -1,5 +1,5 @@
 /*
- * @(#)GrowStroke.java  1.0  June 9, 2006
+ * @(#)GrowStroke.java  2.0  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -15,8 +15,7 @@
 package org.jhotdraw.geom;
 
 import java.awt.*;
-import java.awt.geom.GeneralPath;
-import java.awt.geom.PathIterator;
+import java.awt.geom.Path2D;
 
 /**
  * GrowStroke can be used to grow/shrink a figure by a specified line width.
@@ -26,7 +25,9 @@ import java.awt.geom.PathIterator;
  * shape, but one that can be used for filling.
  *
  * @author Werner Randelshofer.
- * @version 1.0 June 9, 2006, Created.
+ * @version 2.0 2026-10-18 Uses the offset curves of DoubleStroke instead
+ * of flattening the shape.
+ * <br>1.0 June 9, 2006, Created.
  */
 public class GrowStroke extends DoubleStroke {
   private float grow;
@@ -37,42 +38,9 @@ public class GrowStroke extends DoubleStroke {
   }
 
   public Shape createStrokedShape(Shape s) {
-    BezierPath bp = new BezierPath();
-    GeneralPath left = new GeneralPath();
-    GeneralPath right = new GeneralPath();
-
-    double[] coordinates = new double[6];
-    // FIXME - We only do a flattened path
-    for (PathIterator i = s.getPathIterator(null, 0.1d); !i.isDone(); i.next()) {
-      int type = i.currentSegment(coordinates);
-
-      switch (type) {
-        case PathIterator.SEG_MOVETO:
-          if (!bp.isEmpty()) {
-            traceStroke(bp, left, right);
-          }
-          bp.clear();
-          bp.moveTo(coordinates[0], coordinates[1]);
-          break;
-        case PathIterator.SEG_LINETO:
-          if (coordinates[0] != bp.get(bp.size() - 1).x[0] || coordinates[1] != bp.get(bp.size() - 1).y[0]) {
-            bp.lineTo(coordinates[0], coordinates[1]);
-          }
-          break;
-        case PathIterator.SEG_QUADTO:
-          bp.quadTo(coordinates[0], coordinates[1], coordinates[2], coordinates[3]);
-          break;
-        case PathIterator.SEG_CUBICTO:
-          bp.curveTo(coordinates[0], coordinates[1], coordinates[2], coordinates[3], coordinates[4], coordinates[5]);
-          break;
-        case PathIterator.SEG_CLOSE:
-          bp.setClosed(true);
-          break;
-      }
-    }
-    if (bp.size() > 1) {
-      traceStroke(bp, left, right);
-    }
+    Path2D.Double left = new Path2D.Double();
+    Path2D.Double right = new Path2D.Double();
+    traceStroke(s, left, right);
 
     if (left.getBounds2D().contains(right.getBounds2D())) {
       return (grow > 0) ? left : right;
@@ -81,4 +49,4 @@ public class GrowStroke extends DoubleStroke {
     }
   }
 
-}
\ No newline at end of file
+}
@@ -12,6 +12,7 @@
  * JHotDraw.org.
  */
 
+
 package org.jhotdraw.geom;
 
 import java.awt.geom.Point2D;
@@ -20,160 +21,660 @@ import java.util.*;
 
 /**
  * QuadTree2DDouble.
+ * <p>
+ * A growable quad tree does not keep objects outside of its root bounds
+ * in a separate list. Instead, it doubles the size of its root toward
+ * the object, until the object fits into the tree. The previous root
+ * becomes one of the quadrants of the new root.
+ * <p>
+ * Each node stores the bounds of its objects in a flat array of doubles,
+ * so that queries do not have to dereference a rectangle object for each
+ * candidate. The find methods which take a {@link Visitor} or a result
+ * collection do not allocate any memory; the find methods which return
+ * a collection are convenience wrappers around them.
+ * <p>
+ * The tree keeps a back-pointer from each object to the nodes which hold
+ * it. This allows to remove an object without searching the tree, and
+ * to move an object in place, if its new bounds stay inside of the
+ * same leaf node.
  *
  * @author Werner Randelshofer
- * @version 1.0 2006-01-14 Derived from class QuadTree.
+ * @version 1.4 2026-10-18 Method translate added. Moving an object to its
+ * current bounds does nothing.
+ * <br>1.3.2 2026-10-18 The find methods which take a result
+ * collection reuse a visitor.
+ * <br>1.3.1 2026-10-18 Objects with bounds which are not finite stay
+ * outside of the root.
+ * <br>1.3 2026-10-17 Added back-pointers and move operations.
+ * <br>1.2 2026-10-17 Added allocation-free queries and array based nodes.
+ * <br>1.1 2026-10-17 Added growable root.
+ * <br>1.0 2006-01-14 Derived from class QuadTree.
  */
-public class QuadTree2DDouble<T> {
-  private HashMap<T, Rectangle2D.Double> outside = new HashMap<>();
+public class QuadTree2DDouble<T> implements SpatialIndex2DDouble<T> {
+  /**
+   * Holds the objects which are outside of the root bounds.
+   * The bounds of this node are not used.
+   */
+  private QuadNode outside;
   private QuadNode root;
+  /**
+   * key = Object
+   * value = Item
+   */
+  private HashMap<T, Item> items = new HashMap<>();
   private int maxCapacity = 32;
   private int minSize = 32;
   private int maxOutside = 32;
+  /**
+   * The number of objects outside of the root bounds, at which the tree
+   * is reorganized. Objects with bounds which are not finite stay outside
+   * of the root bounds, therefore this is raised by their number.
+   */
+  private int outsideLimit = maxOutside;
+  private boolean growable;
+  /**
+   * Each query uses a new mark, so that objects which are stored in more
+   * than one node are visited only once.
+   */
+  private long mark;
+  /**
+   * We reuse this visitor for the find methods which take a result
+   * collection, so that they do not allocate memory.
+   */
+  private final Collector<T> collector = new Collector<>();
 
   /**
    * Creates a new instance.
    */
   public QuadTree2DDouble() {
-    root = new QuadNode(new Rectangle2D.Double(0, 0, 800, 600));
+    this(false);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param growable If this is true, the root of the tree grows toward
+   *                 objects which are outside of its bounds.
+   */
+  public QuadTree2DDouble(boolean growable) {
+    this(new Rectangle2D.Double(0, 0, 800, 600), growable);
   }
 
   public QuadTree2DDouble(Rectangle2D.Double bounds) {
+    this(bounds, false);
+  }
+
+  public QuadTree2DDouble(Rectangle2D.Double bounds, boolean growable) {
     root = new QuadNode(bounds);
+    outside = new QuadNode(null);
+    this.growable = growable;
   }
 
+  public boolean isGrowable() {
+    return growable;
+  }
+
+  /**
+   * Adds an object to the tree. If the tree already contains the object,
+   * its bounds are replaced.
+   */
   public void add(T o, Rectangle2D.Double bounds) {
-    if (root.bounds.contains(bounds)) {
-      root.add(o, (Rectangle2D.Double) bounds.clone());
+    Item item = items.get(o);
+    if (item == null) {
+      item = new Item(o);
+      items.put(o, item);
     } else {
-      outside.put(o, (Rectangle2D.Double) bounds.clone());
+      item.detach();
+    }
+    item.setBounds(bounds);
+    insert(item);
+  }
 
-      if (outside.size() > maxOutside) {
+  /**
+   * Inserts a detached item, starting at the root of the tree.
+   */
+  private void insert(Item item) {
+    Rectangle2D.Double bounds = item.getBounds();
+    if (growable && isFinite(bounds)) {
+      while (!encloses(root.bounds, bounds)) {
+        if (!growToward(bounds)) {
+          outside.put(item);
+          return;
+        }
+      }
+      root.add(item);
+    } else if (root.bounds.contains(bounds)) {
+      root.add(item);
+    } else {
+      outside.put(item);
+
+      if (outside.size > outsideLimit) {
         reorganize();
       }
     }
   }
 
+  /**
+   * Changes the bounds of an object. If the bounds are unchanged, nothing
+   * is done. If the new bounds stay inside of
+   * the leaf node which holds the object, the object is updated in place.
+   * Otherwise the object is reinserted, starting at the lowest node which
+   * encloses the new bounds.
+   * <p>
+   * If the tree does not contain the object, the object is added.
+   */
+  public void move(T o, Rectangle2D.Double bounds) {
+    Item item = items.get(o);
+    if (item == null) {
+      add(o, bounds);
+    } else if (!item.hasBounds(bounds) && !moveInPlace(item, bounds)) {
+      QuadNode start = item.nodeCount == 0 ? null : item.nodes[0];
+      item.detach();
+      item.setBounds(bounds);
+      reinsert(item, start);
+    }
+  }
+
+  /**
+   * Changes the bounds of many objects in one pass. All objects which
+   * can not be moved in place are detached first and then reinserted,
+   * so that they do not cause nodes to be split while other objects
+   * are still leaving them.
+   * <p>
+   * Objects which are not in the tree are added.
+   */
+  public void move(Map<T, Rectangle2D.Double> moves) {
+    ArrayList<Item> pending = new ArrayList<>();
+    ArrayList<QuadNode> starts = new ArrayList<>();
+    for (Map.Entry<T, Rectangle2D.Double> entry : moves.entrySet()) {
+      Item item = items.get(entry.getKey());
+      if (item == null) {
+        add(entry.getKey(), entry.getValue());
+      } else if (!item.hasBounds(entry.getValue()) && !moveInPlace(item, entry.getValue())) {
+        starts.add(item.nodeCount == 0 ? null : item.nodes[0]);
+        item.detach();
+        item.setBounds(entry.getValue());
+        pending.add(item);
+      }
+    }
+    for (int i = 0, n = pending.size(); i < n; i++) {
+      reinsert(pending.get(i), starts.get(i));
+    }
+  }
+
+  /**
+   * Updates the bounds of the item in place, if the item is held by a
+   * single leaf node which encloses the new bounds.
+   */
+  private boolean moveInPlace(Item item, Rectangle2D.Double bounds) {
+    if (item.nodeCount == 1) {
+      QuadNode node = item.nodes[0];
+      if (node != outside && node.isLeaf() && encloses(node.bounds, bounds)) {
+        item.setBounds(bounds);
+        node.update(item);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reinserts a detached item at the lowest ancestor of the start node,
+   * which encloses the bounds of the item.
+   */
+  private void reinsert(Item item, QuadNode start) {
+    if (item.nodeCount > 0) {
+      // The item has already been inserted by reorganize().
+      return;
+    }
+    Rectangle2D.Double bounds = item.getBounds();
+    QuadNode node = start;
+    while (node != null && (node.bounds == null || !encloses(node.bounds, bounds))) {
+      node = node.parent;
+    }
+    if (node == null) {
+      insert(item);
+    } else {
+      node.add(item);
+    }
+  }
+
+  /**
+   * Doubles the size of the root toward the specified bounds.
+   * The current root becomes a quadrant of the new root.
+   *
+   * @return Returns false, if the root can not grow, because its bounds
+   * are not finite.
+   */
+  private boolean growToward(Rectangle2D.Double r) {
+    Rectangle2D.Double b = root.bounds;
+    if (!isFinite(b)) {
+      return false;
+    }
+    if (b.width <= 0 || b.height <= 0) {
+      // A degenerate root is always a leaf, so we can simply enlarge it.
+      b.width = Math.max(b.width, minSize);
+      b.height = Math.max(b.height, minSize);
+      return true;
+    }
+    boolean west = r.x < b.x;
+    boolean north = r.y < b.y;
+    QuadNode newRoot = new QuadNode(new Rectangle2D.Double(
+        west ? b.x - b.width : b.x,
+        north ? b.y - b.height : b.y,
+        b.width * 2, b.height * 2));
+    newRoot.split();
+    if (west) {
+      if (north) {
+        newRoot.southEast = root;
+      } else {
+        newRoot.northEast = root;
+      }
+    } else {
+      if (north) {
+        newRoot.southWest = root;
+      } else {
+        newRoot.northWest = root;
+      }
+    }
+    root.parent = newRoot;
+    root = newRoot;
+    return true;
+  }
+
+  /**
+   * Returns true, if outer encloses r. Unlike Rectangle2D.contains(),
+   * this returns true for empty rectangles, such as the bounds of a
+   * horizontal or vertical line.
+   */
+  private static boolean encloses(Rectangle2D.Double outer, Rectangle2D.Double r) {
+    return r.x >= outer.x && r.y >= outer.y
+        && r.x + r.width <= outer.x + outer.width
+        && r.y + r.height <= outer.y + outer.height;
+  }
+
+  /**
+   * Returns true, if a and r overlap. Unlike Rectangle2D.intersects(),
+   * this returns true for empty rectangles which touch a.
+   */
+  private static boolean overlaps(Rectangle2D.Double a, double x, double y, double w, double h) {
+    return x <= a.x + a.width && x + w >= a.x
+        && y <= a.y + a.height && y + h >= a.y;
+  }
+
+  private static boolean isFinite(Rectangle2D.Double r) {
+    return !Double.isNaN(r.x) && !Double.isInfinite(r.x)
+        && !Double.isNaN(r.y) && !Double.isInfinite(r.y)
+        && !Double.isNaN(r.width) && !Double.isInfinite(r.width)
+        && !Double.isNaN(r.height) && !Double.isInfinite(r.height)
+        && r.width >= 0 && r.height >= 0;
+  }
+
   public void reorganize() {
-    root.join();
-    outside.putAll(root.objects);
-    root.objects.clear();
-
-    Iterator<Map.Entry<T, Rectangle2D.Double>> i = outside.entrySet().iterator();
-    Map.Entry<T, Rectangle2D.Double> entry = i.next();
-    Rectangle2D.Double treeBounds = (Rectangle2D.Double) (entry.getValue()).clone();
-    while (i.hasNext()) {
-      entry = i.next();
-      Rectangle2D.Double bounds = entry.getValue();
-      treeBounds.add(bounds);
-    }
-    root.bounds = treeBounds;
-    i = outside.entrySet().iterator();
-    while (i.hasNext()) {
-      entry = i.next();
-      root.add(entry.getKey(), entry.getValue());
-    }
-    outside.clear();
+    if (items.isEmpty()) {
+      return;
+    }
+
+    // Objects with bounds which are not finite are kept outside,
+    // because they would make the bounds of the root not finite.
+    Rectangle2D.Double treeBounds = null;
+    for (Item item : items.values()) {
+      item.clearNodes();
+      Rectangle2D.Double bounds = item.getBounds();
+      if (isFinite(bounds)) {
+        if (treeBounds == null) {
+          treeBounds = bounds;
+        } else {
+          treeBounds.add(bounds);
+        }
+      }
+    }
+    if (treeBounds == null || !isFinite(treeBounds)) {
+      treeBounds = isFinite(root.bounds)
+          ? (Rectangle2D.Double) root.bounds.clone()
+          : new Rectangle2D.Double(0, 0, 800, 600);
+    }
+    root = new QuadNode(treeBounds);
+    outside = new QuadNode(null);
+    for (Item item : items.values()) {
+      if (isFinite(item.getBounds()) && encloses(treeBounds, item.getBounds())) {
+        root.add(item);
+      } else {
+        outside.put(item);
+      }
+    }
+    outsideLimit = outside.size + maxOutside;
+  }
+
+  /**
+   * Translates all objects by the specified distance. The structure of the
+   * tree is kept, only the bounds of its nodes and objects are shifted.
+   */
+  public void translate(double dx, double dy) {
+    for (Item item : items.values()) {
+      item.x += dx;
+      item.y += dy;
+    }
+    root.translate(dx, dy);
+    outside.translate(dx, dy);
   }
 
   public void remove(T o) {
-    outside.remove(o);
-    root.remove(o);
+    Item item = items.remove(o);
+    if (item != null) {
+      item.detach();
+    }
   }
 
   public Collection<T> findContains(Point2D.Double p) {
     HashSet<T> result = new HashSet<>();
-    root.findContains(p, result);
-    for (Map.Entry<T, Rectangle2D.Double> entry : outside.entrySet()) {
-      if (entry.getValue().contains(p)) {
-        result.add(entry.getKey());
-      }
-    }
+    findContains(p, result);
     return result;
   }
 
+  /**
+   * Adds all objects whose bounds contain the specified point to the
+   * result collection.
+   */
+  public void findContains(Point2D.Double p, Collection<? super T> result) {
+    collector.result = result;
+    try {
+      findContains(p, collector);
+    } finally {
+      collector.result = null;
+    }
+  }
+
+  /**
+   * Visits all objects whose bounds contain the specified point.
+   */
+  public void findContains(Point2D.Double p, Visitor<? super T> v) {
+    long m = ++mark;
+    root.findContains(p.x, p.y, m, v);
+    outside.scanContains(p.x, p.y, m, v);
+  }
+
   public Collection<T> findIntersects(Rectangle2D r) {
     return findIntersects(new Rectangle2D.Double(r.getX(), r.getY(), r.getWidth(), r.getHeight()));
   }
 
   public Collection<T> findIntersects(Rectangle2D.Double r) {
     HashSet<T> result = new HashSet<>();
-    root.findIntersects(r, result);
-    for (Map.Entry<T, Rectangle2D.Double> entry : outside.entrySet()) {
-      if (entry.getValue().intersects(r)) {
-        result.add(entry.getKey());
-      }
-    }
+    findIntersects(r, result);
     return result;
   }
 
+  /**
+   * Adds all objects whose bounds intersect the specified rectangle to the
+   * result collection.
+   */
+  public void findIntersects(Rectangle2D.Double r, Collection<? super T> result) {
+    collector.result = result;
+    try {
+      findIntersects(r, collector);
+    } finally {
+      collector.result = null;
+    }
+  }
+
+  /**
+   * Visits all objects whose bounds intersect the specified rectangle.
+   */
+  public void findIntersects(Rectangle2D.Double r, Visitor<? super T> v) {
+    if (r.width <= 0 || r.height <= 0) {
+      return;
+    }
+    long m = ++mark;
+    root.findIntersects(r, m, v);
+    outside.scanIntersects(r, m, v);
+  }
+
   public Collection<T> findInside(Rectangle2D.Double r) {
     HashSet<T> result = new HashSet<>();
-    root.findInside(r, result);
-    for (Map.Entry<T, Rectangle2D.Double> entry : outside.entrySet()) {
-      if (r.contains(entry.getValue())) {
-        result.add(entry.getKey());
+    findInside(r, result);
+    return result;
+  }
+
+  /**
+   * Adds all objects whose bounds are inside of the specified rectangle to
+   * the result collection.
+   */
+  public void findInside(Rectangle2D.Double r, Collection<? super T> result) {
+    collector.result = result;
+    try {
+      findInside(r, collector);
+    } finally {
+      collector.result = null;
+    }
+  }
+
+  /**
+   * Visits all objects whose bounds are inside of the specified rectangle.
+   */
+  public void findInside(Rectangle2D.Double r, Visitor<? super T> v) {
+    if (r.width <= 0 || r.height <= 0) {
+      return;
+    }
+    long m = ++mark;
+    root.findInside(r, m, v);
+    outside.scanInside(r, m, v);
+  }
+
+  /**
+   * Adds the visited objects to a result collection.
+   */
+  private static class Collector<T> implements Visitor<T> {
+    private Collection<? super T> result;
+
+    public void visit(T o) {
+      result.add(o);
+    }
+  }
+
+  /**
+   * An object in the tree. An item is shared by all nodes which
+   * hold the object, and it knows these nodes.
+   */
+  private class Item {
+    private final T object;
+    private double x;
+    private double y;
+    private double width;
+    private double height;
+    /**
+     * The mark of the last query which visited this item.
+     */
+    private long mark;
+    /**
+     * The nodes which hold this item.
+     */
+    private QuadNode[] nodes;
+    private int nodeCount;
+
+    @SuppressWarnings("unchecked")
+    public Item(T object) {
+      this.object = object;
+      this.nodes = (QuadNode[]) new QuadTree2DDouble<?>.QuadNode[1];
+    }
+
+    public void setBounds(Rectangle2D.Double bounds) {
+      x = bounds.x;
+      y = bounds.y;
+      width = bounds.width;
+      height = bounds.height;
+    }
+
+    public Rectangle2D.Double getBounds() {
+      return new Rectangle2D.Double(x, y, width, height);
+    }
+
+    public boolean hasBounds(Rectangle2D.Double bounds) {
+      return x == bounds.x && y == bounds.y
+          && width == bounds.width && height == bounds.height;
+    }
+
+    public void addNode(QuadNode node) {
+      if (nodeCount == nodes.length) {
+        nodes = Arrays.copyOf(nodes, nodeCount * 2);
       }
+      nodes[nodeCount++] = node;
+    }
+
+    public void removeNode(QuadNode node) {
+      for (int i = 0; i < nodeCount; i++) {
+        if (nodes[i] == node) {
+          nodes[i] = nodes[--nodeCount];
+          nodes[nodeCount] = null;
+          return;
+        }
+      }
+    }
+
+    /**
+     * Forgets the nodes which hold this item, without updating them.
+     */
+    public void clearNodes() {
+      Arrays.fill(nodes, 0, nodeCount, null);
+      nodeCount = 0;
+    }
+
+    /**
+     * Removes this item from all nodes which hold it.
+     */
+    public void detach() {
+      for (int i = 0; i < nodeCount; i++) {
+        nodes[i].delete(this);
+        nodes[i] = null;
+      }
+      nodeCount = 0;
     }
-    return result;
   }
 
   private class QuadNode {
     private Rectangle2D.Double bounds;
+    private QuadNode parent;
     /**
-     * We store an object into this map, if 1) the bounds of the object
+     * We store an object into this node, if 1) the bounds of the object
      * contain our bounds or 2) we are a leaf.
      * <p>
-     * key = Object
-     * value = Rectangle2D.Double
+     * The bounds of the item at index i are stored in coords[i * 4]
+     * to coords[i * 4 + 3] in the sequence x, y, width, height.
      */
-    private HashMap<T, Rectangle2D.Double> objects;
+    private Item[] items;
+    private double[] coords;
+    private int size;
 
     private QuadNode northEast;
     private QuadNode northWest;
     private QuadNode southEast;
     private QuadNode southWest;
 
+    @SuppressWarnings("unchecked")
     public QuadNode(Rectangle2D.Double bounds) {
       this.bounds = bounds;
-      this.objects = new HashMap<>();
+      this.items = (Item[]) new QuadTree2DDouble<?>.Item[4];
+      this.coords = new double[16];
     }
 
     public boolean isLeaf() {
       return northEast == null;
     }
 
-    public void remove(T o) {
-      if (objects.remove(o) == null && !isLeaf()) {
-        northEast.remove(o);
-        northWest.remove(o);
-        southEast.remove(o);
-        southWest.remove(o);
+    /**
+     * Puts the item into the arrays of this node.
+     */
+    public void put(Item item) {
+      if (size == items.length) {
+        items = Arrays.copyOf(items, size * 2);
+        coords = Arrays.copyOf(coords, size * 8);
+      }
+      items[size] = item;
+      int j = size * 4;
+      coords[j] = item.x;
+      coords[j + 1] = item.y;
+      coords[j + 2] = item.width;
+      coords[j + 3] = item.height;
+      size++;
+      item.addNode(this);
+    }
+
+    /**
+     * Removes the item from the arrays of this node.
+     * Does not update the back-pointers of the item.
+     */
+    public void delete(Item item) {
+      for (int i = 0; i < size; i++) {
+        if (items[i] == item) {
+          size--;
+          items[i] = items[size];
+          System.arraycopy(coords, size * 4, coords, i * 4, 4);
+          items[size] = null;
+          return;
+        }
+      }
+    }
+
+    /**
+     * Copies the bounds of the item into the arrays of this node.
+     */
+    public void update(Item item) {
+      for (int i = 0; i < size; i++) {
+        if (items[i] == item) {
+          int j = i * 4;
+          coords[j] = item.x;
+          coords[j + 1] = item.y;
+          coords[j + 2] = item.width;
+          coords[j + 3] = item.height;
+          return;
+        }
+      }
+    }
+
+    /**
+     * Shifts the bounds of this node, of its items and of its descendants.
+     */
+    public void translate(double dx, double dy) {
+      if (bounds != null) {
+        bounds.x += dx;
+        bounds.y += dy;
+      }
+      for (int j = 0, n = size * 4; j < n; j += 4) {
+        coords[j] += dx;
+        coords[j + 1] += dy;
+      }
+      if (!isLeaf()) {
+        northEast.translate(dx, dy);
+        northWest.translate(dx, dy);
+        southEast.translate(dx, dy);
+        southWest.translate(dx, dy);
       }
     }
 
-    public void add(T o, Rectangle2D.Double oBounds) {
+    public void add(Item item) {
       // Do we have to split?
-      if (isLeaf() && objects.size() >= maxCapacity && bounds.width > minSize && bounds.height > minSize) {
+      if (isLeaf() && size >= maxCapacity && bounds.width > minSize && bounds.height > minSize) {
         split();
       }
 
-      if (isLeaf() || oBounds.contains(bounds)) {
-        // We put an object into our hashtable if we are
+      if (isLeaf() || (item.width > 0 && item.height > 0
+          && item.x <= bounds.x && item.y <= bounds.y
+          && item.x + item.width >= bounds.x + bounds.width
+          && item.y + item.height >= bounds.y + bounds.height)) {
+        // We put an object into our arrays if we are
         // a leaf, or if the bounds of the object contain our bounds.
-        objects.put(o, oBounds);
+        put(item);
       } else {
-        if (northEast.bounds.intersects(oBounds)) {
-          northEast.add(o, oBounds);
+        if (overlaps(northEast.bounds, item.x, item.y, item.width, item.height)) {
+          northEast.add(item);
         }
-        if (northWest.bounds.intersects(oBounds)) {
-          northWest.add(o, oBounds);
+        if (overlaps(northWest.bounds, item.x, item.y, item.width, item.height)) {
+          northWest.add(item);
         }
-        if (southEast.bounds.intersects(oBounds)) {
-          southEast.add(o, oBounds);
+        if (overlaps(southEast.bounds, item.x, item.y, item.width, item.height)) {
+          southEast.add(item);
         }
-        if (southWest.bounds.intersects(oBounds)) {
-          southWest.add(o, oBounds);
+        if (overlaps(southWest.bounds, item.x, item.y, item.width, item.height)) {
+          southWest.add(item);
         }
       }
     }
@@ -186,81 +687,110 @@ public class QuadTree2DDouble<T> {
         northEast = new QuadNode(new Rectangle2D.Double(bounds.x + hw, bounds.y, bounds.width - hw, hh));
         southWest = new QuadNode(new Rectangle2D.Double(bounds.x, bounds.y + hh, hw, bounds.height - hh));
         southEast = new QuadNode(new Rectangle2D.Double(bounds.x + hw, bounds.y + hh, bounds.width - hw, bounds.height - hh));
+        northWest.parent = this;
+        northEast.parent = this;
+        southWest.parent = this;
+        southEast.parent = this;
 
-        HashMap<T, Rectangle2D.Double> temp = objects;
-        objects = new HashMap<>();
-        for (Map.Entry<T, Rectangle2D.Double> entry : temp.entrySet()) {
-          add(entry.getKey(), entry.getValue());
+        Item[] temp = Arrays.copyOf(items, size);
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        for (Item item : temp) {
+          item.removeNode(this);
+          add(item);
         }
       }
     }
 
-    public void join() {
-      if (!isLeaf()) {
-        northWest.join();
-        northEast.join();
-        southWest.join();
-        southEast.join();
-
-        objects.putAll(northWest.objects);
-        objects.putAll(northEast.objects);
-        objects.putAll(southWest.objects);
-        objects.putAll(southEast.objects);
-
-        northWest = null;
-        northEast = null;
-        southWest = null;
-        southEast = null;
+    public void findContains(double x, double y, long m, Visitor<? super T> v) {
+      if (bounds.contains(x, y)) {
+        scanContains(x, y, m, v);
+        if (!isLeaf()) {
+          northWest.findContains(x, y, m, v);
+          northEast.findContains(x, y, m, v);
+          southWest.findContains(x, y, m, v);
+          southEast.findContains(x, y, m, v);
+        }
       }
     }
 
-    public void findContains(Point2D.Double p, HashSet<T> result) {
-      if (bounds.contains(p)) {
-        for (Map.Entry<T, Rectangle2D.Double> entry : objects.entrySet()) {
-          if (entry.getValue().contains(p)) {
-            result.add(entry.getKey());
-          }
-        }
-        if (!isLeaf()) {
-          northWest.findContains(p, result);
-          northEast.findContains(p, result);
-          southWest.findContains(p, result);
-          southEast.findContains(p, result);
+    /**
+     * Visits the items of this node, whose bounds contain the point.
+     */
+    public void scanContains(double x, double y, long m, Visitor<? super T> v) {
+      double[] c = coords;
+      for (int i = 0, j = 0; i < size; i++, j += 4) {
+        if (x >= c[j] && y >= c[j + 1] && x < c[j] + c[j + 2] && y < c[j + 1] + c[j + 3]) {
+          visit(items[i], m, v);
         }
       }
     }
 
-    public void findIntersects(Rectangle2D.Double r, HashSet<T> result) {
+    public void findIntersects(Rectangle2D.Double r, long m, Visitor<? super T> v) {
       if (bounds.intersects(r)) {
-        int oldSize = result.size();
-        for (Map.Entry<T, Rectangle2D.Double> entry : objects.entrySet()) {
-          if (entry.getValue().intersects(r)) {
-            result.add(entry.getKey());
-          }
-        }
+        scanIntersects(r, m, v);
         if (!isLeaf()) {
-          northWest.findIntersects(r, result);
-          northEast.findIntersects(r, result);
-          southWest.findIntersects(r, result);
-          southEast.findIntersects(r, result);
+          northWest.findIntersects(r, m, v);
+          northEast.findIntersects(r, m, v);
+          southWest.findIntersects(r, m, v);
+          southEast.findIntersects(r, m, v);
         }
       }
     }
 
-    public void findInside(Rectangle2D.Double r, HashSet<T> result) {
-      if (bounds.intersects(r)) {
-        for (Map.Entry<T, Rectangle2D.Double> entry : objects.entrySet()) {
-          if (r.contains(entry.getValue())) {
-            result.add(entry.getKey());
-          }
+    /**
+     * Visits the items of this node, whose bounds intersect the rectangle.
+     * The rectangle must not be empty.
+     */
+    public void scanIntersects(Rectangle2D.Double r, long m, Visitor<? super T> v) {
+      double[] c = coords;
+      double rx1 = r.x + r.width;
+      double ry1 = r.y + r.height;
+      for (int i = 0, j = 0; i < size; i++, j += 4) {
+        double w = c[j + 2];
+        double h = c[j + 3];
+        if (w > 0 && h > 0
+            && c[j] + w > r.x && c[j + 1] + h > r.y && c[j] < rx1 && c[j + 1] < ry1) {
+          visit(items[i], m, v);
         }
+      }
+    }
+
+    public void findInside(Rectangle2D.Double r, long m, Visitor<? super T> v) {
+      if (bounds.intersects(r)) {
+        scanInside(r, m, v);
         if (!isLeaf()) {
-          northWest.findInside(r, result);
-          northEast.findInside(r, result);
-          southWest.findInside(r, result);
-          southEast.findInside(r, result);
+          northWest.findInside(r, m, v);
+          northEast.findInside(r, m, v);
+          southWest.findInside(r, m, v);
+          southEast.findInside(r, m, v);
         }
       }
     }
+
+    /**
+     * Visits the items of this node, whose bounds are inside of the rectangle.
+     * The rectangle must not be empty.
+     */
+    public void scanInside(Rectangle2D.Double r, long m, Visitor<? super T> v) {
+      double[] c = coords;
+      double rx1 = r.x + r.width;
+      double ry1 = r.y + r.height;
+      for (int i = 0, j = 0; i < size; i++, j += 4) {
+        double w = c[j + 2];
+        double h = c[j + 3];
+        if (w > 0 && h > 0
+            && c[j] >= r.x && c[j + 1] >= r.y && c[j] + w <= rx1 && c[j + 1] + h <= ry1) {
+          visit(items[i], m, v);
+        }
+      }
+    }
+
+    private void visit(Item item, long m, Visitor<? super T> v) {
+      if (item.mark != m) {
+        item.mark = m;
+        v.visit(item.object);
+      }
+    }
   }
 }
@@ -0,0 +1,792 @@
+/*
+ * @(#)RTree2DDouble.java  1.1  2026-10-18
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.geom;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+
+/**
+ * RTree2DDouble is an R-tree, which stores each object exactly once,
+ * no matter how many other objects it overlaps.
+ * <p>
+ * Nodes are split with the R*-tree split algorithm: the split axis is
+ * the one with the smallest sum of margins, and the distribution along
+ * that axis is the one with the smallest overlap. Large numbers of
+ * objects are bulk loaded with the Sort-Tile-Recursive algorithm.
+ * <p>
+ * Each node stores the bounding boxes of its children in a flat array
+ * of doubles in the sequence minX, minY, maxX, maxY. The tree keeps a
+ * back-pointer from each object to the leaf which holds it, so that
+ * objects can be removed and moved without searching the tree.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Nodes hold typed children. Splitting and bulk
+ * loading sort primitive index arrays.
+ * <br>1.0 2026-10-17 Created.
+ */
+public class RTree2DDouble<T> implements SpatialIndex2DDouble<T> {
+  private final int maxEntries;
+  private final int minEntries;
+  private Node root;
+  /**
+   * key = Object
+   * value = Entry
+   */
+  private HashMap<T, Entry> entries = new HashMap<>();
+  /**
+   * We reuse this visitor for the find methods which take a result
+   * collection, so that they do not allocate memory.
+   */
+  private final Collector<T> collector = new Collector<>();
+
+  /**
+   * Creates a new instance with at most 16 entries per node.
+   */
+  public RTree2DDouble() {
+    this(16);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxEntries The maximal number of entries per node.
+   */
+  public RTree2DDouble(int maxEntries) {
+    if (maxEntries < 4) {
+      throw new IllegalArgumentException("maxEntries must be at least 4: " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.minEntries = Math.max(2, maxEntries * 2 / 5);
+    root = new Node(true);
+  }
+
+  /**
+   * Returns the number of objects in the tree.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  public void add(T o, Rectangle2D.Double bounds) {
+    Entry e = entries.get(o);
+    if (e == null) {
+      e = new Entry(o);
+      entries.put(o, e);
+    } else {
+      detach(e);
+    }
+    e.setBounds(bounds);
+    insert(e);
+  }
+
+  /**
+   * Replaces the contents of the tree with the specified objects, and
+   * builds the tree bottom up with the Sort-Tile-Recursive algorithm.
+   * This is much faster than adding the objects one by one, and it
+   * yields a tree with less overlap.
+   */
+  public void load(Map<T, Rectangle2D.Double> objects) {
+    entries.clear();
+    ArrayList<Entry> list = new ArrayList<>(objects.size());
+    for (Map.Entry<T, Rectangle2D.Double> entry : objects.entrySet()) {
+      Entry e = new Entry(entry.getKey());
+      e.setBounds(entry.getValue());
+      entries.put(entry.getKey(), e);
+      list.add(e);
+    }
+    bulkLoad(list);
+  }
+
+  public void remove(T o) {
+    Entry e = entries.remove(o);
+    if (e != null) {
+      detach(e);
+    }
+  }
+
+  /**
+   * Changes the bounds of an object. If the new bounds stay inside of
+   * the bounding box of the leaf which holds the object, the object is
+   * updated in place.
+   * <p>
+   * If the tree does not contain the object, the object is added.
+   */
+  public void move(T o, Rectangle2D.Double bounds) {
+    Entry e = entries.get(o);
+    if (e == null) {
+      add(o, bounds);
+    } else if (!moveInPlace(e, bounds)) {
+      detach(e);
+      e.setBounds(bounds);
+      insert(e);
+    }
+  }
+
+  /**
+   * Changes the bounds of many objects in one pass.
+   * <p>
+   * If the number of objects which need to be reinserted is large
+   * compared to the size of the tree, the whole tree is bulk loaded
+   * again.
+   */
+  public void move(Map<T, Rectangle2D.Double> moves) {
+    ArrayList<Entry> pending = new ArrayList<>();
+    for (Map.Entry<T, Rectangle2D.Double> entry : moves.entrySet()) {
+      Entry e = entries.get(entry.getKey());
+      if (e == null) {
+        e = new Entry(entry.getKey());
+        entries.put(entry.getKey(), e);
+        e.setBounds(entry.getValue());
+        pending.add(e);
+      } else if (!moveInPlace(e, entry.getValue())) {
+        e.setBounds(entry.getValue());
+        pending.add(e);
+      }
+    }
+    if (pending.size() > entries.size() / 4) {
+      bulkLoad(new ArrayList<>(entries.values()));
+    } else {
+      for (Entry e : pending) {
+        if (e.leaf != null) {
+          detach(e);
+        }
+        insert(e);
+      }
+    }
+  }
+
+  /**
+   * Updates the bounds of the entry in place, if the new bounds are
+   * inside of the bounding box of its leaf. The bounding boxes of the
+   * ancestors of the leaf do not need to be changed in this case.
+   */
+  private boolean moveInPlace(Entry e, Rectangle2D.Double bounds) {
+    Node leaf = e.leaf;
+    if (leaf.parent != null) {
+      Node p = leaf.parent;
+      int j = p.indexOf(leaf) * 4;
+      double[] c = p.coords;
+      if (bounds.x < c[j] || bounds.y < c[j + 1]
+          || bounds.x + bounds.width > c[j + 2] || bounds.y + bounds.height > c[j + 3]) {
+        return false;
+      }
+    }
+    e.setBounds(bounds);
+    leaf.setChildBounds(leaf.indexOf(e), e.minX, e.minY, e.maxX, e.maxY);
+    return true;
+  }
+
+  public Collection<T> findContains(Point2D.Double p) {
+    HashSet<T> result = new HashSet<>();
+    findContains(p, result);
+    return result;
+  }
+
+  public void findContains(Point2D.Double p, Collection<? super T> result) {
+    collector.result = result;
+    try {
+      findContains(p, collector);
+    } finally {
+      collector.result = null;
+    }
+  }
+
+  public void findContains(Point2D.Double p, Visitor<? super T> v) {
+    root.findContains(p.x, p.y, v);
+  }
+
+  public Collection<T> findIntersects(Rectangle2D r) {
+    return findIntersects(new Rectangle2D.Double(r.getX(), r.getY(), r.getWidth(), r.getHeight()));
+  }
+
+  public Collection<T> findIntersects(Rectangle2D.Double r) {
+    HashSet<T> result = new HashSet<>();
+    findIntersects(r, result);
+    return result;
+  }
+
+  public void findIntersects(Rectangle2D.Double r, Collection<? super T> result) {
+    collector.result = result;
+    try {
+      findIntersects(r, collector);
+    } finally {
+      collector.result = null;
+    }
+  }
+
+  public void findIntersects(Rectangle2D.Double r, Visitor<? super T> v) {
+    if (r.width > 0 && r.height > 0) {
+      root.findIntersects(r.x, r.y, r.x + r.width, r.y + r.height, v);
+    }
+  }
+
+  public Collection<T> findInside(Rectangle2D.Double r) {
+    HashSet<T> result = new HashSet<>();
+    findInside(r, result);
+    return result;
+  }
+
+  public void findInside(Rectangle2D.Double r, Collection<? super T> result) {
+    collector.result = result;
+    try {
+      findInside(r, collector);
+    } finally {
+      collector.result = null;
+    }
+  }
+
+  public void findInside(Rectangle2D.Double r, Visitor<? super T> v) {
+    if (r.width > 0 && r.height > 0) {
+      root.findInside(r.x, r.y, r.x + r.width, r.y + r.height, v);
+    }
+  }
+
+  /**
+   * Inserts a detached entry into the leaf, whose bounding box needs the
+   * least enlargement, and splits overfull nodes on the way back up.
+   */
+  private void insert(Entry e) {
+    Node node = root;
+    while (!node.isLeaf) {
+      node = node.nodeAt(node.chooseChild(e.minX, e.minY, e.maxX, e.maxY));
+    }
+    node.addChild(e, e.minX, e.minY, e.maxX, e.maxY);
+    adjustUpward(node);
+  }
+
+  /**
+   * Splits overfull nodes, and updates the bounding boxes of all nodes
+   * from the specified node up to the root.
+   */
+  private void adjustUpward(Node node) {
+    while (node != null) {
+      Node sibling = (node.size > maxEntries) ? node.split() : null;
+      Node p = node.parent;
+      if (p == null) {
+        if (sibling != null) {
+          Node newRoot = new Node(false);
+          newRoot.addChild(node);
+          newRoot.addChild(sibling);
+          root = newRoot;
+        }
+      } else {
+        p.updateChildBounds(node);
+        if (sibling != null) {
+          p.addChild(sibling);
+        }
+      }
+      node = p;
+    }
+  }
+
+  /**
+   * Removes an entry from its leaf. Underfull nodes are dissolved and
+   * their entries are inserted again.
+   */
+  private void detach(Entry e) {
+    Node node = e.leaf;
+    node.removeChild(node.indexOf(e));
+    e.leaf = null;
+
+    ArrayList<Entry> orphans = null;
+    while (node.parent != null) {
+      Node p = node.parent;
+      if (node.size < minEntries) {
+        p.removeChild(p.indexOf(node));
+        if (orphans == null) {
+          orphans = new ArrayList<>();
+        }
+        node.collect(orphans);
+      } else {
+        p.updateChildBounds(node);
+      }
+      node = p;
+    }
+    while (!root.isLeaf && root.size == 1) {
+      root = root.nodeAt(0);
+      root.parent = null;
+    }
+    if (root.size == 0) {
+      root = new Node(true);
+    }
+    if (orphans != null) {
+      for (Entry orphan : orphans) {
+        orphan.leaf = null;
+        insert(orphan);
+      }
+    }
+  }
+
+  /**
+   * Builds the tree bottom up with the Sort-Tile-Recursive algorithm.
+   */
+  private void bulkLoad(List<Entry> list) {
+    int n = list.size();
+    Child[] level = newChildArray(n);
+    double[] boxes = new double[n * 4];
+    for (int i = 0, j = 0; i < n; i++, j += 4) {
+      Entry e = list.get(i);
+      level[i] = e;
+      boxes[j] = e.minX;
+      boxes[j + 1] = e.minY;
+      boxes[j + 2] = e.maxX;
+      boxes[j + 3] = e.maxY;
+    }
+    boolean isLeafLevel = true;
+    while (level.length > 1 || isLeafLevel) {
+      level = packLevel(level, boxes, isLeafLevel);
+      isLeafLevel = false;
+      boxes = new double[level.length * 4];
+      for (int i = 0; i < level.length; i++) {
+        ((Node) level[i]).computeBounds(boxes, i * 4);
+      }
+    }
+    root = (level.length == 0) ? new Node(true) : (Node) level[0];
+    root.parent = null;
+  }
+
+  /**
+   * Packs entries or nodes into nodes of the next level.
+   * The items are sorted into vertical slices by the x-coordinate of
+   * their centers, and each slice is sorted by the y-coordinate.
+   *
+   * @param items The entries or nodes.
+   * @param boxes The bounding box of the item at index i is stored in
+   *              boxes[i * 4] to boxes[i * 4 + 3] in the sequence minX, minY,
+   *              maxX, maxY.
+   */
+  private Child[] packLevel(Child[] items, double[] boxes, boolean isLeafLevel) {
+    int n = items.length;
+    int[] order = new int[n];
+    double[] keys = new double[n];
+    for (int i = 0, j = 0; i < n; i++, j += 4) {
+      order[i] = i;
+      keys[i] = boxes[j] + boxes[j + 2];
+    }
+    sort(order, 0, n, keys);
+    for (int i = 0, j = 1; i < n; i++, j += 4) {
+      keys[i] = boxes[j] + boxes[j + 2];
+    }
+
+    int nodeCount = (n + maxEntries - 1) / maxEntries;
+    int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+    int sliceSize = sliceCount * maxEntries;
+    Child[] result = newChildArray(nodeCount + sliceCount);
+    int resultCount = 0;
+    for (int start = 0; start < n; start += sliceSize) {
+      int end = Math.min(n, start + sliceSize);
+      sort(order, start, end, keys);
+      for (int i = start; i < end; i += maxEntries) {
+        Node node = new Node(isLeafLevel);
+        for (int k = i, kEnd = Math.min(end, i + maxEntries); k < kEnd; k++) {
+          int index = order[k];
+          int j = index * 4;
+          node.addChild(items[index], boxes[j], boxes[j + 1], boxes[j + 2], boxes[j + 3]);
+        }
+        result[resultCount++] = node;
+      }
+    }
+    return Arrays.copyOf(result, resultCount);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Child[] newChildArray(int length) {
+    return (Child[]) new RTree2DDouble<?>.Child[length];
+  }
+
+  /**
+   * Sorts the indices in order[from] to order[to - 1] by ascending keys.
+   */
+  private static void sort(int[] order, int from, int to, double[] keys) {
+    while (to - from > 12) {
+      // Quicksort with the median of three as pivot.
+      int mid = (from + to) >>> 1;
+      double a = keys[order[from]];
+      double b = keys[order[mid]];
+      double c = keys[order[to - 1]];
+      double pivot = (a < b) ? ((b < c) ? b : Math.max(a, c)) : ((a < c) ? a : Math.max(b, c));
+      int i = from;
+      int j = to - 1;
+      while (i <= j) {
+        while (keys[order[i]] < pivot) {
+          i++;
+        }
+        while (keys[order[j]] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          int tmp = order[i];
+          order[i] = order[j];
+          order[j] = tmp;
+          i++;
+          j--;
+        }
+      }
+      // Recurse into the smaller part, and loop over the larger part.
+      if (j - from < to - 1 - i) {
+        sort(order, from, j + 1, keys);
+        from = i;
+      } else {
+        sort(order, i, to, keys);
+        to = j + 1;
+      }
+    }
+    // Insertion sort for small ranges.
+    for (int i = from + 1; i < to; i++) {
+      int index = order[i];
+      double key = keys[index];
+      int j = i - 1;
+      while (j >= from && keys[order[j]] > key) {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = index;
+    }
+  }
+
+  /**
+   * Adds the visited objects to a result collection.
+   */
+  private static class Collector<T> implements Visitor<T> {
+    private Collection<? super T> result;
+
+    public void visit(T o) {
+      result.add(o);
+    }
+  }
+
+  /**
+   * An entry or a node, which is held by a node.
+   */
+  private abstract class Child {
+  }
+
+  /**
+   * An object in the tree.
+   */
+  private class Entry extends Child {
+    private final T object;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    /**
+     * The leaf which holds this entry.
+     */
+    private Node leaf;
+
+    public Entry(T object) {
+      this.object = object;
+    }
+
+    public void setBounds(Rectangle2D.Double bounds) {
+      minX = bounds.x;
+      minY = bounds.y;
+      maxX = bounds.x + bounds.width;
+      maxY = bounds.y + bounds.height;
+    }
+  }
+
+  private class Node extends Child {
+    private final boolean isLeaf;
+    private Node parent;
+    /**
+     * Holds entries, if this is a leaf, and nodes otherwise.
+     * The bounding box of the child at index i is stored in coords[i * 4]
+     * to coords[i * 4 + 3] in the sequence minX, minY, maxX, maxY.
+     */
+    private Child[] children;
+    private double[] coords;
+    private int size;
+
+    public Node(boolean isLeaf) {
+      this.isLeaf = isLeaf;
+      children = newChildArray(maxEntries + 1);
+      coords = new double[(maxEntries + 1) * 4];
+    }
+
+    private Entry entryAt(int i) {
+      return (Entry) children[i];
+    }
+
+    private Node nodeAt(int i) {
+      return (Node) children[i];
+    }
+
+    public int indexOf(Child child) {
+      for (int i = 0; i < size; i++) {
+        if (children[i] == child) {
+          return i;
+        }
+      }
+      throw new IllegalStateException("child not found");
+    }
+
+    public void addChild(Node child) {
+      addChild(child, 0, 0, 0, 0);
+      child.computeBounds(coords, (size - 1) * 4);
+    }
+
+    public void addChild(Child child, double minX, double minY, double maxX, double maxY) {
+      if (size == children.length) {
+        children = Arrays.copyOf(children, size * 2);
+        coords = Arrays.copyOf(coords, size * 8);
+      }
+      children[size] = child;
+      setChildBounds(size, minX, minY, maxX, maxY);
+      size++;
+      if (isLeaf) {
+        ((Entry) child).leaf = this;
+      } else {
+        ((Node) child).parent = this;
+      }
+    }
+
+    public void removeChild(int i) {
+      size--;
+      children[i] = children[size];
+      System.arraycopy(coords, size * 4, coords, i * 4, 4);
+      children[size] = null;
+    }
+
+    public void setChildBounds(int i, double minX, double minY, double maxX, double maxY) {
+      int j = i * 4;
+      coords[j] = minX;
+      coords[j + 1] = minY;
+      coords[j + 2] = maxX;
+      coords[j + 3] = maxY;
+    }
+
+    /**
+     * Recomputes the bounding box of the child node.
+     */
+    public void updateChildBounds(Node child) {
+      child.computeBounds(coords, indexOf(child) * 4);
+    }
+
+    /**
+     * Computes the bounding box of this node, and stores it in target[offset]
+     * to target[offset + 3] in the sequence minX, minY, maxX, maxY.
+     */
+    public void computeBounds(double[] target, int offset) {
+      double[] c = coords;
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      for (int j = 0, n = size * 4; j < n; j += 4) {
+        minX = Math.min(minX, c[j]);
+        minY = Math.min(minY, c[j + 1]);
+        maxX = Math.max(maxX, c[j + 2]);
+        maxY = Math.max(maxY, c[j + 3]);
+      }
+      target[offset] = minX;
+      target[offset + 1] = minY;
+      target[offset + 2] = maxX;
+      target[offset + 3] = maxY;
+    }
+
+    /**
+     * Returns the index of the child, whose bounding box needs the least
+     * area enlargement to include the specified box. Ties are resolved
+     * by choosing the child with the smaller area.
+     */
+    public int chooseChild(double minX, double minY, double maxX, double maxY) {
+      double[] c = coords;
+      int best = 0;
+      double bestEnlargement = Double.POSITIVE_INFINITY;
+      double bestArea = Double.POSITIVE_INFINITY;
+      for (int i = 0, j = 0; i < size; i++, j += 4) {
+        double area = (c[j + 2] - c[j]) * (c[j + 3] - c[j + 1]);
+        double enlarged = (Math.max(c[j + 2], maxX) - Math.min(c[j], minX))
+            * (Math.max(c[j + 3], maxY) - Math.min(c[j + 1], minY));
+        double enlargement = enlarged - area;
+        if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+          best = i;
+          bestEnlargement = enlargement;
+          bestArea = area;
+        }
+      }
+      return best;
+    }
+
+    /**
+     * Splits this node with the R*-tree split algorithm. Keeps the first
+     * group of children and returns a new node with the second group.
+     */
+    public Node split() {
+      int n = size;
+      int[][] orders = new int[4][n];
+      double[] keys = new double[n];
+      for (int k = 0; k < 4; k++) {
+        // Sort by minX, maxX, minY and maxY.
+        int offset = (k % 2 == 0) ? k / 2 : 2 + k / 2;
+        int[] order = orders[k];
+        for (int i = 0; i < n; i++) {
+          order[i] = i;
+          keys[i] = coords[i * 4 + offset];
+        }
+        sort(order, 0, n, keys);
+      }
+
+      // Choose the axis with the smallest sum of margins.
+      double[] prefix = new double[n * 4];
+      double[] suffix = new double[n * 4];
+      double xMargin = marginSum(orders[0], prefix, suffix) + marginSum(orders[1], prefix, suffix);
+      double yMargin = marginSum(orders[2], prefix, suffix) + marginSum(orders[3], prefix, suffix);
+      int firstOrder = (xMargin <= yMargin) ? 0 : 2;
+
+      // Choose the distribution with the smallest overlap, then the
+      // smallest area.
+      int[] bestOrder = null;
+      int bestSplit = 0;
+      double bestOverlap = Double.POSITIVE_INFINITY;
+      double bestArea = Double.POSITIVE_INFINITY;
+      for (int k = firstOrder; k < firstOrder + 2; k++) {
+        int[] order = orders[k];
+        prefixBounds(order, false, prefix);
+        prefixBounds(order, true, suffix);
+        for (int split = minEntries; split <= n - minEntries; split++) {
+          int a = (split - 1) * 4;
+          int b = (n - split - 1) * 4;
+          double overlap = Math.max(0, Math.min(prefix[a + 2], suffix[b + 2]) - Math.max(prefix[a], suffix[b]))
+              * Math.max(0, Math.min(prefix[a + 3], suffix[b + 3]) - Math.max(prefix[a + 1], suffix[b + 1]));
+          double area = (prefix[a + 2] - prefix[a]) * (prefix[a + 3] - prefix[a + 1])
+              + (suffix[b + 2] - suffix[b]) * (suffix[b + 3] - suffix[b + 1]);
+          if (overlap < bestOverlap || (overlap == bestOverlap && area < bestArea)) {
+            bestOrder = order;
+            bestSplit = split;
+            bestOverlap = overlap;
+            bestArea = area;
+          }
+        }
+      }
+
+      Child[] oldChildren = Arrays.copyOf(children, n);
+      double[] oldCoords = Arrays.copyOf(coords, n * 4);
+      Arrays.fill(children, null);
+      size = 0;
+      Node sibling = new Node(isLeaf);
+      for (int i = 0; i < n; i++) {
+        int index = bestOrder[i];
+        int j = index * 4;
+        Node target = (i < bestSplit) ? this : sibling;
+        target.addChild(oldChildren[index], oldCoords[j], oldCoords[j + 1], oldCoords[j + 2], oldCoords[j + 3]);
+      }
+      return sibling;
+    }
+
+    /**
+     * Returns the sum of the margins of all distributions of the children
+     * in the specified order.
+     *
+     * @param prefix Scratch array of length size * 4.
+     * @param suffix Scratch array of length size * 4.
+     */
+    private double marginSum(int[] order, double[] prefix, double[] suffix) {
+      int n = order.length;
+      prefixBounds(order, false, prefix);
+      prefixBounds(order, true, suffix);
+      double sum = 0;
+      for (int split = minEntries; split <= n - minEntries; split++) {
+        int a = (split - 1) * 4;
+        int b = (n - split - 1) * 4;
+        sum += (prefix[a + 2] - prefix[a]) + (prefix[a + 3] - prefix[a + 1])
+            + (suffix[b + 2] - suffix[b]) + (suffix[b + 3] - suffix[b + 1]);
+      }
+      return sum;
+    }
+
+    /**
+     * Computes the bounding boxes of the first 1, 2, ..., n children in the
+     * specified order, or in reverse order. The bounding box of the first
+     * i + 1 children is stored in result[i * 4] to result[i * 4 + 3].
+     */
+    private void prefixBounds(int[] order, boolean reverse, double[] result) {
+      int n = order.length;
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < n; i++) {
+        int j = order[reverse ? n - 1 - i : i] * 4;
+        minX = Math.min(minX, coords[j]);
+        minY = Math.min(minY, coords[j + 1]);
+        maxX = Math.max(maxX, coords[j + 2]);
+        maxY = Math.max(maxY, coords[j + 3]);
+        int k = i * 4;
+        result[k] = minX;
+        result[k + 1] = minY;
+        result[k + 2] = maxX;
+        result[k + 3] = maxY;
+      }
+    }
+
+    /**
+     * Adds all entries of this node and of its descendants to the list.
+     */
+    public void collect(List<Entry> result) {
+      for (int i = 0; i < size; i++) {
+        if (isLeaf) {
+          result.add(entryAt(i));
+        } else {
+          nodeAt(i).collect(result);
+        }
+      }
+    }
+
+    public void findContains(double x, double y, Visitor<? super T> v) {
+      double[] c = coords;
+      for (int i = 0, j = 0; i < size; i++, j += 4) {
+        if (isLeaf) {
+          if (x >= c[j] && y >= c[j + 1] && x < c[j + 2] && y < c[j + 3]) {
+            v.visit(entryAt(i).object);
+          }
+        } else if (x >= c[j] && y >= c[j + 1] && x <= c[j + 2] && y <= c[j + 3]) {
+          nodeAt(i).findContains(x, y, v);
+        }
+      }
+    }
+
+    public void findIntersects(double minX, double minY, double maxX, double maxY, Visitor<? super T> v) {
+      double[] c = coords;
+      for (int i = 0, j = 0; i < size; i++, j += 4) {
+        if (isLeaf) {
+          if (c[j + 2] > c[j] && c[j + 3] > c[j + 1]
+              && c[j + 2] > minX && c[j + 3] > minY && c[j] < maxX && c[j + 1] < maxY) {
+            v.visit(entryAt(i).object);
+          }
+        } else if (c[j + 2] >= minX && c[j + 3] >= minY && c[j] <= maxX && c[j + 1] <= maxY) {
+          nodeAt(i).findIntersects(minX, minY, maxX, maxY, v);
+        }
+      }
+    }
+
+    public void findInside(double minX, double minY, double maxX, double maxY, Visitor<? super T> v) {
+      double[] c = coords;
+      for (int i = 0, j = 0; i < size; i++, j += 4) {
+        if (isLeaf) {
+          if (c[j + 2] > c[j] && c[j + 3] > c[j + 1]
+              && c[j] >= minX && c[j + 1] >= minY && c[j + 2] <= maxX && c[j + 3] <= maxY) {
+            v.visit(entryAt(i).object);
+          }
+        } else if (c[j + 2] >= minX && c[j + 3] >= minY && c[j] <= maxX && c[j + 1] <= maxY) {
+          nodeAt(i).findInside(minX, minY, maxX, maxY, v);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * @(#)SpatialIndex2DDouble.java  1.0  2026-10-17
+ *
+ * Copyright (c) 1996-2006 by the original authors of JHotDraw
+ * and all its contributors ("JHotDraw.org")
+ * All rights reserved.
+ *
+ * This software is the confidential and proprietary information of
+ * JHotDraw.org ("Confidential Information"). You shall not disclose
+ * such Confidential Information and shall use it only in accordance
+ * with the terms of the license agreement you entered into with
+ * JHotDraw.org.
+ */
+
+package org.jhotdraw.geom;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A SpatialIndex2DDouble finds objects by their bounds.
+ * <p>
+ * The find methods which take a {@link Visitor} or a result collection
+ * report each object at most once, and they do not allocate memory.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-17 Created.
+ */
+public interface SpatialIndex2DDouble<T> {
+  /**
+   * Receives the objects found by a query. Each object is visited at most
+   * once per query.
+   * <p>
+   * A visitor must not change or query the index while it is being visited.
+   */
+  interface Visitor<T> {
+    void visit(T o);
+  }
+
+  /**
+   * Adds an object to the index. If the index already contains the object,
+   * its bounds are replaced.
+   */
+  void add(T o, Rectangle2D.Double bounds);
+
+  /**
+   * Removes an object from the index.
+   */
+  void remove(T o);
+
+  /**
+   * Changes the bounds of an object.
+   * If the index does not contain the object, the object is added.
+   */
+  void move(T o, Rectangle2D.Double bounds);
+
+  /**
+   * Changes the bounds of many objects in one pass.
+   * Objects which are not in the index are added.
+   */
+  void move(Map<T, Rectangle2D.Double> moves);
+
+  Collection<T> findContains(Point2D.Double p);
+
+  /**
+   * Adds all objects whose bounds contain the specified point to the
+   * result collection.
+   */
+  void findContains(Point2D.Double p, Collection<? super T> result);
+
+  /**
+   * Visits all objects whose bounds contain the specified point.
+   */
+  void findContains(Point2D.Double p, Visitor<? super T> v);
+
+  Collection<T> findIntersects(Rectangle2D r);
+
+  Collection<T> findIntersects(Rectangle2D.Double r);
+
+  /**
+   * Adds all objects whose bounds intersect the specified rectangle to the
+   * result collection.
+   */
+  void findIntersects(Rectangle2D.Double r, Collection<? super T> result);
+
+  /**
+   * Visits all objects whose bounds intersect the specified rectangle.
+   */
+  void findIntersects(Rectangle2D.Double r, Visitor<? super T> v);
+
+  Collection<T> findInside(Rectangle2D.Double r);
+
+  /**
+   * Adds all objects whose bounds are inside of the specified rectangle to
+   * the result collection.
+   */
+  void findInside(Rectangle2D.Double r, Collection<? super T> result);
+
+  /**
+   * Visits all objects whose bounds are inside of the specified rectangle.
+   */
+  void findInside(Rectangle2D.Double r, Visitor<? super T> v);
+}
@@ -1,5 +1,5 @@
 /*
- * @(#)SVGUtils.java  1.0  July 8, 2006
+ * @(#)SVGUtils.java  1.1  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -31,7 +31,8 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * SVGUtils.
  *
  * @author Werner Randelshofer
- * @version 1.0 July 8, 2006, Created.
+ * @version 1.1 2026-10-17 Path data is parsed into a CompactBezierPath.
+ * <br>1.0 July 8, 2006, Created.
  */
 public class SVGUtil {
   private final static Color INHERIT_COLOR = new Color(0xffff00);
@@ -543,9 +544,17 @@ public class SVGUtil {
   private final static HashSet pathCommands = new HashSet(Arrays.asList("M", "m", "Z", "z", "L", "l", "H", "h", "V", "v", "C", "c", "S", "s", "Q", "q", "T", "t"));
 
   public static List<BezierPath> fromPathData(String str) throws IOException {
-    LinkedList<BezierPath> paths = new LinkedList<>();
+    return parsePathData(str).toBezierPaths();
+  }
 
-    BezierPath path = null;
+  /**
+   * Parses SVG path data into a CompactBezierPath with one subpath for
+   * each moveTo command.
+   */
+  public static CompactBezierPath parsePathData(String str) throws IOException {
+    CompactBezierPath path = new CompactBezierPath();
+    // The index of the first node of the current subpath
+    int start = 0;
     Point2D.Double p = new Point2D.Double();
     Point2D.Double c1 = new Point2D.Double();
     Point2D.Double c2 = new Point2D.Double();
@@ -565,14 +574,11 @@ public class SVGUtil {
         tt.pushBack();
       }
 
-      BezierPath.Node node;
+      int last;
       switch (command) {
         // moveTo
         case 'M':
-          if (path != null) {
-            paths.add(path);
-          }
-          path = new BezierPath();
+          start = path.size();
 
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
           p.x = tt.nval;
@@ -582,10 +588,7 @@ public class SVGUtil {
           nextCommand = 'L';
           break;
         case 'm':
-          if (path != null) {
-            paths.add(path);
-          }
-          path = new BezierPath();
+          start = path.size();
 
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
           p.x += tt.nval;
@@ -598,9 +601,9 @@ public class SVGUtil {
           break;
         case 'Z':
         case 'z':
-          p.x = path.get(0).x[0];
-          p.y = path.get(0).y[0];
-          path.setClosed(true);
+          p.x = path.getX(start, 0);
+          p.y = path.getY(start, 0);
+          path.closePath();
 
           // lineTo
           break;
@@ -686,9 +689,9 @@ public class SVGUtil {
 
           break;
         case 'S':
-          node = path.get(path.size() - 1);
-          c1.x = node.x[0] * 2d - node.x[1];
-          c1.y = node.y[0] * 2d - node.y[1];
+          last = path.size() - 1;
+          c1.x = path.getX(last, 0) * 2d - path.getX(last, 1);
+          c1.y = path.getY(last, 0) * 2d - path.getY(last, 1);
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
           c2.x = tt.nval;
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
@@ -702,9 +705,9 @@ public class SVGUtil {
 
           break;
         case 's':
-          node = path.get(path.size() - 1);
-          c1.x = node.x[0] * 2d - node.x[1];
-          c1.y = node.y[0] * 2d - node.y[1];
+          last = path.size() - 1;
+          c1.x = path.getX(last, 0) * 2d - path.getX(last, 1);
+          c1.y = path.getY(last, 0) * 2d - path.getY(last, 1);
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
           c2.x = p.x + tt.nval;
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
@@ -745,9 +748,9 @@ public class SVGUtil {
 
           break;
         case 'T':
-          node = path.get(path.size() - 1);
-          c1.x = node.x[0] * 2d - node.x[1];
-          c1.y = node.y[0] * 2d - node.y[1];
+          last = path.size() - 1;
+          c1.x = path.getX(last, 0) * 2d - path.getX(last, 1);
+          c1.y = path.getY(last, 0) * 2d - path.getY(last, 1);
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
           p.x = tt.nval;
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
@@ -757,9 +760,9 @@ public class SVGUtil {
 
           break;
         case 't':
-          node = path.get(path.size() - 1);
-          c1.x = node.x[0] * 2d - node.x[1];
-          c1.y = node.y[0] * 2d - node.y[1];
+          last = path.size() - 1;
+          c1.x = path.getX(last, 0) * 2d - path.getX(last, 1);
+          c1.y = path.getY(last, 0) * 2d - path.getY(last, 1);
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
           p.x += tt.nval;
           if (tt.nextToken() != StreamTokenizer.TT_NUMBER) throw new IOException("Number expected");
@@ -772,10 +775,7 @@ public class SVGUtil {
           throw new IOException("Illegal command: " + command);
       }
     }
-    if (path != null) {
-      paths.add(path);
-    }
-    return paths;
+    return path;
   }
 
   public static String getInheritedAttribute(String name, DOMInput in, List<Map<String, String>> styles) {
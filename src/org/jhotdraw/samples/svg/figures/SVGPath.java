@@ -1,5 +1,5 @@
 /*
- * @(#)SVGPath.java  1.0  July 8, 2006
+ * @(#)SVGPath.java  1.1  2026-10-17
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -21,6 +21,7 @@ import org.jhotdraw.draw.figures.Figure;
 import org.jhotdraw.draw.handlers.Handle;
 import org.jhotdraw.draw.handlers.RotateHandle;
 import org.jhotdraw.geom.BezierPath;
+import org.jhotdraw.geom.CompactBezierPath;
 import org.jhotdraw.samples.svg.SVGUtil;
 import org.jhotdraw.util.ResourceBundleUtil;
 import org.jhotdraw.xml.DOMInput;
@@ -30,7 +31,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.GeneralPath;
+import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.io.IOException;
 import java.util.Collection;
@@ -46,13 +47,14 @@ import static org.jhotdraw.draw.AttributeKeys.*;
  * XXX - Roll in the read() method of SVGLine.
  *
  * @author Werner Randelshofer
- * @version 1.0 July 8, 2006, Created.
+ * @version 1.1 2026-10-17 The path for drawing is a CompactBezierPath.
+ * <br>1.0 July 8, 2006, Created.
  */
 public class SVGPath extends AbstractAttributedCompositeFigure implements SVGFigure {
   /**
    * This path is used for drawing.
    */
-  private GeneralPath path;
+  private CompactBezierPath path;
 
   /**
    * Creates a new instance.
@@ -103,14 +105,14 @@ public class SVGPath extends AbstractAttributedCompositeFigure implements SVGFig
 
   protected void validatePath() {
     if (path == null) {
-      path = new GeneralPath();
+      path = new CompactBezierPath();
       path.setWindingRule(WINDING_RULE.get(this) == WindingRule.EVEN_ODD ?
-              GeneralPath.WIND_EVEN_ODD :
-              GeneralPath.WIND_NON_ZERO
+              PathIterator.WIND_EVEN_ODD :
+              PathIterator.WIND_NON_ZERO
       );
       for (org.jhotdraw.draw.figures.Figure child : getChildren()) {
         org.jhotdraw.draw.figures.BezierFigure b = (org.jhotdraw.draw.figures.BezierFigure) child;
-        path.append(b.getBezierPath(), false);
+        b.appendBezierPathTo(path);
       }
     }
   }
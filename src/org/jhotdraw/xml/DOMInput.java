@@ -1,5 +1,5 @@
 /*
- * @(#)DOMInput.java  1.0  10. März 2004
+ * @(#)DOMInput.java  1.1  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -15,12 +15,14 @@
 package org.jhotdraw.xml;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * DOMInput.
  *
  * @author Werner Randelshofer
- * @version 1.0 10. März 2004  Created.
+ * @version 1.1 2026-10-18 Added method getSharedObjects.
+ * <br>1.0 10. März 2004  Created.
  */
 public interface DOMInput {
 
@@ -110,4 +112,15 @@ public interface DOMInput {
    * Reads an object from the current element.
    */
   Object readObject(int index) throws IOException;
+
+  /**
+   * Returns the shared data, such as the attributes of figures, which has
+   * been read from the document of this input.
+   * <p>
+   * key = the id of the data<br>
+   * value = the data
+   *
+   * @see DOMOutput#getSharedIds
+   */
+  Map<String, Object> getSharedObjects();
 }
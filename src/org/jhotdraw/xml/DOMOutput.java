@@ -1,5 +1,5 @@
 /*
- * @(#)DOMOutput.java  1.2  2006-08-26
+ * @(#)DOMOutput.java  1.3  2026-10-18
  *
  * Copyright (c) 1996-2006 by the original authors of JHotDraw
  * and all its contributors ("JHotDraw.org")
@@ -15,12 +15,14 @@
 package org.jhotdraw.xml;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * DOMOutput.
  *
  * @author Werner Randelshofer
- * @version 1.2 2006-08-26 Added method setDoctype.
+ * @version 1.3 2026-10-18 Added method getSharedIds.
+ * <br>1.2 2006-08-26 Added method setDoctype.
  * <br>1.1. 2006-06-18 Renamed addElement to openElement.
  * <br>1.0 10. März 2004 Created.
  */
@@ -125,4 +127,14 @@ public interface DOMOutput {
    * as the prototype.
    */
   Object getPrototype();
+
+  /**
+   * Returns the ids of shared data, such as the attributes of figures,
+   * which have been written to the document of this output. Objects, which
+   * write equal data, can refer to it by id instead of writing it again.
+   * <p>
+   * key = an immutable object, which identifies the written data<br>
+   * value = the id of the data
+   */
+  Map<Object, String> getSharedIds();
 }
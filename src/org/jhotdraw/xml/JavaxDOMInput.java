@@ -30,12 +30,14 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 /**
  * DOMInput.
  *
  * @author Werner Randelshofer
- * @version 2.1 2006-07-08 Support objects which don't have an ID.
+ * @version 2.2 2026-10-18 Method getSharedObjects added.
+ * <br>2.1 2006-07-08 Support objects which don't have an ID.
  * <br>2.0 2006-06-10 Support for Enum and double array objects added.
  * <br>1.0 February 17, 2004, Created.
  */
@@ -47,6 +49,11 @@ public class JavaxDOMInput implements DOMInput {
    */
   private final HashMap<String, Object> idObjects = new HashMap<>();
 
+  /**
+   * The shared data, which has been read from the document, by id.
+   */
+  private final HashMap<String, Object> sharedObjects = new HashMap<>();
+
   /**
    * The document used for input.
    */
@@ -340,4 +347,8 @@ public class JavaxDOMInput implements DOMInput {
     closeElement();
     return o;
   }
+
+  public Map<String, Object> getSharedObjects() {
+    return sharedObjects;
+  }
 }
@@ -30,7 +30,8 @@ import java.io.*;
  * DOMOutput.
  *
  * @author Werner Randelshofer
- * @version 2.1 2006-08-26 Method setDoctype added.
+ * @version 2.2 2026-10-18 Method getSharedIds added.
+ * <br>2.1 2006-08-26 Method setDoctype added.
  * <br>2.0 2006-06-10 Support for prototype objects added. Support for
  * Enum and double array objects added.
  * <br>1.2 2006-03-20 Added support for default values.
@@ -50,6 +51,11 @@ public class JavaxDOMOutput implements DOMOutput {
    */
   private final HashMap<Object, String> objectIds;
 
+  /**
+   * The ids of shared data, which has been written to the document.
+   */
+  private final HashMap<Object, String> sharedIds = new HashMap<>();
+
   /**
    * This map is used to cache prototype objects.
    */
@@ -334,4 +340,8 @@ public class JavaxDOMOutput implements DOMOutput {
   public void setDoctype(String doctype) {
     this.doctype = doctype;
   }
+
+  public Map<Object, String> getSharedIds() {
+    return sharedIds;
+  }
 }
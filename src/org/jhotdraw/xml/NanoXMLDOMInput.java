@@ -25,7 +25,8 @@ import net.n3.nanoxml.*;
  * NanoXMLDOMInput.
  *
  * @author Werner Randelshofer
- * @version 2.1.1 2006-08-21 Fixed exceptions.
+ * @version 2.2 2026-10-18 Method getSharedObjects added.
+ * <br>2.1.1 2006-08-21 Fixed exceptions.
  * <br>2.0 2006-06-10 Support for Enum and double array objects added.
  * <br>1.0 February 17, 2004, Created.
  */
@@ -37,6 +38,11 @@ public class NanoXMLDOMInput implements DOMInput {
    */
   private final HashMap<String, Object> idObjects = new HashMap<>();
 
+  /**
+   * The shared data, which has been read from the document, by id.
+   */
+  private final HashMap<String, Object> sharedObjects = new HashMap<>();
+
   /**
    * The current node used for input.
    */
@@ -299,4 +305,8 @@ public class NanoXMLDOMInput implements DOMInput {
     closeElement();
     return o;
   }
+
+  public Map<String, Object> getSharedObjects() {
+    return sharedObjects;
+  }
 }
@@ -25,7 +25,8 @@ import net.n3.nanoxml.*;
  * DOMOutput using Nano XML.
  *
  * @author Werner Randelshofer
- * @version 2.1 2006-08-26 Method setDoctype added.
+ * @version 2.2 2026-10-18 Method getSharedIds added.
+ * <br>2.1 2006-08-26 Method setDoctype added.
  * <br>2.0.1 2006-08-21 Method save() and print() wrote an empty file.
  * <br>2.0 2006-06-10 Support for prototype objects added. Support for
  * Enum and double array objects added.
@@ -45,6 +46,11 @@ public class NanoXMLDOMOutput implements DOMOutput {
    * is String representing a marshalled reference to that object.
    */
   private final HashMap<Object, String> objectIds;
+
+  /**
+   * The ids of shared data, which has been written to the document.
+   */
+  private final HashMap<Object, String> sharedIds = new HashMap<>();
   /**
    * This map is used to cache prototype objects.
    */
@@ -342,4 +348,8 @@ public class NanoXMLDOMOutput implements DOMOutput {
   public void setDoctype(String doctype) {
     this.doctype = doctype;
   }
-}
\ No newline at end of file
+
+  public Map<Object, String> getSharedIds() {
+    return sharedIds;
+  }
+}
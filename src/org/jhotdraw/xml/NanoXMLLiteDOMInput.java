@@ -25,7 +25,8 @@ import nanoxml.*;
  * NanoXMLDOMInput.
  *
  * @author Werner Randelshofer
- * @version 2.0 2006-06-10 Support for Enum and double array objects added.
+ * @version 2.1 2026-10-18 Method getSharedObjects added.
+ * <br>2.0 2006-06-10 Support for Enum and double array objects added.
  * <br>1.0 February 17, 2004, Created.
  */
 public class NanoXMLLiteDOMInput implements DOMInput {
@@ -36,6 +37,11 @@ public class NanoXMLLiteDOMInput implements DOMInput {
    */
   private final HashMap<String, Object> idObjects = new HashMap<>();
 
+  /**
+   * The shared data, which has been read from the document, by id.
+   */
+  private final HashMap<String, Object> sharedObjects = new HashMap<>();
+
   /**
    * The document used for input.
    */
@@ -293,4 +299,8 @@ public class NanoXMLLiteDOMInput implements DOMInput {
     closeElement();
     return o;
   }
+
+  public Map<String, Object> getSharedObjects() {
+    return sharedObjects;
+  }
 }
@@ -25,7 +25,8 @@ import nanoxml.*;
  * DOMOutput using Nano XML.
  *
  * @author Werner Randelshofer
- * @version 2.1 2006-08-26 Method setDoctype added.
+ * @version 2.2 2026-10-18 Method getSharedIds added.
+ * <br>2.1 2006-08-26 Method setDoctype added.
  * <br>2.0 2006-06-10 Support for prototype objects added. Support for
  * Enum and double array objects added.
  * <br>1.2 2006-03-20 Added support for default values.
@@ -45,6 +46,11 @@ public class NanoXMLLiteDOMOutput implements DOMOutput {
    * is String representing a marshalled reference to that object.
    */
   private final HashMap<Object, String> objectIds;
+
+  /**
+   * The ids of shared data, which has been written to the document.
+   */
+  private final HashMap<Object, String> sharedIds = new HashMap<>();
   /**
    * This map is used to cache prototype objects.
    */
@@ -335,4 +341,8 @@ public class NanoXMLLiteDOMOutput implements DOMOutput {
   public void setDoctype(String doctype) {
     this.doctype = doctype;
   }
-}
\ No newline at end of file
+
+  public Map<Object, String> getSharedIds() {
+    return sharedIds;
+  }
+}